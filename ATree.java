@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+
+// The class serves as an abstracted representation for an ITree, containing the value associated
+// with any ITree. 
+abstract class ATree implements ITree {
+  int freq;
+  
+  // Constructor
+  ATree(int freq) {
+    this.freq = freq;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.freq ...                                                      -- int
+   * METHODS:
+   * ... isSmallerFreq(ATree other) ...                                     -- boolean
+   * ... find(String c) ...                                                 -- boolean
+   * ... updateConverted(ArrayList<Boolean> converted, String letter) ...   -- void
+   * ... decodeThisTree(ArrayList<Boolean> input, Forest f) ...             -- String
+   * ... fillCodes(CodeTable table, long code, int length) ...              -- void
+   * ... step(boolean direction) ...                                        -- ATree
+   * ... emit(StringBuilder output) ...                                     -- boolean
+   * ... height() ...                                                       -- int
+   * ... fillDecodeTable(DecodeTable table, int offset, int width, 
+   *                     int depth, int index) ...                          -- void
+   * ... flatten(FlatTree tree) ...                                         -- int
+   */ 
+  
+  // This method checks whether the frequency of this ATree is smaller than the frequency of the 
+  // given ATree. 
+  boolean isSmallerFreq(ATree other) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... other ...        -- ATree
+     * FIELDS OF PARAMETERS:
+     * ... other.freq ...   -- int
+     */
+    return (this.freq < other.freq);
+  }
+  
+  // This method is meant to check whether the given string exists in this particular ATree or not.
+  abstract boolean find(String c);
+  
+  // This method is meant to update the arraylist of booleans based on where the encoded letter is
+  // located in the Huffman Tree. 
+  abstract void updateConverted(ArrayList<Boolean> converted, String letter);
+  
+  // This method is meant to use the given arraylist of booleans as instructions to locate what
+  // is meant to be decoded. This method also keeps track of the current Forest that is being 
+  // navigated. 
+  abstract String decodeThisTree(ArrayList<Boolean> input, Forest f);
+  
+  // EFFECT: This method is meant to record the codeword of every symbol in this ATree into the 
+  // given table, given the code and code length of the path that leads to this ATree. 
+  abstract void fillCodes(CodeTable table, long code, int length);
+  
+  // This method is meant to return the ATree reached by following one step in the given 
+  // direction from this ATree: false (0) for left and true (1) for right. 
+  abstract ATree step(boolean direction);
+  
+  // EFFECT: This method is meant to append the encoded symbol of this ATree to the given output, 
+  // if it has one, returning whether it did so. 
+  abstract boolean emit(StringBuilder output);
+  
+  // This method is meant to return the length of the longest path from this ATree down to one 
+  // of its Leaves. 
+  abstract int height();
+  
+  // EFFECT: This method is meant to record this ATree in the given DecodeTable, as the lookup 
+  // table starting at the given offset and indexed by the given width of bits, where this ATree
+  // is reached after depth bits of that table's index that make up the given index. 
+  abstract void fillDecodeTable(DecodeTable table, int offset, int width, int depth, int index);
+  
+  // EFFECT: This method is meant to copy this ATree into the given FlatTree, returning how the 
+  // FlatTree refers to it: the number of a Node, or -1 minus the slot of a Leaf's symbol. 
+  abstract int flatten(FlatTree tree);
+}
@@ -0,0 +1,510 @@
+import tester.*;
+import java.util.Arrays;
+
+// This represents the state of an adaptive Huffman code over the 256 byte values, following the
+// FGK algorithm, which needs no frequencies up front. The tree starts out as a single Leaf that
+// stands for every byte not yet seen, and is updated after every byte, so that an encoder and a
+// decoder that start out the same and see the same bytes always hold the same tree and no code
+// table is ever sent. A byte seen for the first time is sent as the codeword of the not-yet-seen
+// Leaf followed by its 8 bits.
+// The tree is kept in arrays indexed by node number, numbered so that weights never decrease
+// from the lowest number to the root, which holds the highest number. Keeping that order while
+// weights grow is what keeps the tree a Huffman Tree; a node about to grow first trades places
+// with the highest-numbered node of the same weight. The tree never holds more than 513 nodes,
+// however long the input is, and its weights never overflow: once the root reaches rescaleAt,
+// every weight is halved and the tree rebuilt before the next byte is counted, in the same way
+// on both sides of the stream. Halving rounds up, so it leaves the root at most half of
+// rescaleAt plus one half for each of the 256 byte values; a rescaleAt of at least 513 keeps
+// that below it, so that the root never passes rescaleAt.
+// An instance holds the state of one side of a single stream, so it is not to be shared between
+// threads or between an encoder and a decoder.
+class AdaptiveHuffman {
+  int[] weight;
+  int[] parent;
+  int[] left;
+  int[] right;
+  int[] symbol;
+  int[] leafOf;
+  int nyt;
+  int root;
+  int[] path;
+  final int rescaleAt;
+  
+  // The symbol of the Leaf that stands for every byte not yet seen; internal nodes have -1.
+  static final int NOT_YET_SEEN = 256;
+  
+  // Constructor makes the starting state, a tree that is only the not-yet-seen Leaf, that is
+  // rescaled once the root reaches the given weight, which must be at least 513.
+  AdaptiveHuffman(int rescaleAt) {
+    if (rescaleAt < 513) {
+      throw new IllegalArgumentException("Cannot rescale at a weight below 513.");
+    }
+    this.root = 2 * 256;
+    this.weight = new int[this.root + 1];
+    this.parent = new int[this.root + 1];
+    this.left = new int[this.root + 1];
+    this.right = new int[this.root + 1];
+    this.symbol = new int[this.root + 1];
+    this.leafOf = new int[256];
+    this.path = new int[this.root + 1];
+    Arrays.fill(this.symbol, -1);
+    Arrays.fill(this.leafOf, -1);
+    this.nyt = this.root;
+    this.symbol[this.root] = NOT_YET_SEEN;
+    this.parent[this.root] = -1;
+    this.rescaleAt = rescaleAt;
+  }
+  
+  // Constructor makes the starting state of a tree that is only rescaled once the root reaches
+  // the largest int.
+  AdaptiveHuffman() {
+    this(Integer.MAX_VALUE);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.weight ...                               -- int[]
+   * ... this.parent ...                               -- int[]
+   * ... this.left ...                                 -- int[]
+   * ... this.right ...                                -- int[]
+   * ... this.symbol ...                               -- int[]
+   * ... this.leafOf ...                               -- int[]
+   * ... this.nyt ...                                  -- int
+   * ... this.root ...                                 -- int
+   * ... this.path ...                                 -- int[]
+   * ... this.rescaleAt ...                            -- int
+   * METHODS:
+   * ... update(int b) ...                             -- void
+   * ... rescale() ...                                 -- void
+   * ... leader(int node) ...                          -- int
+   * ... swap(int one, int two) ...                    -- void
+   * ... place(int node) ...                           -- void
+   * ... appendPath(int node, BitBuffer output) ...    -- void
+   * ... encodeSymbol(int b, BitBuffer output) ...     -- void
+   * ... encode(byte[] input) ...                      -- BitBuffer
+   * ... decode(BitBuffer input) ...                   -- byte[]
+   */
+  
+  // EFFECT: Counts one more occurrence of the given byte value, first giving it a Leaf split off
+  // the not-yet-seen Leaf if it has none, then adding one to the weight of its Leaf and of every
+  // node above it, moving each one up the numbering ahead of the nodes of equal weight first.
+  // A root that has reached rescaleAt is rescaled first, so no weight ever passes it.
+  void update(int b) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... b ...   -- int
+     */
+    if (this.weight[this.root] >= this.rescaleAt) {
+      this.rescale();
+    }
+    int node = this.leafOf[b];
+    if (node < 0) {
+      int split = this.nyt;
+      this.left[split] = split - 2;
+      this.right[split] = split - 1;
+      this.symbol[split] = -1;
+      this.parent[split - 2] = split;
+      this.parent[split - 1] = split;
+      this.symbol[split - 2] = NOT_YET_SEEN;
+      this.symbol[split - 1] = b;
+      this.nyt = split - 2;
+      this.leafOf[b] = split - 1;
+      node = split - 1;
+    }
+    while (node != this.root) {
+      int leader = this.leader(node);
+      if (leader != node && leader != this.parent[node]) {
+        this.swap(node, leader);
+        node = leader;
+      }
+      this.weight[node] += 1;
+      node = this.parent[node];
+    }
+    this.weight[this.root] += 1;
+  }
+  
+  // EFFECT: Halves the weight of every Leaf, rounding up so that no byte seen so far drops back to
+  // a weight of 0, and rebuilds the tree over the same node numbers with Huffman's algorithm.
+  // Nodes are numbered in the order the algorithm takes them out of its two queues, which is an
+  // order of non-decreasing weight with siblings next to each other, so the rebuilt tree keeps
+  // the numbering that update relies on, with the not-yet-seen Leaf still the lowest.
+  void rescale() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    int lowest = this.nyt;
+    int[] leafSymbols = new int[this.root - lowest + 1];
+    int[] leafWeights = new int[this.root - lowest + 1];
+    int leaves = 0;
+    for (int n = lowest; n <= this.root; n += 1) {
+      if (this.symbol[n] >= 0) {
+        leafSymbols[leaves] = this.symbol[n];
+        leafWeights[leaves] = (int) (((long) this.weight[n] + 1) / 2);
+        leaves += 1;
+      }
+    }
+    Integer[] boxed = new Integer[leaves];
+    for (int i = 0; i < leaves; i += 1) {
+      boxed[i] = i;
+    }
+    Arrays.sort(boxed, new WeightCompare(Arrays.copyOf(leafWeights, leaves)));
+    
+    // The second queue holds the internal nodes made so far, by the numbers of their children.
+    int[] madeLeft = new int[leaves];
+    int[] madeWeight = new int[leaves];
+    int made = 0;
+    int taken = 0;
+    int leaf = 0;
+    for (int n = lowest; n <= this.root; n += 1) {
+      if (taken == made || (leaf < leaves && leafWeights[boxed[leaf]] <= madeWeight[taken])) {
+        this.weight[n] = leafWeights[boxed[leaf]];
+        this.symbol[n] = leafSymbols[boxed[leaf]];
+        leaf += 1;
+      } else {
+        this.weight[n] = madeWeight[taken];
+        this.symbol[n] = -1;
+        this.left[n] = madeLeft[taken];
+        this.right[n] = madeLeft[taken] + 1;
+        taken += 1;
+      }
+      this.place(n);
+      if ((n - lowest) % 2 == 1) {
+        madeLeft[made] = n - 1;
+        madeWeight[made] = this.weight[n - 1] + this.weight[n];
+        made += 1;
+      }
+    }
+    this.parent[this.root] = -1;
+  }
+  
+  // This method returns the highest-numbered node that has the same weight as the given node.
+  int leader(int node) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... node ...   -- int
+     */
+    int leader = node;
+    while (leader < this.root && this.weight[leader + 1] == this.weight[node]) {
+      leader += 1;
+    }
+    return leader;
+  }
+  
+  // EFFECT: Trades the places of the subtrees at the two given node numbers, each one taking the
+  // other's place under its parent. Neither may be above the other.
+  void swap(int one, int two) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... one ...   -- int
+     * ... two ...   -- int
+     */
+    int w = this.weight[one];
+    this.weight[one] = this.weight[two];
+    this.weight[two] = w;
+    int s = this.symbol[one];
+    this.symbol[one] = this.symbol[two];
+    this.symbol[two] = s;
+    int l = this.left[one];
+    this.left[one] = this.left[two];
+    this.left[two] = l;
+    int r = this.right[one];
+    this.right[one] = this.right[two];
+    this.right[two] = r;
+    this.place(one);
+    this.place(two);
+  }
+  
+  // EFFECT: Points whatever refers to the contents of the given node number back at it: the
+  // parents of its children if it is internal, or the Leaf of its symbol if it is a Leaf.
+  void place(int node) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... node ...   -- int
+     */
+    if (this.symbol[node] < 0) {
+      this.parent[this.left[node]] = node;
+      this.parent[this.right[node]] = node;
+    } else if (this.symbol[node] == NOT_YET_SEEN) {
+      this.nyt = node;
+    } else {
+      this.leafOf[this.symbol[node]] = node;
+    }
+  }
+  
+  // EFFECT: Appends the codeword of the given node to the given BitBuffer, the path from the root
+  // down to it, with 0 for every left turn and 1 for every right turn.
+  void appendPath(int node, BitBuffer output) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... node ...     -- int
+     * ... output ...   -- BitBuffer
+     * METHODS ON PARAMETERS:
+     * ... output.append(long code, int length) ...   -- void
+     */
+    int length = 0;
+    while (node != this.root) {
+      int up = this.parent[node];
+      this.path[length] = this.right[up] == node ? 1 : 0;
+      length += 1;
+      node = up;
+    }
+    while (length > 0) {
+      int chunk = Math.min(64, length);
+      long code = 0;
+      for (int i = 0; i < chunk; i += 1) {
+        length -= 1;
+        code = (code << 1) | this.path[length];
+      }
+      output.append(code, chunk);
+    }
+  }
+  
+  // EFFECT: Appends the codeword of the given byte value to the given BitBuffer, or the codeword
+  // of the not-yet-seen Leaf and the 8 bits of the byte if it has not been seen yet, and then
+  // updates the tree.
+  void encodeSymbol(int b, BitBuffer output) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... b ...        -- int
+     * ... output ...   -- BitBuffer
+     * METHODS ON PARAMETERS:
+     * ... output.append(long code, int length) ...   -- void
+     */
+    if (this.leafOf[b] < 0) {
+      this.appendPath(this.nyt, output);
+      output.append(b, 8);
+    } else {
+      this.appendPath(this.leafOf[b], output);
+    }
+    this.update(b);
+  }
+  
+  // This method encodes the given bytes in a single pass, carrying on from the bytes this
+  // encoder has seen before, so a long stream can be encoded a piece at a time.
+  BitBuffer encode(byte[] input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- byte[]
+     */
+    BitBuffer output = new BitBuffer(input.length * 8);
+    for (int i = 0; i < input.length; i += 1) {
+      this.encodeSymbol(input[i] & 0xFF, output);
+    }
+    return output;
+  }
+  
+  // This method decodes the given bits back into bytes, carrying on from the bytes this decoder
+  // has seen before, so that pieces encoded one after another decode one after another. Bits
+  // that end in the middle of a codeword are an error.
+  byte[] decode(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- BitBuffer
+     * METHODS ON PARAMETERS:
+     * ... input.get(int index) ...   -- boolean
+     */
+    byte[] output = new byte[Math.max(16, input.size / 4)];
+    int written = 0;
+    int pos = 0;
+    while (pos < input.size) {
+      int node = this.root;
+      while (this.symbol[node] < 0) {
+        if (pos == input.size) {
+          throw new IllegalArgumentException("Encoded bits end in the middle of a codeword.");
+        }
+        if (input.get(pos)) {
+          node = this.right[node];
+        } else {
+          node = this.left[node];
+        }
+        pos += 1;
+      }
+      int b = this.symbol[node];
+      if (b == NOT_YET_SEEN) {
+        if (pos + 8 > input.size) {
+          throw new IllegalArgumentException("Encoded bits end in the middle of a codeword.");
+        }
+        b = 0;
+        for (int i = 0; i < 8; i += 1) {
+          b = (b << 1) | (input.get(pos) ? 1 : 0);
+          pos += 1;
+        }
+      }
+      if (written == output.length) {
+        output = Arrays.copyOf(output, output.length * 2);
+      }
+      output[written] = (byte) b;
+      written += 1;
+      this.update(b);
+    }
+    return Arrays.copyOf(output, written);
+  }
+}
+
+class ExamplesAdaptiveHuffman {
+  
+  //tests that the constructor works as expected
+  void testAdaptiveHuffmanConstructor(Tester t) {
+    AdaptiveHuffman code = new AdaptiveHuffman();
+    t.checkExpect(code.root, 512);
+    t.checkExpect(code.nyt, 512);
+    t.checkExpect(code.symbol[512], AdaptiveHuffman.NOT_YET_SEEN);
+    t.checkExpect(code.weight[512], 0);
+    t.checkExpect(code.leafOf[0], -1);
+    t.checkExpect(code.rescaleAt, Integer.MAX_VALUE);
+    t.checkExpect(new AdaptiveHuffman(513).rescaleAt, 513);
+    t.checkConstructorException(
+        new IllegalArgumentException("Cannot rescale at a weight below 513."),
+        "AdaptiveHuffman", 512);
+  }
+  
+  //tests that the update, leader, swap and place methods work as expected
+  void testUpdate(Tester t) {
+    AdaptiveHuffman code = new AdaptiveHuffman();
+    code.update('a');
+    t.checkExpect(code.leafOf['a'], 511);
+    t.checkExpect(code.nyt, 510);
+    t.checkExpect(code.weight[511], 1);
+    t.checkExpect(code.weight[512], 1);
+    code.update('b');
+    t.checkExpect(code.leafOf['b'], 509);
+    t.checkExpect(code.weight[510], 1);
+    t.checkExpect(code.weight[512], 2);
+    code.update('b');
+    t.checkExpect(code.leafOf['b'], 511);
+    t.checkExpect(code.leafOf['a'], 509);
+    t.checkExpect(code.parent[510], 512);
+    t.checkExpect(code.weight[511], 2);
+    t.checkExpect(code.leader(509), 510);
+    t.checkExpect(code.leader(511), 511);
+    
+    for (int i = 0; i < 5000; i += 1) {
+      code.update((i * i + i / 3) % 200);
+    }
+    boolean ordered = true;
+    boolean summed = true;
+    for (int n = code.nyt; n < code.root; n += 1) {
+      ordered = ordered && code.weight[n] <= code.weight[n + 1];
+      if (code.symbol[n + 1] < 0) {
+        summed = summed
+            && code.weight[n + 1] == code.weight[code.left[n + 1]] + code.weight[code.right[n + 1]]
+            && code.parent[code.left[n + 1]] == n + 1;
+      }
+    }
+    t.checkExpect(ordered, true);
+    t.checkExpect(summed, true);
+    t.checkExpect(code.weight[code.root], 5003);
+  }
+  
+  //tests that the rescale method works as expected
+  void testRescale(Tester t) {
+    AdaptiveHuffman code = new AdaptiveHuffman();
+    code.update('a');
+    code.update('b');
+    code.update('b');
+    code.update('b');
+    code.update('c');
+    code.rescale();
+    t.checkExpect(code.nyt, 506);
+    t.checkExpect(code.weight[code.nyt], 0);
+    t.checkExpect(code.weight[code.leafOf['a']], 1);
+    t.checkExpect(code.weight[code.leafOf['b']], 2);
+    t.checkExpect(code.weight[code.leafOf['c']], 1);
+    t.checkExpect(code.weight[code.root], 4);
+    t.checkExpect(code.parent[code.root], -1);
+    t.checkExpect(code.leafOf['b'], 510);
+    
+    AdaptiveHuffman capped = new AdaptiveHuffman(1000);
+    boolean bounded = true;
+    for (int i = 0; i < 5000; i += 1) {
+      capped.update((i * i + i / 3) % 200);
+      bounded = bounded && capped.weight[capped.root] <= 1000;
+    }
+    boolean ordered = true;
+    boolean summed = true;
+    for (int n = capped.nyt; n < capped.root; n += 1) {
+      ordered = ordered && capped.weight[n] <= capped.weight[n + 1];
+      if (capped.symbol[n + 1] < 0) {
+        summed = summed
+            && capped.weight[n + 1]
+                == capped.weight[capped.left[n + 1]] + capped.weight[capped.right[n + 1]]
+            && capped.parent[capped.left[n + 1]] == n + 1
+            && capped.parent[capped.right[n + 1]] == n + 1;
+      }
+    }
+    t.checkExpect(bounded, true);
+    t.checkExpect(ordered, true);
+    t.checkExpect(summed, true);
+    
+    AdaptiveHuffman lowest = new AdaptiveHuffman(513);
+    boolean below = true;
+    for (int i = 0; i < 20000; i += 1) {
+      lowest.update(i % 256);
+      below = below && lowest.weight[lowest.root] <= 513;
+    }
+    t.checkExpect(below, true);
+    
+    byte[] data = new byte[20000];
+    for (int i = 0; i < data.length; i += 1) {
+      data[i] = (byte) ((i % 7) * (i % 11) + (i / 1000));
+    }
+    AdaptiveHuffman encoder = new AdaptiveHuffman(513);
+    AdaptiveHuffman decoder = new AdaptiveHuffman(513);
+    t.checkExpect(decoder.decode(encoder.encode(data)), data);
+  }
+  
+  //tests that the appendPath and encodeSymbol methods work as expected
+  void testEncodeSymbol(Tester t) {
+    AdaptiveHuffman code = new AdaptiveHuffman();
+    BitBuffer bits = new BitBuffer(0);
+    code.encodeSymbol('a', bits);
+    t.checkExpect(bits.size, 8);
+    code.encodeSymbol('a', bits);
+    code.encodeSymbol('b', bits);
+    t.checkExpect(bits.size, 18);
+    t.checkExpect(bits.words[0], 0x18662L << 46);
+    BitBuffer path = new BitBuffer(0);
+    code.appendPath(code.root, path);
+    t.checkExpect(path.size, 0);
+    code.appendPath(code.nyt, path);
+    t.checkExpect(path.size, 2);
+  }
+  
+  //tests that the encode and decode methods work as expected
+  void testEncodeDecode(Tester t) {
+    byte[] data = new byte[50000];
+    for (int i = 0; i < data.length; i += 1) {
+      data[i] = (byte) ((i % 7) * (i % 11) + (i / 1000));
+    }
+    BitBuffer bits = new AdaptiveHuffman().encode(data);
+    t.checkExpect(bits.size < data.length * 8, true);
+    t.checkExpect(new AdaptiveHuffman().decode(bits), data);
+    
+    AdaptiveHuffman encoder = new AdaptiveHuffman();
+    AdaptiveHuffman decoder = new AdaptiveHuffman();
+    byte[] one = Arrays.copyOfRange(data, 0, 20000);
+    byte[] two = Arrays.copyOfRange(data, 20000, data.length);
+    t.checkExpect(decoder.decode(encoder.encode(one)), one);
+    t.checkExpect(decoder.decode(encoder.encode(two)), two);
+    t.checkExpect(new AdaptiveHuffman().decode(new BitBuffer(0)), new byte[0]);
+    
+    byte[] all = new byte[256];
+    for (int i = 0; i < 256; i += 1) {
+      all[i] = (byte) i;
+    }
+    t.checkExpect(new AdaptiveHuffman().decode(new AdaptiveHuffman().encode(all)), all);
+  }
+  
+  //tests that the decode method throws exceptions when expected
+  void testDecodeExceptions(Tester t) {
+    BitBuffer bits = new AdaptiveHuffman().encode(new byte[] {5, 6});
+    BitBuffer raw = bits.slice(0, 12);
+    BitBuffer path = new BitBuffer(0);
+    path.append(0x05L, 8);
+    t.checkException(new IllegalArgumentException("Encoded bits end in the middle of a codeword."),
+        new AdaptiveHuffman(), "decode", raw);
+    t.checkException(new IllegalArgumentException("Encoded bits end in the middle of a codeword."),
+        new AdaptiveHuffman(), "decode", bits.slice(0, 9));
+    t.checkExpect(new AdaptiveHuffman().decode(path), new byte[] {5});
+  }
+}
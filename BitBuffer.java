@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// This represents a packed sequence of bits, stored 64 to a long with the first bit in the most
+// significant position of the first word, along with the number of bits in the sequence. It is 
+// the compact counterpart of an arraylist of booleans. 
+class BitBuffer {
+  long[] words;
+  int size;
+  
+  // Constructor makes an empty BitBuffer with room for the given number of bits, growing as 
+  // needed. 
+  BitBuffer(int capacity) {
+    this.words = new long[Math.max(1, (capacity + 63) >>> 6)];
+    this.size = 0;
+  }
+  
+  // Constructor makes a BitBuffer holding the same bits as the given arraylist of booleans. 
+  BitBuffer(ArrayList<Boolean> bits) {
+    this(bits.size());
+    for (boolean bit : bits) {
+      this.appendBit(bit);
+    }
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.words ...                       -- long[]
+   * ... this.size ...                        -- int
+   * METHODS:
+   * ... ensureCapacity(int bits) ...         -- void
+   * ... append(long code, int length) ...    -- void
+   * ... appendBit(boolean bit) ...           -- void
+   * ... appendBits(BitBuffer other) ...      -- void
+   * ... truncate(int size) ...               -- void
+   * ... slice(int start, int end) ...        -- BitBuffer
+   * ... get(int index) ...                   -- boolean
+   * ... toBooleans() ...                     -- ArrayList<Boolean>
+   * ... toByteArray() ...                    -- byte[]
+   */
+  
+  // EFFECT: Grows this BitBuffer's array of words so that it can hold at least the given number 
+  // of bits. 
+  void ensureCapacity(int bits) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... bits ...   -- int
+     */
+    int needed = (bits + 63) >>> 6;
+    if (needed > this.words.length) {
+      this.words = Arrays.copyOf(this.words, Math.max(needed, this.words.length * 2));
+    }
+  }
+  
+  // EFFECT: Appends the lowest length bits of the given code to this BitBuffer, most significant 
+  // bit first. The length must be between 0 and 64. 
+  void append(long code, int length) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... code ...     -- long
+     * ... length ...   -- int
+     */
+    if (length == 0) {
+      return;
+    }
+    this.ensureCapacity(this.size + length);
+    if (length < 64) {
+      code &= (1L << length) - 1;
+    }
+    int word = this.size >>> 6;
+    int free = 64 - (this.size & 63);
+    if (length <= free) {
+      this.words[word] |= code << (free - length);
+    } else {
+      this.words[word] |= code >>> (length - free);
+      this.words[word + 1] |= code << (64 - (length - free));
+    }
+    this.size += length;
+  }
+  
+  // EFFECT: Appends the given bit to this BitBuffer. 
+  void appendBit(boolean bit) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... bit ...   -- boolean
+     */
+    if (bit) {
+      this.append(1L, 1);
+    } else {
+      this.append(0L, 1);
+    }
+  }
+  
+  // EFFECT: Appends every bit of the given BitBuffer to this BitBuffer, a word at a time. 
+  void appendBits(BitBuffer other) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... other ...         -- BitBuffer
+     * FIELDS OF PARAMETERS:
+     * ... other.words ...   -- long[]
+     * ... other.size ...    -- int
+     */
+    this.ensureCapacity(this.size + other.size);
+    int whole = other.size >>> 6;
+    for (int i = 0; i < whole; i += 1) {
+      this.append(other.words[i], 64);
+    }
+    int rest = other.size & 63;
+    if (rest > 0) {
+      this.append(other.words[whole] >>> (64 - rest), rest);
+    }
+  }
+  
+  // EFFECT: Drops every bit of this BitBuffer from the given size on, keeping its array of words
+  // so that it can be filled again without growing. 
+  void truncate(int size) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... size ...   -- int
+     */
+    if (size < 0 || size > this.size) {
+      throw new IndexOutOfBoundsException(
+          "Cannot truncate " + this.size + " bits to " + size + " bits.");
+    }
+    int word = size >>> 6;
+    if ((size & 63) != 0) {
+      this.words[word] &= -1L << (64 - (size & 63));
+      word += 1;
+    }
+    Arrays.fill(this.words, word, (this.size + 63) >>> 6, 0L);
+    this.size = size;
+  }
+  
+  // This method returns a new BitBuffer holding the bits of this BitBuffer from the given start 
+  // up to but not including the given end. 
+  BitBuffer slice(int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... start ...   -- int
+     * ... end ...     -- int
+     */
+    if (start < 0 || end > this.size || start > end) {
+      throw new IndexOutOfBoundsException(
+          "Bits " + start + " to " + end + " are outside of " + this.size + " bits.");
+    }
+    BitBuffer slice = new BitBuffer(end - start);
+    for (int pos = start; pos < end; pos += 64) {
+      int n = Math.min(64, end - pos);
+      int word = pos >>> 6;
+      int shift = pos & 63;
+      long bits = this.words[word] << shift;
+      if (shift != 0 && word + 1 < this.words.length) {
+        bits |= this.words[word + 1] >>> (64 - shift);
+      }
+      slice.append(bits >>> (64 - n), n);
+    }
+    return slice;
+  }
+  
+  // This method returns the bit at the given index of this BitBuffer. 
+  boolean get(int index) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... index ...   -- int
+     */
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException(
+          "Bit " + index + " is outside of " + this.size + " bits.");
+    }
+    return ((this.words[index >>> 6] >>> (63 - (index & 63))) & 1L) == 1L;
+  }
+  
+  // This method unpacks this BitBuffer into an arraylist of booleans holding the same bits. 
+  ArrayList<Boolean> toBooleans() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    ArrayList<Boolean> bits = new ArrayList<Boolean>(this.size);
+    for (int i = 0; i < this.size; i += 1) {
+      bits.add(this.get(i));
+    }
+    return bits;
+  }
+  
+  // This method returns the bits of this BitBuffer packed 8 to a byte, first bit in the most 
+  // significant position, with the unused bits of the last byte set to zero. 
+  byte[] toByteArray() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    byte[] bytes = new byte[(this.size + 7) >>> 3];
+    for (int i = 0; i < bytes.length; i += 1) {
+      bytes[i] = (byte) (this.words[i >>> 3] >>> (56 - ((i & 7) << 3)));
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,171 @@
+import tester.*;
+import java.util.Arrays;
+
+// This represents a writer that appends codewords to the end of a BitBuffer through a 64-bit
+// register, so that the words of the BitBuffer are only written once they are whole. Appending
+// a codeword that still fits into the register is a shift and an or, with no bounds check, no
+// capacity check and no call into the BitBuffer, which keeps encoding loops tight enough to be
+// unrolled by the JIT. The BitBuffer only holds the appended bits once finish is called.
+class BitWriter {
+  BitBuffer target;
+  long[] words;
+  int word;
+  long acc;
+  int accBits;
+  
+  // Constructor takes in the BitBuffer to append to, and loads the bits of its last word that is
+  // not whole into the register.
+  BitWriter(BitBuffer target) {
+    this.target = target;
+    this.words = target.words;
+    this.word = target.size >>> 6;
+    this.accBits = target.size & 63;
+    if (this.accBits == 0) {
+      this.acc = 0;
+    } else {
+      this.acc = target.words[this.word] >>> (64 - this.accBits);
+    }
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.target ...                      -- BitBuffer
+   * ... this.words ...                       -- long[]
+   * ... this.word ...                        -- int
+   * ... this.acc ...                         -- long
+   * ... this.accBits ...                     -- int
+   * METHODS:
+   * ... write(long code, int length) ...     -- void
+   * ... spill(long code, int length) ...     -- void
+   * ... finish() ...                         -- void
+   */
+  
+  // EFFECT: Appends the lowest length bits of the given code, most significant bit first. The
+  // code must not have any bits set above them, and the length must be between 0 and 64.
+  void write(long code, int length) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... code ...     -- long
+     * ... length ...   -- int
+     */
+    int total = this.accBits + length;
+    if (total < 64) {
+      this.acc = (this.acc << length) | code;
+      this.accBits = total;
+    } else {
+      this.spill(code, length);
+    }
+  }
+  
+  // EFFECT: Fills the register with the high bits of the given code, writes it out as a whole
+  // word, and keeps the remaining bits of the code in the register. Bits of the register above
+  // the ones it holds are left over from earlier codes, and are shifted out before they are
+  // ever written.
+  void spill(long code, int length) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... code ...     -- long
+     * ... length ...   -- int
+     */
+    int free = 64 - this.accBits;
+    int rest = length - free;
+    long high = 0;
+    if (free < 64) {
+      high = this.acc << free;
+    }
+    if (this.word == this.words.length) {
+      this.words = Arrays.copyOf(this.words, this.words.length * 2);
+    }
+    this.words[this.word] = high | (code >>> rest);
+    this.word += 1;
+    this.acc = code;
+    this.accBits = rest;
+  }
+  
+  // EFFECT: Writes the bits left in the register to the BitBuffer, and makes it hold every bit
+  // appended so far. The writer can keep appending afterwards.
+  void finish() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.accBits > 0) {
+      if (this.word == this.words.length) {
+        this.words = Arrays.copyOf(this.words, this.words.length * 2);
+      }
+      this.words[this.word] = this.acc << (64 - this.accBits);
+    }
+    this.target.words = this.words;
+    this.target.size = this.word * 64 + this.accBits;
+  }
+}
+
+class ExamplesBitWriter {
+  
+  //tests that the constructor works as expected
+  void testBitWriterConstructor(Tester t) {
+    BitBuffer bits = new BitBuffer(0);
+    bits.append(0L, 64);
+    bits.append(0x2DL, 6);
+    BitWriter writer = new BitWriter(bits);
+    t.checkExpect(writer.word, 1);
+    t.checkExpect(writer.accBits, 6);
+    t.checkExpect(writer.acc, 0x2DL);
+    t.checkExpect(new BitWriter(new BitBuffer(0)).acc, 0L);
+  }
+  
+  //tests that the write and finish methods work as expected
+  void testWriteAndFinish(Tester t) {
+    BitBuffer bits = new BitBuffer(0);
+    bits.append(1L, 1);
+    BitWriter writer = new BitWriter(bits);
+    writer.write(0L, 2);
+    writer.write(5L, 3);
+    t.checkExpect(writer.accBits, 6);
+    t.checkExpect(bits.size, 1);
+    writer.finish();
+    t.checkExpect(bits.size, 6);
+    t.checkExpect(bits.words[0], 0x25L << 58);
+    writer.write(3L, 2);
+    writer.finish();
+    t.checkExpect(bits.size, 8);
+    
+    BitBuffer expected = new BitBuffer(0);
+    BitBuffer written = new BitBuffer(0);
+    BitWriter many = new BitWriter(written);
+    for (int i = 0; i < 1000; i += 1) {
+      int length = (i * 7) % 65;
+      long code = (i * 0x9E3779B97F4A7C15L);
+      if (length < 64) {
+        code &= (1L << length) - 1;
+      }
+      expected.append(code, length);
+      many.write(code, length);
+    }
+    many.finish();
+    t.checkExpect(written.size, expected.size);
+    t.checkExpect(Arrays.copyOf(written.words, (written.size + 63) >>> 6),
+        Arrays.copyOf(expected.words, (expected.size + 63) >>> 6));
+  }
+  
+  //tests that the spill method works as expected
+  void testSpill(Tester t) {
+    BitBuffer bits = new BitBuffer(64);
+    BitWriter writer = new BitWriter(bits);
+    writer.write(-1L >>> 4, 60);
+    writer.spill(0x3FL, 6);
+    t.checkExpect(writer.word, 1);
+    t.checkExpect(writer.accBits, 2);
+    t.checkExpect(bits.words[0], -1L);
+    writer.spill(-1L, 64);
+    t.checkExpect(writer.word, 2);
+    t.checkExpect(writer.accBits, 2);
+    t.checkExpect(writer.words.length, 2);
+    writer.finish();
+    t.checkExpect(bits.size, 130);
+    t.checkExpect(bits.words[2], 3L << 62);
+    BitWriter empty = new BitWriter(new BitBuffer(0));
+    empty.spill(5L, 64);
+    t.checkExpect(empty.words[0], 5L);
+    t.checkExpect(empty.accBits, 0);
+  }
+}
@@ -0,0 +1,227 @@
+import tester.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// This represents a string encoded in blocks of a fixed number of symbols, the last block holding
+// whatever is left over. The encoded blocks are joined into one BitBuffer, and the bit offset at
+// which every block starts is recorded, so that every block can also be decoded on its own.
+class BlockEncoding {
+  int blockSize;
+  int length;
+  int[] offsets;
+  BitBuffer bits;
+  
+  // Constructor takes in the number of symbols in each block, the number of symbols in the whole
+  // string and the encoded blocks in order, and joins the blocks together.
+  BlockEncoding(int blockSize, int length, BitBuffer[] blocks) {
+    this.blockSize = blockSize;
+    this.length = length;
+    this.offsets = new int[blocks.length + 1];
+    int total = 0;
+    for (int i = 0; i < blocks.length; i += 1) {
+      this.offsets[i] = total;
+      total += blocks[i].size;
+    }
+    this.offsets[blocks.length] = total;
+    this.bits = new BitBuffer(total);
+    for (int i = 0; i < blocks.length; i += 1) {
+      this.bits.appendBits(blocks[i]);
+    }
+  }
+  
+  // Constructor takes in bytes written by toByteArray and reads the BlockEncoding back out of
+  // them. Since every codeword is at least one bit long, a frame claiming more symbols than it
+  // has bits, or bits but no symbols, is rejected.
+  BlockEncoding(byte[] framed) {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(framed));
+    try {
+      this.blockSize = in.readInt();
+      this.length = in.readInt();
+      int count = in.readInt();
+      if (this.blockSize < 1 || this.length < 0
+          || count != (int) (((long) this.length + this.blockSize - 1) / this.blockSize)) {
+        throw new IllegalArgumentException("Malformed block encoding.");
+      }
+      this.offsets = new int[count + 1];
+      int previous = 0;
+      for (int i = 0; i <= count; i += 1) {
+        this.offsets[i] = in.readInt();
+        if (this.offsets[i] < previous || (i == 0 && this.offsets[i] != 0)) {
+          throw new IllegalArgumentException("Malformed block encoding.");
+        }
+        previous = this.offsets[i];
+      }
+      int total = this.offsets[count];
+      if (this.length > total || (this.length == 0 && total > 0)
+          || in.available() != (int) (((long) total + 7) >>> 3)) {
+        throw new IllegalArgumentException("Malformed block encoding.");
+      }
+      this.bits = new BitBuffer(total);
+      for (int i = 0; i < total >>> 3; i += 1) {
+        this.bits.append(in.readUnsignedByte(), 8);
+      }
+      int rest = total & 7;
+      if (rest > 0) {
+        this.bits.append(in.readUnsignedByte() >>> (8 - rest), rest);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Malformed block encoding.");
+    }
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.blockSize ...                            -- int
+   * ... this.length ...                               -- int
+   * ... this.offsets ...                              -- int[]
+   * ... this.bits ...                                 -- BitBuffer
+   * METHODS:
+   * ... blockCount() ...                              -- int
+   * ... block(int i) ...                              -- BitBuffer
+   * ... toByteArray() ...                             -- byte[]
+   * METHODS ON FIELDS:
+   * ... this.bits.slice(int start, int end) ...       -- BitBuffer
+   * ... this.bits.toByteArray() ...                   -- byte[]
+   */
+  
+  // This method returns the number of blocks in this BlockEncoding.
+  int blockCount() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.offsets.length - 1;
+  }
+  
+  // This method returns the encoded bits of the block at the given index, which decode to the
+  // symbols of that block alone.
+  BitBuffer block(int i) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... i ...   -- int
+     */
+    if (i < 0 || i >= this.blockCount()) {
+      throw new IndexOutOfBoundsException(
+          "Block " + i + " is outside of " + this.blockCount() + " blocks.");
+    }
+    return this.bits.slice(this.offsets[i], this.offsets[i + 1]);
+  }
+  
+  // This method writes this BlockEncoding as a frame of ints followed by the encoded bits: the
+  // block size, the number of symbols and the number of blocks, then the bit offset at which
+  // every block starts followed by the total number of bits, then the bits packed 8 to a byte.
+  byte[] toByteArray() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(this.blockSize);
+      out.writeInt(this.length);
+      out.writeInt(this.blockCount());
+      for (int i = 0; i < this.offsets.length; i += 1) {
+        out.writeInt(this.offsets[i]);
+      }
+      out.write(this.bits.toByteArray());
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write the block encoding.", e);
+    }
+    return bytes.toByteArray();
+  }
+}
+
+class ExamplesBlockEncoding {
+  Huffman huff = new Huffman(new ArrayList<String>(Arrays.asList("a", "b", "c", "d")),
+      new ArrayList<Integer>(Arrays.asList(5, 3, 1, 1)));
+  
+  //tests that the constructor joins blocks as expected
+  void testBlockEncodingConstructor(Tester t) {
+    BlockEncoding blocks = new BlockEncoding(2, 5, new BitBuffer[] {
+        this.huff.encodeBits("ab"), this.huff.encodeBits("cd"), this.huff.encodeBits("a")});
+    t.checkExpect(blocks.offsets, new int[] {0, 3, 9, 10});
+    t.checkExpect(blocks.bits.toBooleans(), this.huff.encode("abcda"));
+    BlockEncoding empty = new BlockEncoding(4, 0, new BitBuffer[0]);
+    t.checkExpect(empty.offsets, new int[] {0});
+    t.checkExpect(empty.bits.size, 0);
+  }
+  
+  //tests that the blockCount and block methods work as expected
+  void testBlock(Tester t) {
+    String text = "abacabadabacabaa";
+    BlockEncoding blocks = this.huff.encodeParallel(text, 5, ForkJoinPool.commonPool());
+    t.checkExpect(blocks.blockCount(), 4);
+    t.checkExpect(this.huff.decode(blocks.block(0)), "abaca");
+    t.checkExpect(this.huff.decode(blocks.block(2)), "acaba");
+    t.checkExpect(this.huff.decode(blocks.block(3)), "a");
+    t.checkException(new IndexOutOfBoundsException("Block 4 is outside of 4 blocks."),
+        blocks, "block", 4);
+  }
+  
+  //tests that the toByteArray method and the framed constructor work as expected
+  void testToByteArray(Tester t) {
+    BlockEncoding blocks = this.huff.encodeParallel("abcd", 3, ForkJoinPool.commonPool());
+    byte[] framed = blocks.toByteArray();
+    t.checkExpect(framed, new byte[] {0, 0, 0, 3, 0, 0, 0, 4, 0, 0, 0, 2,
+        0, 0, 0, 0, 0, 0, 0, 6, 0, 0, 0, 9, (byte) 0x72, (byte) 0x80});
+    BlockEncoding read = new BlockEncoding(framed);
+    t.checkExpect(read.blockSize, 3);
+    t.checkExpect(read.length, 4);
+    t.checkExpect(read.offsets, blocks.offsets);
+    t.checkExpect(read.bits.toBooleans(), blocks.bits.toBooleans());
+    t.checkExpect(this.huff.decode(read.block(1)), "d");
+    
+    byte[] shortBits = Arrays.copyOf(framed, framed.length - 1);
+    byte[] badCount = framed.clone();
+    badCount[11] = 3;
+    t.checkConstructorException(new IllegalArgumentException("Malformed block encoding."),
+        "BlockEncoding", shortBits);
+    t.checkConstructorException(new IllegalArgumentException("Malformed block encoding."),
+        "BlockEncoding", badCount);
+    t.checkConstructorException(new IllegalArgumentException("Malformed block encoding."),
+        "BlockEncoding", new byte[] {0, 0, 0, 1});
+    byte[] tooLong = new byte[] {0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+        0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xF7, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0};
+    byte[] moreSymbols = new byte[] {0, 0, 0, 10, 0, 0, 0, 10, 0, 0, 0, 1,
+        0, 0, 0, 0, 0, 0, 0, 9, 0, 0};
+    t.checkConstructorException(new IllegalArgumentException("Malformed block encoding."),
+        "BlockEncoding", tooLong);
+    t.checkConstructorException(new IllegalArgumentException("Malformed block encoding."),
+        "BlockEncoding", moreSymbols);
+    moreSymbols[7] = 9;
+    t.checkExpect(new BlockEncoding(moreSymbols).length, 9);
+    t.checkExpect(new BlockEncoding(new byte[] {0, 0, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0,
+        0, 0, 0, 0}).length, 0);
+  }
+  
+  //tests that the compute method of EncodeBlocksTask works as expected
+  void testEncodeBlocksTask(Tester t) {
+    BitBuffer[] blocks = new BitBuffer[3];
+    new EncodeBlocksTask(this.huff.table, "abcdabc", 3, blocks, 1, 3).compute();
+    t.checkExpect(blocks[0], null);
+    t.checkExpect(blocks[1].toBooleans(), this.huff.encode("dab"));
+    t.checkExpect(blocks[2].toBooleans(), this.huff.encode("c"));
+  }
+  
+  //tests that the compute method of DecodeBlocksTask works as expected
+  void testDecodeBlocksTask(Tester t) {
+    BlockEncoding input = this.huff.encodeParallel("abcdabc", 3, ForkJoinPool.commonPool());
+    String[] blocks = new String[3];
+    new DecodeBlocksTask(this.huff.decoder, input, blocks, 0, 3).compute();
+    t.checkExpect(blocks, new String[] {"abc", "dab", "c"});
+    input.offsets[1] -= 1;
+    t.checkException(
+        new IllegalArgumentException("Block 0 does not end where the next block starts."),
+        new DecodeBlocksTask(this.huff.decoder, input, blocks, 0, 1), "compute");
+    BlockEncoding forged = new BlockEncoding(Integer.MAX_VALUE, Integer.MAX_VALUE - 8,
+        new BitBuffer[] {new BitBuffer(0)});
+    t.checkException(new IllegalArgumentException("Encoded bits end in the middle of a codeword."),
+        new DecodeBlocksTask(this.huff.decoder, forged, new String[1], 0, 1), "compute");
+  }
+}
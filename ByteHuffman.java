@@ -0,0 +1,224 @@
+import tester.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+// This represents a Huffman Tree over the 256 byte values, used to compress arbitrary binary data
+// rather than strings. Its codewords are kept in arrays indexed by byte value, so encoding and
+// decoding only ever touch primitive arrays.
+class ByteHuffman {
+  int[] counts;
+  long[] codes;
+  int[] lengths;
+  Forest f;
+  DecodeTable decoder;
+  byte[] values;
+  
+  // Constructor takes in the frequency of every byte value, indexed by the unsigned value of the
+  // byte, and builds a Huffman Tree over the byte values that occur. Bytes that never occur have
+  // no codeword, except that a tree over fewer than two byte values is padded with unused ones.
+  ByteHuffman(int[] counts) {
+    if (counts.length != 256) {
+      throw new IllegalArgumentException("Byte frequencies must have 256 entries.");
+    }
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int b = 0; b < 256; b += 1) {
+      if (counts[b] < 0) {
+        throw new IllegalArgumentException("Byte frequencies cannot be negative.");
+      }
+      if (counts[b] > 0) {
+        letters.add(String.valueOf((char) b));
+        numbers.add(counts[b]);
+      }
+    }
+    for (int b = 0; letters.size() < 2; b += 1) {
+      if (counts[b] == 0) {
+        letters.add(String.valueOf((char) b));
+        numbers.add(0);
+      }
+    }
+    this.counts = counts.clone();
+    this.f = new Forest(new ArrayList<ATree>());
+    this.f.populateTree(letters, numbers);
+    this.f.makeHuffmanTreeHeap();
+    
+    CodeTable table = new CodeTable(this.f.orchard.get(0));
+    this.codes = new long[256];
+    this.lengths = new int[256];
+    this.values = new byte[table.symbols.size()];
+    for (int slot = 0; slot < table.symbols.size(); slot += 1) {
+      int b = table.symbols.get(slot).charAt(0);
+      this.codes[b] = table.codes[slot];
+      this.lengths[b] = table.lengths[slot];
+      this.values[slot] = (byte) b;
+    }
+    this.decoder = new DecodeTable(this.f.orchard.get(0), table, 10);
+  }
+  
+  // Constructor takes in sample data and builds a Huffman Tree from the frequency of every byte
+  // value in it.
+  ByteHuffman(byte[] sample) {
+    this(new Utils().countBytes(sample));
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.counts ...                                        -- int[]
+   * ... this.codes ...                                         -- long[]
+   * ... this.lengths ...                                       -- int[]
+   * ... this.f ...                                             -- Forest
+   * ... this.decoder ...                                       -- DecodeTable
+   * ... this.values ...                                        -- byte[]
+   * METHODS:
+   * ... encode(byte[] input) ...                               -- BitBuffer
+   * ... encode(ByteBuffer input) ...                           -- BitBuffer
+   * ... decode(BitBuffer input) ...                            -- byte[]
+   * METHODS ON FIELDS:
+   * ... this.decoder.decodeBytes(BitBuffer input, byte[] values) ...   -- byte[]
+   */
+  
+  // This method encodes the given bytes into a BitBuffer, appending the codeword of every byte
+  // through a BitWriter.
+  BitBuffer encode(byte[] input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- byte[]
+     */
+    BitBuffer bits = new BitBuffer(input.length * 8);
+    BitWriter writer = new BitWriter(bits);
+    long[] codes = this.codes;
+    int[] lengths = this.lengths;
+    for (int i = 0; i < input.length; i += 1) {
+      int b = input[i] & 0xFF;
+      int length = lengths[b];
+      if (length == 0) {
+        throw new IllegalArgumentException(
+            "Tried to encode byte " + b + " but that is not part of the language.");
+      }
+      writer.write(codes[b], length);
+    }
+    writer.finish();
+    return bits;
+  }
+  
+  // This method encodes the bytes of the given buffer between its position and its limit into a
+  // BitBuffer. The position of the given buffer is left where it was.
+  BitBuffer encode(ByteBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...                -- ByteBuffer
+     * METHODS ON PARAMETERS:
+     * ... input.position() ...     -- int
+     * ... input.limit() ...        -- int
+     * ... input.get(int index) ... -- byte
+     */
+    BitBuffer bits = new BitBuffer(input.remaining() * 8);
+    BitWriter writer = new BitWriter(bits);
+    long[] codes = this.codes;
+    int[] lengths = this.lengths;
+    for (int i = input.position(); i < input.limit(); i += 1) {
+      int b = input.get(i) & 0xFF;
+      int length = lengths[b];
+      if (length == 0) {
+        throw new IllegalArgumentException(
+            "Tried to encode byte " + b + " but that is not part of the language.");
+      }
+      writer.write(codes[b], length);
+    }
+    writer.finish();
+    return bits;
+  }
+  
+  // This method decodes the given BitBuffer back into the bytes it encodes.
+  byte[] decode(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- BitBuffer
+     */
+    return this.decoder.decodeBytes(input, this.values);
+  }
+}
+
+class ExamplesByteHuffman {
+  
+  //tests that the constructors throw exceptions when expected
+  boolean testByteHuffmanExceptions(Tester t) {
+    int[] negative = new int[256];
+    negative[7] = -1;
+    return t.checkConstructorException(
+        new IllegalArgumentException("Byte frequencies must have 256 entries."),
+        "ByteHuffman", new int[255])
+        && t.checkConstructorException(
+            new IllegalArgumentException("Byte frequencies cannot be negative."),
+            "ByteHuffman", negative);
+  }
+  
+  //tests that the constructors work as expected
+  void testByteHuffmanConstructor(Tester t) {
+    int[] counts = new int[256];
+    counts[200] = 3;
+    counts[65] = 1;
+    counts[0] = 1;
+    ByteHuffman huff = new ByteHuffman(counts);
+    t.checkExpect(huff.lengths[200], 1);
+    t.checkExpect(huff.lengths[65], 2);
+    t.checkExpect(huff.lengths[0], 2);
+    t.checkExpect(huff.lengths[1], 0);
+    t.checkExpect(huff.values.length, 3);
+    
+    ByteHuffman single = new ByteHuffman(new byte[] {9, 9, 9});
+    t.checkExpect(single.counts[9], 3);
+    t.checkExpect(single.lengths[9], 1);
+    t.checkExpect(single.lengths[0], 1);
+    
+    ByteHuffman none = new ByteHuffman(new byte[0]);
+    t.checkExpect(none.lengths[0], 1);
+    t.checkExpect(none.lengths[1], 1);
+  }
+  
+  //tests that the encode method works as expected on byte arrays
+  void testEncodeBytes(Tester t) {
+    byte[] data = new byte[] {(byte) 200, 65, (byte) 200, 0, (byte) 200};
+    ByteHuffman huff = new ByteHuffman(data);
+    BitBuffer bits = huff.encode(data);
+    t.checkExpect(bits.size, 7);
+    t.checkExpect(huff.encode(new byte[0]).size, 0);
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode byte 1 but that is not part of the language."),
+        huff, "encode", new byte[] {65, 1});
+  }
+  
+  //tests that the encode method works as expected on byte buffers
+  void testEncodeByteBuffer(Tester t) {
+    byte[] data = new byte[] {1, 2, 3, 3, 3, 3, 2, 1};
+    ByteHuffman huff = new ByteHuffman(data);
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    buffer.position(2);
+    buffer.limit(6);
+    BitBuffer bits = huff.encode(buffer);
+    t.checkExpect(bits.toBooleans(), huff.encode(new byte[] {3, 3, 3, 3}).toBooleans());
+    t.checkExpect(buffer.position(), 2);
+    ByteBuffer direct = ByteBuffer.allocateDirect(8);
+    direct.put(data);
+    direct.flip();
+    t.checkExpect(huff.decode(huff.encode(direct)), data);
+  }
+  
+  //tests that the decode method works as expected
+  void testDecodeBytes(Tester t) {
+    byte[] data = new byte[100000];
+    for (int i = 0; i < data.length; i += 1) {
+      data[i] = (byte) ((i * i) % 251 + (i % 7) * (i % 3));
+    }
+    ByteHuffman huff = new ByteHuffman(data);
+    t.checkExpect(huff.decode(huff.encode(data)), data);
+    t.checkExpect(huff.decode(new BitBuffer(0)), new byte[0]);
+    
+    ByteHuffman skewed = new ByteHuffman(new byte[] {5, 5, 5, 5, 5, 5, 6, 7});
+    BitBuffer bits = skewed.encode(new byte[] {7, 5, 6});
+    t.checkExpect(skewed.decode(bits), new byte[] {7, 5, 6});
+    bits.append(skewed.codes[6] >>> 1, 1);
+    t.checkException(new IllegalArgumentException("Encoded bits end in the middle of a codeword."),
+        skewed, "decode", bits);
+  }
+}
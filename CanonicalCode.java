@@ -0,0 +1,526 @@
+import tester.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+
+// This comparator orders symbols by their code length first and by the symbol itself second,
+// which is the order canonical codewords are handed out in.
+class CanonicalCompare implements Comparator<Integer> {
+  ArrayList<String> symbols;
+  ArrayList<Integer> lengths;
+  
+  // Constructor
+  CanonicalCompare(ArrayList<String> symbols, ArrayList<Integer> lengths) {
+    this.symbols = symbols;
+    this.lengths = lengths;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.symbols ...                            -- ArrayList<String>
+   * ... this.lengths ...                            -- ArrayList<Integer>
+   * METHODS:
+   * ... compare(Integer one, Integer two) ...       -- int
+   */
+  
+  // This method compares the symbols at the two given indices, shorter code lengths first and
+  // then in the natural order of the symbols.
+  public int compare(Integer one, Integer two) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... one ...   -- Integer
+     * ... two ...   -- Integer
+     */
+    int byLength = Integer.compare(this.lengths.get(one), this.lengths.get(two));
+    if (byLength != 0) {
+      return byLength;
+    }
+    return this.symbols.get(one).compareTo(this.symbols.get(two));
+  }
+}
+
+// This represents a canonical Huffman code, where the codewords are determined by the code length
+// of every symbol alone: symbols are ordered by code length and then by symbol, and each one gets
+// the next codeword of its length. Only the symbols and their code lengths need to be shipped to
+// a decoder, which can rebuild the Huffman Tree, the CodeTable and the DecodeTable from them.
+class CanonicalCode {
+  ArrayList<String> symbols;
+  int[] lengths;
+  long[] codes;
+  long[] firstCode;
+  int[] firstIndex;
+  int[] count;
+  ATree root;
+  CodeTable table;
+  DecodeTable decoder;
+  
+  // Constructor takes in the symbols of a code and their respective code lengths.
+  CanonicalCode(ArrayList<String> symbols, ArrayList<Integer> lengths) {
+    this.build(symbols, lengths);
+  }
+  
+  // Constructor takes in symbols and their respective frequencies, like a Huffman Tree, and makes
+  // the best canonical code for them in which no codeword is longer than the given number of bits.
+  // A symbol given more than once gets a single codeword, for the sum of its frequencies, and
+  // negative frequencies are all raised by the same amount so that the least of them is 0.
+  CanonicalCode(ArrayList<String> letters, ArrayList<Integer> numbers, int maxLength) {
+    if (letters.size() != numbers.size()) {
+      throw new IllegalArgumentException("Lists don't meet input criteria.");
+    }
+    ArrayList<String> symbols = new ArrayList<String>();
+    ArrayList<Long> sums = new ArrayList<Long>();
+    HashMap<String, Integer> seen = new HashMap<String, Integer>();
+    for (int i = 0; i < letters.size(); i += 1) {
+      Integer slot = seen.get(letters.get(i));
+      if (slot == null) {
+        seen.put(letters.get(i), symbols.size());
+        symbols.add(letters.get(i));
+        sums.add((long) numbers.get(i));
+      } else {
+        sums.set(slot, sums.get(slot) + numbers.get(i));
+      }
+    }
+    long least = 0;
+    for (int i = 0; i < sums.size(); i += 1) {
+      least = Math.min(least, sums.get(i));
+    }
+    int[] weights = new int[symbols.size()];
+    for (int i = 0; i < weights.length; i += 1) {
+      weights[i] = (int) Math.min(Integer.MAX_VALUE, sums.get(i) - least);
+    }
+    int[] limited = new Utils().lengthLimited(weights, maxLength);
+    ArrayList<Integer> lengths = new ArrayList<Integer>();
+    for (int i = 0; i < limited.length; i += 1) {
+      lengths.add(limited[i]);
+    }
+    this.build(symbols, lengths);
+  }
+  
+  // Constructor takes in the code lengths recorded in the given CodeTable, such as the one built
+  // from a Huffman Tree, and canonicalizes them.
+  CanonicalCode(CodeTable table) {
+    ArrayList<Integer> lengths = new ArrayList<Integer>();
+    for (int i = 0; i < table.symbols.size(); i += 1) {
+      lengths.add(table.lengths[i]);
+    }
+    this.build(table.symbols, lengths);
+  }
+  
+  // Constructor takes in a header written by toHeader and rebuilds the code it describes.
+  CanonicalCode(byte[] header) {
+    ArrayList<String> symbols = new ArrayList<String>();
+    ArrayList<Integer> lengths = new ArrayList<Integer>();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(header));
+    try {
+      int size = in.readInt();
+      if (size < 0) {
+        throw new IllegalArgumentException("Malformed code header.");
+      }
+      for (int i = 0; i < size; i += 1) {
+        symbols.add(in.readUTF());
+        lengths.add(in.readUnsignedByte());
+      }
+      if (in.available() != 0) {
+        throw new IllegalArgumentException("Malformed code header.");
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Malformed code header.");
+    }
+    this.build(symbols, lengths);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.symbols ...                                                 -- ArrayList<String>
+   * ... this.lengths ...                                                 -- int[]
+   * ... this.codes ...                                                   -- long[]
+   * ... this.firstCode ...                                               -- long[]
+   * ... this.firstIndex ...                                              -- int[]
+   * ... this.count ...                                                   -- int[]
+   * ... this.root ...                                                    -- ATree
+   * ... this.table ...                                                   -- CodeTable
+   * ... this.decoder ...                                                 -- DecodeTable
+   * METHODS:
+   * ... build(ArrayList<String> symbols, ArrayList<Integer> lengths) ...   -- void
+   * ... buildTree(int lo, int hi, int depth) ...                         -- ATree
+   * ... toHeader() ...                                                   -- byte[]
+   * ... encodeBits(String input) ...                                     -- BitBuffer
+   * ... decode(BitBuffer input) ...                                      -- String
+   * ... decodeCanonical(BitBuffer input) ...                             -- String
+   * METHODS ON FIELDS:
+   * ... this.table.toBits(String input) ...                              -- BitBuffer
+   * ... this.decoder.decode(BitBuffer input) ...                         -- String
+   */
+  
+  // EFFECT: Orders the given symbols canonically, hands out their codewords and rebuilds the
+  // Huffman Tree and the tables that encode and decode with them. The code lengths must describe
+  // a complete prefix code of at least two symbols, with every length between 1 and 63.
+  void build(ArrayList<String> symbols, ArrayList<Integer> lengths) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... symbols ...                  -- ArrayList<String>
+     * ... lengths ...                  -- ArrayList<Integer>
+     * METHODS ON PARAMETERS:
+     * ... symbols.size() ...           -- int
+     * ... symbols.get(int index) ...   -- String
+     * ... lengths.get(int index) ...   -- Integer
+     */
+    if (symbols.size() != lengths.size() || symbols.size() < 2) {
+      throw new IllegalArgumentException("Lists don't meet input criteria.");
+    }
+    ArrayList<Integer> order = new ArrayList<Integer>();
+    HashSet<String> seen = new HashSet<String>();
+    int maxLength = 0;
+    for (int i = 0; i < symbols.size(); i += 1) {
+      int length = lengths.get(i);
+      if (length < 1 || length > 63) {
+        throw new IllegalArgumentException("Code lengths must be between 1 and 63 bits.");
+      }
+      if (!seen.add(symbols.get(i))) {
+        throw new IllegalArgumentException(
+            "Tried to add " + symbols.get(i) + " to the code twice.");
+      }
+      maxLength = Math.max(maxLength, length);
+      order.add(i);
+    }
+    order.sort(new CanonicalCompare(symbols, lengths));
+    
+    this.symbols = new ArrayList<String>();
+    this.lengths = new int[order.size()];
+    this.codes = new long[order.size()];
+    this.firstCode = new long[maxLength + 1];
+    this.firstIndex = new int[maxLength + 1];
+    this.count = new int[maxLength + 1];
+    long code = 0;
+    int previous = 0;
+    for (int i = 0; i < order.size(); i += 1) {
+      String symbol = symbols.get(order.get(i));
+      int length = lengths.get(order.get(i));
+      code <<= length - previous;
+      previous = length;
+      if (code >= 1L << length) {
+        throw new IllegalArgumentException("Code lengths describe more codewords than fit.");
+      }
+      if (this.count[length] == 0) {
+        this.firstCode[length] = code;
+        this.firstIndex[length] = i;
+      }
+      this.count[length] += 1;
+      this.symbols.add(symbol);
+      this.lengths[i] = length;
+      this.codes[i] = code;
+      code += 1;
+    }
+    if (code != 1L << previous) {
+      throw new IllegalArgumentException("Code lengths do not describe a complete prefix code.");
+    }
+    this.root = this.buildTree(0, order.size(), 0);
+    this.table = new CodeTable(this.root);
+    this.decoder = new DecodeTable(this.root, this.table, 10);
+  }
+  
+  // This method builds the part of the Huffman Tree holding the canonically ordered symbols
+  // from index lo up to, but not including, index hi, which all share their first depth bits.
+  ATree buildTree(int lo, int hi, int depth) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... lo ...      -- int
+     * ... hi ...      -- int
+     * ... depth ...   -- int
+     */
+    if (this.lengths[lo] == depth) {
+      return new Leaf(this.symbols.get(lo), 0);
+    }
+    int split = lo;
+    while (split < hi && ((this.codes[split] >>> (this.lengths[split] - depth - 1)) & 1L) == 0) {
+      split += 1;
+    }
+    ATree left = this.buildTree(lo, split, depth + 1);
+    ATree right = this.buildTree(split, hi, depth + 1);
+    return new Node(0, left, right);
+  }
+  
+  // This method writes this code as a header of symbol and code length pairs: the number of
+  // symbols as an int, then every symbol in modified UTF-8 followed by its code length as a byte.
+  byte[] toHeader() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(this.symbols.size());
+      for (int i = 0; i < this.symbols.size(); i += 1) {
+        out.writeUTF(this.symbols.get(i));
+        out.writeByte(this.lengths[i]);
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write the code header.", e);
+    }
+    return bytes.toByteArray();
+  }
+  
+  // This method encodes the given string with this canonical code.
+  BitBuffer encodeBits(String input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     */
+    return this.table.toBits(input);
+  }
+  
+  // This method decodes the given BitBuffer with this canonical code, through the lookup tables
+  // rebuilt from it.
+  String decode(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- BitBuffer
+     */
+    return this.decoder.decode(input);
+  }
+  
+  // This method decodes the given BitBuffer with this canonical code without any tree or lookup
+  // table, comparing the bits read so far against the first codeword of each length. A trailing
+  // code that stops short of a complete codeword is decoded as "?".
+  String decodeCanonical(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...         -- BitBuffer
+     * FIELDS OF PARAMETERS:
+     * ... input.words ...   -- long[]
+     * ... input.size ...    -- int
+     */
+    StringBuilder output = new StringBuilder();
+    long[] words = input.words;
+    long code = 0;
+    int length = 0;
+    for (int i = 0; i < input.size; i += 1) {
+      code = (code << 1) | ((words[i >>> 6] >>> (63 - (i & 63))) & 1L);
+      length += 1;
+      long offset = code - this.firstCode[length];
+      if (offset >= 0 && offset < this.count[length]) {
+        output.append(this.symbols.get(this.firstIndex[length] + (int) offset));
+        code = 0;
+        length = 0;
+      }
+    }
+    if (length > 0) {
+      output.append("?");
+    }
+    return output.toString();
+  }
+}
+
+class ExamplesCanonicalCode {
+  
+  //tests that the compare method of CanonicalCompare works as expected
+  boolean testCanonicalCompare(Tester t) {
+    ArrayList<String> symbols = new ArrayList<String>();
+    symbols.add("b");
+    symbols.add("a");
+    symbols.add("c");
+    ArrayList<Integer> lengths = new ArrayList<Integer>();
+    lengths.add(2);
+    lengths.add(2);
+    lengths.add(1);
+    CanonicalCompare comp = new CanonicalCompare(symbols, lengths);
+    return t.checkExpect(comp.compare(0, 1) > 0, true)
+        && t.checkExpect(comp.compare(2, 0) < 0, true)
+        && t.checkExpect(comp.compare(1, 1), 0);
+  }
+  
+  //tests that the constructors throw exceptions when expected
+  boolean testCanonicalCodeExceptions(Tester t) {
+    ArrayList<String> symbols = new ArrayList<String>();
+    symbols.add("a");
+    symbols.add("b");
+    symbols.add("c");
+    ArrayList<Integer> tooShort = new ArrayList<Integer>();
+    tooShort.add(1);
+    tooShort.add(1);
+    tooShort.add(1);
+    ArrayList<Integer> incomplete = new ArrayList<Integer>();
+    incomplete.add(1);
+    incomplete.add(2);
+    incomplete.add(3);
+    ArrayList<Integer> zero = new ArrayList<Integer>();
+    zero.add(1);
+    zero.add(0);
+    zero.add(1);
+    ArrayList<String> twice = new ArrayList<String>();
+    twice.add("a");
+    twice.add("a");
+    ArrayList<Integer> halves = new ArrayList<Integer>();
+    halves.add(1);
+    halves.add(1);
+    return t.checkConstructorException(
+        new IllegalArgumentException("Code lengths describe more codewords than fit."),
+        "CanonicalCode", symbols, tooShort)
+        && t.checkConstructorException(
+            new IllegalArgumentException("Code lengths do not describe a complete prefix code."),
+            "CanonicalCode", symbols, incomplete)
+        && t.checkConstructorException(
+            new IllegalArgumentException("Code lengths must be between 1 and 63 bits."),
+            "CanonicalCode", symbols, zero)
+        && t.checkConstructorException(
+            new IllegalArgumentException("Tried to add a to the code twice."),
+            "CanonicalCode", twice, halves)
+        && t.checkConstructorException(
+            new IllegalArgumentException("Malformed code header."),
+            "CanonicalCode", new byte[] {0, 0, 0, 1, 0})
+        && t.checkConstructorException(
+            new IllegalArgumentException("Lists don't meet input criteria."),
+            "CanonicalCode", new ArrayList<String>(), new ArrayList<Integer>());
+  }
+  
+  //tests that the build method works as expected
+  void testBuild(Tester t) {
+    ArrayList<String> symbols = new ArrayList<String>();
+    symbols.add("d");
+    symbols.add("b");
+    symbols.add("a");
+    symbols.add("c");
+    ArrayList<Integer> lengths = new ArrayList<Integer>();
+    lengths.add(3);
+    lengths.add(1);
+    lengths.add(3);
+    lengths.add(2);
+    CanonicalCode code = new CanonicalCode(symbols, lengths);
+    ArrayList<String> ordered = new ArrayList<String>();
+    ordered.add("b");
+    ordered.add("c");
+    ordered.add("a");
+    ordered.add("d");
+    t.checkExpect(code.symbols, ordered);
+    t.checkExpect(code.lengths, new int[] {1, 2, 3, 3});
+    t.checkExpect(code.codes, new long[] {0, 2, 6, 7});
+    t.checkExpect(code.firstCode, new long[] {0, 0, 2, 6});
+    t.checkExpect(code.firstIndex, new int[] {0, 0, 1, 2});
+    t.checkExpect(code.count, new int[] {0, 1, 1, 2});
+    t.checkExpect(code.table.codes[code.table.index.get("d")], 7L);
+  }
+  
+  //tests that the buildTree method works as expected
+  void testBuildTree(Tester t) {
+    ArrayList<String> symbols = new ArrayList<String>();
+    symbols.add("a");
+    symbols.add("b");
+    symbols.add("c");
+    ArrayList<Integer> lengths = new ArrayList<Integer>();
+    lengths.add(2);
+    lengths.add(1);
+    lengths.add(2);
+    CanonicalCode code = new CanonicalCode(symbols, lengths);
+    ATree expected = new Node(0, new Leaf("b", 0),
+        new Node(0, new Leaf("a", 0), new Leaf("c", 0)));
+    t.checkExpect(code.root, expected);
+    t.checkExpect(code.buildTree(1, 3, 1), new Node(0, new Leaf("a", 0), new Leaf("c", 0)));
+    t.checkExpect(code.buildTree(0, 1, 1), new Leaf("b", 0));
+  }
+  
+  //tests that the toHeader method works as expected
+  void testToHeader(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    letters.add("d");
+    letters.add("e");
+    letters.add("f");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(12);
+    numbers.add(45);
+    numbers.add(5);
+    numbers.add(13);
+    numbers.add(9);
+    numbers.add(16);
+    CanonicalCode code = new Huffman(letters, numbers).canonical();
+    byte[] header = code.toHeader();
+    t.checkExpect(header.length, 4 + 6 * 4);
+    t.checkExpect(header[6], (byte) 'b');
+    t.checkExpect(header[7], (byte) 1);
+    CanonicalCode copy = new CanonicalCode(header);
+    t.checkExpect(copy.symbols, code.symbols);
+    t.checkExpect(copy.codes, code.codes);
+  }
+  
+  //tests that the encodeBits and decode methods work as expected
+  void testCanonicalEncodeDecode(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    letters.add("d");
+    letters.add("e");
+    letters.add("f");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(12);
+    numbers.add(45);
+    numbers.add(5);
+    numbers.add(13);
+    numbers.add(9);
+    numbers.add(16);
+    Huffman huff = new Huffman(letters, numbers);
+    CanonicalCode code = new CanonicalCode(huff.canonical().toHeader());
+    BitBuffer bits = code.encodeBits("fedcbafedcba");
+    t.checkExpect(bits.size, huff.encodeBits("fedcbafedcba").size);
+    t.checkExpect(code.decode(bits), "fedcbafedcba");
+    BitBuffer partial = new BitBuffer(0);
+    partial.append(0x09L, 5);
+    t.checkExpect(code.decode(partial), "ba?");
+  }
+  
+  //tests that the decodeCanonical method works as expected
+  void testDecodeCanonical(Tester t) {
+    ArrayList<String> symbols = new ArrayList<String>();
+    ArrayList<Integer> lengths = new ArrayList<Integer>();
+    for (int i = 0; i < 12; i += 1) {
+      symbols.add("" + (char) ('a' + i));
+      lengths.add(Math.min(i + 1, 11));
+    }
+    CanonicalCode code = new CanonicalCode(symbols, lengths);
+    String message = "abcdefghijkllkjihgfedcba";
+    BitBuffer bits = code.encodeBits(message);
+    t.checkExpect(code.decodeCanonical(bits), message);
+    t.checkExpect(code.decodeCanonical(bits), code.decode(bits));
+    bits.append(1L, 1);
+    t.checkExpect(code.decodeCanonical(bits), message + "?");
+    t.checkExpect(code.decodeCanonical(new BitBuffer(0)), "");
+  }
+  
+  //tests that the length-limited constructor works as expected
+  void testLengthLimitedConstructor(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    int fib = 1;
+    int prev = 1;
+    for (int i = 0; i < 40; i += 1) {
+      letters.add("" + (char) ('A' + i));
+      numbers.add(fib);
+      int next = fib + prev;
+      prev = fib;
+      fib = next;
+    }
+    CanonicalCode code = new CanonicalCode(letters, numbers, 15);
+    int longest = 0;
+    for (int i = 0; i < code.lengths.length; i += 1) {
+      longest = Math.max(longest, code.lengths[i]);
+    }
+    t.checkExpect(longest, 15);
+    t.checkExpect(code.decoder.rootBits, 10);
+    String message = "ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_`abcdefgh";
+    t.checkExpect(code.decode(code.encodeBits(message)), message);
+    t.checkConstructorException(
+        new IllegalArgumentException("No prefix code of 40 symbols fits in 5 bits."),
+        "CanonicalCode", letters, numbers, 5);
+    t.checkConstructorException(new IllegalArgumentException("Lists don't meet input criteria."),
+        "CanonicalCode", letters, new ArrayList<Integer>(), 15);
+  }
+}
@@ -0,0 +1,295 @@
+import tester.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// This represents a bounded cache of compiled HuffmanCodes, keyed by the symbols and frequencies
+// they were built from, so that building a code from a table that was seen recently returns the
+// same shared HuffmanCode instead of building its tree again. When the cache is full, the code
+// used least recently is evicted. Lookups and insertions are synchronized, but codes are built
+// outside of the lock, so a slow build never holds up lookups of other tables.
+class CodeCache {
+  LruMap entries;
+  long hits;
+  long misses;
+  
+  // Constructor takes in the largest number of codes the cache holds at once.
+  CodeCache(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The cache must hold at least one code.");
+    }
+    this.entries = new LruMap(capacity);
+    this.hits = 0;
+    this.misses = 0;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.entries ...                                                  -- LruMap
+   * ... this.hits ...                                                     -- long
+   * ... this.misses ...                                                   -- long
+   * METHODS:
+   * ... get(ArrayList<String> letters, ArrayList<Integer> numbers) ...    -- HuffmanCode
+   * ... lookup(CodeKey key) ...                                           -- HuffmanCode
+   * ... insert(CodeKey key, HuffmanCode code) ...                         -- HuffmanCode
+   * ... size() ...                                                        -- int
+   * ... hitRate() ...                                                     -- double
+   * ... clear() ...                                                       -- void
+   * METHODS ON FIELDS:
+   * ... this.entries.get(Object key) ...                                  -- HuffmanCode
+   * ... this.entries.put(CodeKey key, HuffmanCode code) ...               -- HuffmanCode
+   */
+  
+  // This method returns the HuffmanCode built from the given symbols and frequencies, which are
+  // held to the same requirements as for a Huffman Tree, building it only if the cache does not
+  // hold it already. Changing either ArrayList afterwards does not change the cache.
+  HuffmanCode get(ArrayList<String> letters, ArrayList<Integer> numbers) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... letters ...   -- ArrayList<String>
+     * ... numbers ...   -- ArrayList<Integer>
+     */
+    CodeKey key = new CodeKey(letters, numbers);
+    HuffmanCode cached = this.lookup(key);
+    if (cached != null) {
+      return cached;
+    }
+    return this.insert(key, new HuffmanCode(key.letters, key.numbers));
+  }
+  
+  // This method returns the code cached under the given key, marking it as the one used most
+  // recently, or null if there is none. Either way, it is counted as a hit or a miss.
+  synchronized HuffmanCode lookup(CodeKey key) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... key ...   -- CodeKey
+     */
+    HuffmanCode cached = this.entries.get(key);
+    if (cached == null) {
+      this.misses += 1;
+    } else {
+      this.hits += 1;
+    }
+    return cached;
+  }
+  
+  // EFFECT: Caches the given code under the given key, unless another thread cached a code under
+  // that key first, and returns the code that ends up cached.
+  synchronized HuffmanCode insert(CodeKey key, HuffmanCode code) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... key ...    -- CodeKey
+     * ... code ...   -- HuffmanCode
+     */
+    HuffmanCode cached = this.entries.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    this.entries.put(key, code);
+    return code;
+  }
+  
+  // This method returns how many codes are cached.
+  synchronized int size() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.entries.size();
+  }
+  
+  // This method returns the fraction of lookups that found a cached code, or 0 if there were no
+  // lookups.
+  synchronized double hitRate() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.hits + this.misses == 0) {
+      return 0;
+    }
+    return (double) this.hits / (this.hits + this.misses);
+  }
+  
+  // EFFECT: Evicts every cached code and sets the hit and miss counts back to zero.
+  synchronized void clear() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    this.entries.clear();
+    this.entries.evictions = 0;
+    this.hits = 0;
+    this.misses = 0;
+  }
+}
+
+// This represents the symbols and frequencies a HuffmanCode is built from, used as a key of a
+// CodeCache. Its hash is computed once, when it is made, from copies of the given lists.
+class CodeKey {
+  ArrayList<String> letters;
+  ArrayList<Integer> numbers;
+  int hash;
+  
+  // Constructor takes in the symbols and frequencies of a code, and copies them.
+  CodeKey(ArrayList<String> letters, ArrayList<Integer> numbers) {
+    this.letters = new ArrayList<String>(letters);
+    this.numbers = new ArrayList<Integer>(numbers);
+    this.hash = this.letters.hashCode() * 31 + this.numbers.hashCode();
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.letters ...            -- ArrayList<String>
+   * ... this.numbers ...            -- ArrayList<Integer>
+   * ... this.hash ...               -- int
+   * METHODS:
+   * ... hashCode() ...              -- int
+   * ... equals(Object other) ...    -- boolean
+   */
+  
+  // This method returns the hash of this key, computed when it was made.
+  public int hashCode() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.hash;
+  }
+  
+  // This method determines whether the given object is a CodeKey with the same symbols and
+  // frequencies, in the same order, as this one.
+  public boolean equals(Object other) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... other ...   -- Object
+     */
+    if (!(other instanceof CodeKey)) {
+      return false;
+    }
+    CodeKey that = (CodeKey) other;
+    return this.hash == that.hash && this.letters.equals(that.letters)
+        && this.numbers.equals(that.numbers);
+  }
+}
+
+// This represents the map of a CodeCache, which keeps its entries in the order they were last
+// used and evicts the one used least recently whenever it grows past its capacity.
+class LruMap extends LinkedHashMap<CodeKey, HuffmanCode> {
+  private static final long serialVersionUID = 1L;
+  int capacity;
+  long evictions;
+  
+  // Constructor takes in the largest number of entries the map holds at once.
+  LruMap(int capacity) {
+    super(16, 0.75f, true);
+    this.capacity = capacity;
+    this.evictions = 0;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.capacity ...                                             -- int
+   * ... this.evictions ...                                            -- long
+   * METHODS:
+   * ... removeEldestEntry(Map.Entry<CodeKey, HuffmanCode> eldest) ...   -- boolean
+   */
+  
+  // This method determines whether the given entry, the one used least recently, should be
+  // evicted after an entry was added, counting it as an eviction if so.
+  protected boolean removeEldestEntry(Map.Entry<CodeKey, HuffmanCode> eldest) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... eldest ...   -- Map.Entry<CodeKey, HuffmanCode>
+     */
+    if (this.size() > this.capacity) {
+      this.evictions += 1;
+      return true;
+    }
+    return false;
+  }
+}
+
+class ExamplesCodeCache {
+  ArrayList<String> letters = new ArrayList<String>(Arrays.asList("a", "b", "c", "d", "e", "f"));
+  ArrayList<Integer> numbers = new ArrayList<Integer>(Arrays.asList(12, 45, 5, 13, 9, 16));
+  ArrayList<Integer> other = new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 5, 6));
+  
+  //tests that the constructor throws exceptions when expected
+  boolean testCodeCacheExceptions(Tester t) {
+    return t.checkConstructorException(
+        new IllegalArgumentException("The cache must hold at least one code."), "CodeCache", 0);
+  }
+  
+  //tests that the get method works as expected
+  void testGet(Tester t) {
+    CodeCache cache = new CodeCache(4);
+    HuffmanCode first = cache.get(this.letters, this.numbers);
+    HuffmanCode again = cache.get(new ArrayList<String>(this.letters),
+        new ArrayList<Integer>(this.numbers));
+    t.checkExpect(first == again, true);
+    t.checkExpect(cache.hits, 1L);
+    t.checkExpect(cache.misses, 1L);
+    HuffmanCode different = cache.get(this.letters, this.other);
+    t.checkExpect(first == different, false);
+    t.checkExpect(cache.size(), 2);
+    t.checkExpect(first.decode(first.encodeBits("cafe")), "cafe");
+    t.checkException(new IllegalArgumentException("Lists don't meet input criteria."),
+        cache, "get", new ArrayList<String>(Arrays.asList("a")),
+        new ArrayList<Integer>(Arrays.asList(1)));
+    t.checkExpect(cache.size(), 2);
+  }
+  
+  //tests that the lookup and insert methods work as expected
+  void testLookupAndInsert(Tester t) {
+    CodeCache cache = new CodeCache(4);
+    CodeKey key = new CodeKey(this.letters, this.numbers);
+    t.checkExpect(cache.lookup(key), null);
+    t.checkExpect(cache.misses, 1L);
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    t.checkExpect(cache.insert(key, code) == code, true);
+    HuffmanCode late = new HuffmanCode(this.letters, this.numbers);
+    t.checkExpect(cache.insert(key, late) == code, true);
+    t.checkExpect(cache.lookup(new CodeKey(this.letters, this.numbers)) == code, true);
+    t.checkExpect(cache.hits, 1L);
+  }
+  
+  //tests that the least recently used code is evicted when the cache is full
+  void testEviction(Tester t) {
+    CodeCache cache = new CodeCache(2);
+    HuffmanCode first = cache.get(this.letters, this.numbers);
+    cache.get(this.letters, this.other);
+    cache.get(this.letters, this.numbers);
+    ArrayList<Integer> third = new ArrayList<Integer>(Arrays.asList(6, 5, 4, 3, 2, 1));
+    cache.get(this.letters, third);
+    t.checkExpect(cache.size(), 2);
+    t.checkExpect(cache.entries.evictions, 1L);
+    t.checkExpect(cache.get(this.letters, this.numbers) == first, true);
+    t.checkExpect(cache.entries.containsKey(new CodeKey(this.letters, this.other)), false);
+  }
+  
+  //tests that the size, hitRate and clear methods work as expected
+  void testHitRateAndClear(Tester t) {
+    CodeCache cache = new CodeCache(3);
+    t.checkInexact(cache.hitRate(), 0.0, 0.001);
+    cache.get(this.letters, this.numbers);
+    cache.get(this.letters, this.numbers);
+    cache.get(this.letters, this.numbers);
+    cache.get(this.letters, this.other);
+    t.checkInexact(cache.hitRate(), 0.5, 0.001);
+    cache.clear();
+    t.checkExpect(cache.size(), 0);
+    t.checkExpect(cache.hits, 0L);
+    t.checkInexact(cache.hitRate(), 0.0, 0.001);
+  }
+  
+  //tests that the hashCode and equals methods of CodeKey work as expected
+  boolean testCodeKey(Tester t) {
+    CodeKey key = new CodeKey(this.letters, this.numbers);
+    ArrayList<String> copied = new ArrayList<String>(this.letters);
+    CodeKey same = new CodeKey(copied, this.numbers);
+    copied.set(0, "z");
+    return t.checkExpect(key.equals(same), true)
+        && t.checkExpect(key.hashCode(), same.hashCode())
+        && t.checkExpect(key.equals(new CodeKey(this.letters, this.other)), false)
+        && t.checkExpect(key.equals(new CodeKey(copied, this.numbers)), false)
+        && t.checkExpect(key.equals("a"), false);
+  }
+}
@@ -0,0 +1,220 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// This represents the codeword of every symbol in a finished Huffman Tree, precomputed once so 
+// that encoding a symbol is a single lookup instead of a search through the whole tree. Each
+// codeword is stored as a bit pattern (read from the most significant of its length bits down) 
+// alongside its length. 
+class CodeTable {
+  HashMap<String, Integer> index;
+  ArrayList<String> symbols;
+  long[] codes;
+  int[] lengths;
+  int[] byChar;
+  SymbolTrie trie;
+  boolean multiChar;
+  
+  // Constructor makes a CodeTable holding no symbols, which codewords are added to one by one, 
+  // such as when a code is loaded from a file instead of being read off a tree. 
+  CodeTable() {
+    this.index = new HashMap<String, Integer>();
+    this.symbols = new ArrayList<String>();
+    this.codes = new long[8];
+    this.lengths = new int[8];
+    this.byChar = new int[0];
+    this.trie = new SymbolTrie();
+    this.multiChar = false;
+  }
+  
+  // Constructor takes in the root of a finished Huffman Tree and records the codeword of every 
+  // symbol found in it. 
+  CodeTable(ATree root) {
+    this();
+    root.fillCodes(this, 0L, 0);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.index ...                                      -- HashMap<String, Integer>
+   * ... this.symbols ...                                    -- ArrayList<String>
+   * ... this.codes ...                                      -- long[]
+   * ... this.lengths ...                                    -- int[]
+   * ... this.byChar ...                                     -- int[]
+   * ... this.trie ...                                       -- SymbolTrie
+   * ... this.multiChar ...                                  -- boolean
+   * METHODS:
+   * ... add(String symbol, long code, int length) ...       -- void
+   * ... slotOf(char c) ...                                  -- int
+   * ... toBits(String input) ...                            -- BitBuffer
+   * ... toBits(String input, int start, int end) ...        -- BitBuffer
+   * ... tokensToBits(String input, int start, int end) ...  -- BitBuffer
+   * ... appendTo(BitBuffer converted, String input, 
+   *              int start, int end) ...                    -- void
+   * ... appendTokens(BitBuffer converted, String input, 
+   *                  int start, int end) ...                -- void
+   * METHODS ON FIELDS:
+   * ... this.index.get(String symbol) ...                   -- Integer
+   * ... this.index.put(String symbol, Integer slot) ...     -- Integer
+   * ... this.symbols.size() ...                             -- int
+   * ... this.trie.add(String symbol, int slot) ...          -- void
+   * ... this.trie.longestMatch(String input, 
+   *                            int start, 
+   *                            int end) ...                 -- long
+   */
+  
+  // EFFECT: Adds the given symbol to this CodeTable with the given codeword, unless the symbol has
+  // already been added. A symbol that appears twice in a Huffman Tree keeps the codeword of its 
+  // leftmost Leaf, the same one that searching the tree would find first. Single-character 
+  // symbols are also indexed by their character so that encoding does not allocate, and every 
+  // symbol is added to the trie used to split input into symbols of several characters. 
+  void add(String symbol, long code, int length) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... symbol ...   -- String
+     * ... code ...     -- long
+     * ... length ...   -- int
+     */
+    if (this.index.get(symbol) != null) {
+      return;
+    }
+    int slot = this.symbols.size();
+    if (slot == this.codes.length) {
+      this.codes = Arrays.copyOf(this.codes, slot * 2);
+      this.lengths = Arrays.copyOf(this.lengths, slot * 2);
+    }
+    this.codes[slot] = code;
+    this.lengths[slot] = length;
+    this.symbols.add(symbol);
+    this.index.put(symbol, slot);
+    this.trie.add(symbol, slot);
+    if (symbol.length() != 1) {
+      this.multiChar = true;
+    }
+    
+    if (symbol.length() == 1) {
+      char c = symbol.charAt(0);
+      if (c >= this.byChar.length) {
+        int old = this.byChar.length;
+        this.byChar = Arrays.copyOf(this.byChar, c + 1);
+        Arrays.fill(this.byChar, old, c + 1, -1);
+      }
+      this.byChar[c] = slot;
+    }
+  }
+  
+  // This method returns the slot of the given single-character symbol in this CodeTable, or -1 
+  // if that character is not part of the language. 
+  int slotOf(char c) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... c ...   -- char
+     */
+    if (c < this.byChar.length) {
+      return this.byChar[c];
+    }
+    return -1;
+  }
+  
+  // This method converts the given string input into a BitBuffer, depicting the encoded version 
+  // of the given input, by appending the precomputed codeword of every character. 
+  BitBuffer toBits(String input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     */
+    return this.toBits(input, 0, input.length());
+  }
+  
+  // This method converts the characters of the given string input from the given start up to but
+  // not including the given end into a BitBuffer, in the same way as converting that substring. 
+  // It only reads this CodeTable, so several threads can convert parts of a string at once. 
+  // When some symbols are longer than one character, the input is split into the longest 
+  // symbols that match it, one after another, instead of into single characters. 
+  BitBuffer toBits(String input, int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     * ... start ...   -- int
+     * ... end ...     -- int
+     */
+    BitBuffer converted = new BitBuffer((end - start) * 4);
+    this.appendTo(converted, input, start, end);
+    return converted;
+  }
+  
+  // EFFECT: Appends the codewords of the characters of the given string input from the given 
+  // start up to but not including the given end to the given BitBuffer, in the same way as 
+  // converting them, so that many strings can be encoded into one BitBuffer. 
+  void appendTo(BitBuffer converted, String input, int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... converted ...   -- BitBuffer
+     * ... input ...       -- String
+     * ... start ...       -- int
+     * ... end ...         -- int
+     */
+    if (this.multiChar) {
+      this.appendTokens(converted, input, start, end);
+      return;
+    }
+    BitWriter writer = new BitWriter(converted);
+    long[] codes = this.codes;
+    int[] lengths = this.lengths;
+    try {
+      for (int i = start; i < end; i += 1) {
+        int slot = this.slotOf(input.charAt(i));
+        if (slot < 0) {
+          throw new IllegalArgumentException("Tried to encode " + input.substring(i, i + 1)
+              + " but that is not part of the language.");
+        }
+        writer.write(codes[slot], lengths[slot]);
+      }
+    } finally {
+      writer.finish();
+    }
+  }
+  
+  // This method converts the given string input from the given start up to but not including the
+  // given end into a BitBuffer by repeatedly taking the longest symbol that the rest of the input
+  // starts with, and appending its codeword. 
+  BitBuffer tokensToBits(String input, int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     * ... start ...   -- int
+     * ... end ...     -- int
+     */
+    BitBuffer converted = new BitBuffer((end - start) * 2);
+    this.appendTokens(converted, input, start, end);
+    return converted;
+  }
+  
+  // EFFECT: Appends the codewords of the longest symbols that the given string input splits into
+  // from the given start up to but not including the given end to the given BitBuffer. 
+  void appendTokens(BitBuffer converted, String input, int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... converted ...   -- BitBuffer
+     * ... input ...       -- String
+     * ... start ...       -- int
+     * ... end ...         -- int
+     */
+    BitWriter writer = new BitWriter(converted);
+    int i = start;
+    try {
+      while (i < end) {
+        long match = this.trie.longestMatch(input, i, end);
+        if (match < 0) {
+          throw new IllegalArgumentException("Tried to encode " + input.substring(i, i + 1)
+              + " but that is not part of the language.");
+        }
+        int slot = (int) (match >>> 32);
+        writer.write(this.codes[slot], this.lengths[slot]);
+        i += (int) match;
+      }
+    } finally {
+      writer.finish();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+import java.util.concurrent.RecursiveAction;
+
+// This represents the decoding of a range of blocks of a BlockEncoding, which splits itself in
+// half until it holds a single block, so that the blocks are decoded in parallel on a
+// ForkJoinPool.
+class DecodeBlocksTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  DecodeTable table;
+  BlockEncoding input;
+  String[] blocks;
+  int lo;
+  int hi;
+  
+  // Constructor takes in the DecodeTable to decode with, the BlockEncoding, the array to put the
+  // decoded blocks in and the range of blocks to decode, from lo up to but not including hi.
+  DecodeBlocksTask(DecodeTable table, BlockEncoding input, String[] blocks, int lo, int hi) {
+    this.table = table;
+    this.input = input;
+    this.blocks = blocks;
+    this.lo = lo;
+    this.hi = hi;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.table ...                                -- DecodeTable
+   * ... this.input ...                                -- BlockEncoding
+   * ... this.blocks ...                               -- String[]
+   * ... this.lo ...                                   -- int
+   * ... this.hi ...                                   -- int
+   * METHODS:
+   * ... compute() ...                                 -- void
+   * METHODS ON FIELDS:
+   * ... this.table.decodeSymbols(BitBuffer input, 
+   *                              int pos, 
+   *                              int count, 
+   *                              StringBuilder output) ...   -- int
+   */
+  
+  // EFFECT: Decodes every block in this range into the array of blocks, splitting the range in
+  // half and decoding both halves in parallel while it holds more than one block. A block whose
+  // symbols do not end exactly where the next block starts is an error.
+  protected void compute() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.hi - this.lo == 1) {
+      int start = this.lo * this.input.blockSize;
+      int count = (int) Math.min(this.input.blockSize, (long) this.input.length - start);
+      StringBuilder output = new StringBuilder(
+          Math.min(count, this.input.offsets[this.lo + 1] - this.input.offsets[this.lo]));
+      int end = this.table.decodeSymbols(this.input.bits, this.input.offsets[this.lo], count,
+          output);
+      if (end != this.input.offsets[this.lo + 1]) {
+        throw new IllegalArgumentException(
+            "Block " + this.lo + " does not end where the next block starts.");
+      }
+      this.blocks[this.lo] = output.toString();
+    } else if (this.hi - this.lo > 1) {
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(new DecodeBlocksTask(this.table, this.input, this.blocks, this.lo, mid),
+          new DecodeBlocksTask(this.table, this.input, this.blocks, mid, this.hi));
+    }
+  }
+}
@@ -0,0 +1,699 @@
+import tester.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// This represents lookup tables built from a finished Huffman Tree, used to decode several bits
+// at a time instead of stepping through the tree one bit at a time. The first-level table is
+// indexed by the next rootBits bits of the input. A codeword that is longer than the bits of a
+// table is resolved through a second-level table, indexed by the bits after it, that the entry
+// links to.
+// Every entry is packed into a long:
+// - bits 0 to 6 hold the number of index bits used by the entry's symbol, or the width of the
+//   linked table
+// - bit 7 is set when the entry links to another table
+// - bits 8 to 14 hold the number of bits used by both symbols, when a second symbol fits into
+//   the same first-level index
+// - bits 16 to 31 hold the slot of that second symbol plus one, or 0 when there is none
+// - bits 32 to 63 hold the slot of the entry's symbol, or the offset of the linked table
+class DecodeTable {
+  CodeTable codes;
+  String[] symbols;
+  int rootBits;
+  int subBits;
+  long[] entries;
+  int used;
+  
+  // Constructor takes in the root of a finished Huffman Tree, the CodeTable built from it and the
+  // number of bits each table should look ahead by, and builds the lookup tables.
+  DecodeTable(ATree root, CodeTable codes, int lookahead) {
+    if (lookahead < 1 || lookahead > 16) {
+      throw new IllegalArgumentException("Lookahead must be between 1 and 16 bits.");
+    }
+    int height = root.height();
+    if (height == 0) {
+      throw new IllegalArgumentException("Cannot build lookup tables for a single Leaf.");
+    }
+    this.codes = codes;
+    this.symbols = codes.symbols.toArray(new String[0]);
+    this.rootBits = Math.min(lookahead, height);
+    this.subBits = lookahead;
+    this.entries = new long[1 << this.rootBits];
+    this.used = 1 << this.rootBits;
+    root.fillDecodeTable(this, 0, this.rootBits, 0, 0);
+    this.pairSymbols();
+  }
+  
+  // Constructor takes in a CodeTable and lookup tables that were already built for it, such as
+  // ones loaded from a file, with the number of bits the first-level table and every other table
+  // look ahead by. Tables that decoding could not follow without reading past the entries or the
+  // symbols, or without ever moving forward, are rejected.
+  DecodeTable(CodeTable codes, int rootBits, int subBits, long[] entries) {
+    if (rootBits < 1 || rootBits > subBits || subBits > 16 || entries.length < (1 << rootBits)) {
+      throw new IllegalArgumentException("Malformed lookup tables.");
+    }
+    this.codes = codes;
+    this.symbols = codes.symbols.toArray(new String[0]);
+    this.rootBits = rootBits;
+    this.subBits = subBits;
+    this.entries = entries;
+    this.used = entries.length;
+    if (!this.wellFormed(0, rootBits, 0, new boolean[this.used])) {
+      throw new IllegalArgumentException("Malformed lookup tables.");
+    }
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.codes ...                                                  -- CodeTable
+   * ... this.symbols ...                                                -- String[]
+   * ... this.rootBits ...                                               -- int
+   * ... this.subBits ...                                                -- int
+   * ... this.entries ...                                                -- long[]
+   * ... this.used ...                                                   -- int
+   * METHODS:
+   * ... put(int offset, int width, int depth, int index, String sym) ...   -- void
+   * ... link(int entry, int width) ...                                  -- int
+   * ... pairSymbols() ...                                               -- void
+   * ... wellFormed(int offset, int width, 
+   *                int consumed, boolean[] linked) ...                  -- boolean
+   * ... peek(long[] words, int pos, int n) ...                          -- int
+   * ... decode(BitBuffer input) ...                                     -- String
+   * ... decodeInto(BitBuffer input, int start, int end, 
+   *              StringBuilder output) ...                              -- int
+   * ... decodeBytes(BitBuffer input, byte[] values) ...                 -- byte[]
+   * ... decodeSymbols(BitBuffer input, 
+   *                   int pos, 
+   *                   int count, 
+   *                   StringBuilder output) ...                         -- int
+   * ... resolve(long[] words, int pos) ...                              -- long
+   * ... decodeInterleaved(InterleavedEncoding input) ...                -- String
+   * METHODS ON FIELDS:
+   * ... this.codes.index.get(String symbol) ...                         -- Integer
+   * FIELDS OF FIELDS:
+   * ... this.codes.multiChar ...                                        -- boolean
+   */
+  
+  // EFFECT: Fills every entry of the table at the given offset, of the given width, whose index
+  // starts with the given depth bits of the given index, with the given symbol.
+  void put(int offset, int width, int depth, int index, String sym) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... offset ...   -- int
+     * ... width ...    -- int
+     * ... depth ...    -- int
+     * ... index ...    -- int
+     * ... sym ...      -- String
+     */
+    int span = width - depth;
+    int start = offset + (index << span);
+    long entry = ((long) this.codes.index.get(sym) << 32) | depth;
+    Arrays.fill(this.entries, start, start + (1 << span), entry);
+  }
+  
+  // EFFECT: Adds a new table of the given width after the existing tables, and makes the given
+  // entry link to it. Returns the offset of the new table.
+  int link(int entry, int width) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... entry ...   -- int
+     * ... width ...   -- int
+     */
+    int offset = this.used;
+    this.used += 1 << width;
+    if (this.used > this.entries.length) {
+      this.entries = Arrays.copyOf(this.entries, Math.max(this.used, this.entries.length * 2));
+    }
+    this.entries[entry] = ((long) offset << 32) | 0x80L | width;
+    return offset;
+  }
+  
+  // EFFECT: Marks every first-level entry whose symbol leaves enough of the index over for the
+  // codeword of another symbol with that second symbol, so that a single probe decodes both.
+  void pairSymbols() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    int size = 1 << this.rootBits;
+    for (int i = 0; i < size; i += 1) {
+      long first = this.entries[i];
+      int length = (int) (first & 0x7FL);
+      if ((first & 0x80L) == 0 && length < this.rootBits) {
+        long second = this.entries[(i << length) & (size - 1)];
+        int total = length + (int) (second & 0x7FL);
+        int slot = (int) (second >>> 32);
+        if ((second & 0x80L) == 0 && total <= this.rootBits && slot < 0xFFFF) {
+          this.entries[i] = first | ((long) (slot + 1) << 16) | ((long) total << 8);
+        }
+      }
+    }
+  }
+  
+  // This method returns whether the table of the given width at the given offset, reached after
+  // the given number of bits, and every table it links to can be decoded through. Every symbol
+  // must use between 1 and width bits of the index and name a slot, every second symbol must end
+  // after the first one and within the index, and every link must lead forward to a table of at
+  // most subBits bits that lies within the entries, is linked from nowhere else and keeps the
+  // codeword within 64 bits. The given array records which tables are linked already.
+  boolean wellFormed(int offset, int width, int consumed, boolean[] linked) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... offset ...     -- int
+     * ... width ...      -- int
+     * ... consumed ...   -- int
+     * ... linked ...     -- boolean[]
+     */
+    int end = offset + (1 << width);
+    for (int i = offset; i < end; i += 1) {
+      long entry = this.entries[i];
+      int bits = (int) (entry & 0x7FL);
+      long target = entry >>> 32;
+      if ((entry & 0x80L) != 0) {
+        if (bits < 1 || bits > this.subBits || consumed + width + bits > 64 || target < end
+            || target > this.used - (1 << bits) || linked[(int) target]) {
+          return false;
+        }
+        linked[(int) target] = true;
+        if (!this.wellFormed((int) target, bits, consumed + width, linked)) {
+          return false;
+        }
+      } else {
+        int second = (int) ((entry >>> 16) & 0xFFFFL);
+        int total = (int) ((entry >>> 8) & 0x7FL);
+        if (bits < 1 || bits > width || target >= this.symbols.length
+            || second > this.symbols.length
+            || (second != 0 && (total <= consumed + bits || total > consumed + width))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+  
+  // This method returns the n bits of the given words that start at the given bit position, as
+  // the low bits of an int. Bits past the end of the words read as zero.
+  int peek(long[] words, int pos, int n) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... words ...   -- long[]
+     * ... pos ...     -- int
+     * ... n ...       -- int
+     */
+    int word = pos >>> 6;
+    if (word >= words.length) {
+      return 0;
+    }
+    int shift = pos & 63;
+    long bits = words[word] << shift;
+    if (shift != 0 && word + 1 < words.length) {
+      bits |= words[word + 1] >>> (64 - shift);
+    }
+    return (int) (bits >>> (64 - n));
+  }
+  
+  // This method decodes the given BitBuffer through these lookup tables, one probe of the
+  // first-level table resolving one or two symbols. A trailing code that stops short of a
+  // complete codeword is decoded as "?", just like walking the Huffman Tree would.
+  String decode(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...         -- BitBuffer
+     * FIELDS OF PARAMETERS:
+     * ... input.size ...    -- int
+     */
+    StringBuilder output = new StringBuilder();
+    this.decodeInto(input, 0, input.size, output);
+    return output.toString();
+  }
+  
+  // EFFECT: Decodes the bits of the given BitBuffer from the given start up to but not including
+  // the given end, in the same way as decoding a BitBuffer holding just those bits, and appends
+  // the symbols to the given StringBuilder instead of making a new string. Returns the position
+  // just after the last whole codeword, which is before the end only when the bits stop short
+  // of a complete codeword, so that callers can tell a truncated code from a "?" symbol.
+  int decodeInto(BitBuffer input, int start, int end, StringBuilder output) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...         -- BitBuffer
+     * ... start ...         -- int
+     * ... end ...           -- int
+     * ... output ...        -- StringBuilder
+     * FIELDS OF PARAMETERS:
+     * ... input.words ...   -- long[]
+     */
+    long[] words = input.words;
+    int pos = start;
+    while (pos < end) {
+      int consumed = 0;
+      int width = this.rootBits;
+      long entry = this.entries[this.peek(words, pos, width)];
+      while ((entry & 0x80L) != 0) {
+        consumed += width;
+        width = (int) (entry & 0x7FL);
+        entry = this.entries[(int) (entry >>> 32) + this.peek(words, pos + consumed, width)];
+      }
+      int length = consumed + (int) (entry & 0x7FL);
+      if (pos + length > end) {
+        break;
+      }
+      output.append(this.symbols[(int) (entry >>> 32)]);
+      int second = (int) ((entry >>> 16) & 0xFFFFL);
+      int total = (int) ((entry >>> 8) & 0x7FL);
+      if (second != 0 && pos + total <= end) {
+        output.append(this.symbols[second - 1]);
+        pos += total;
+      } else {
+        pos += length;
+      }
+    }
+    if (pos < end) {
+      output.append("?");
+    }
+    return pos;
+  }
+  
+  // This method decodes the given BitBuffer through these lookup tables into bytes, where the
+  // given array holds the byte value of the symbol in every slot. Unlike decoding into a string,
+  // bits that end in the middle of a codeword are an error, since there is no byte for "?". 
+  byte[] decodeBytes(BitBuffer input, byte[] values) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...         -- BitBuffer
+     * ... values ...        -- byte[]
+     * FIELDS OF PARAMETERS:
+     * ... input.words ...   -- long[]
+     * ... input.size ...    -- int
+     */
+    long[] words = input.words;
+    int size = input.size;
+    byte[] output = new byte[Math.max(16, size / 4)];
+    int written = 0;
+    int pos = 0;
+    while (pos < size) {
+      if (written + 2 > output.length) {
+        output = Arrays.copyOf(output, output.length * 2);
+      }
+      int consumed = 0;
+      int width = this.rootBits;
+      long entry = this.entries[this.peek(words, pos, width)];
+      while ((entry & 0x80L) != 0) {
+        consumed += width;
+        width = (int) (entry & 0x7FL);
+        entry = this.entries[(int) (entry >>> 32) + this.peek(words, pos + consumed, width)];
+      }
+      int length = consumed + (int) (entry & 0x7FL);
+      if (pos + length > size) {
+        throw new IllegalArgumentException("Encoded bits end in the middle of a codeword.");
+      }
+      output[written] = values[(int) (entry >>> 32)];
+      written += 1;
+      int second = (int) ((entry >>> 16) & 0xFFFFL);
+      int total = (int) ((entry >>> 8) & 0x7FL);
+      if (second != 0 && pos + total <= size) {
+        output[written] = values[second - 1];
+        written += 1;
+        pos += total;
+      } else {
+        pos += length;
+      }
+    }
+    return Arrays.copyOf(output, written);
+  }
+  
+  // EFFECT: Decodes the given number of symbols of the given BitBuffer, starting at the given bit
+  // position, and appends them to the given StringBuilder, or skips over them if it is null.
+  // Returns the bit position right after the last symbol decoded. Running out of bits before
+  // that many symbols are decoded is an error.
+  int decodeSymbols(BitBuffer input, int pos, int count, StringBuilder output) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...         -- BitBuffer
+     * ... pos ...           -- int
+     * ... count ...         -- int
+     * ... output ...        -- StringBuilder
+     * FIELDS OF PARAMETERS:
+     * ... input.words ...   -- long[]
+     * ... input.size ...    -- int
+     */
+    long[] words = input.words;
+    int size = input.size;
+    int decoded = 0;
+    while (decoded < count) {
+      int consumed = 0;
+      int width = this.rootBits;
+      long entry = this.entries[this.peek(words, pos, width)];
+      while ((entry & 0x80L) != 0) {
+        consumed += width;
+        width = (int) (entry & 0x7FL);
+        entry = this.entries[(int) (entry >>> 32) + this.peek(words, pos + consumed, width)];
+      }
+      int length = consumed + (int) (entry & 0x7FL);
+      if (pos + length > size) {
+        throw new IllegalArgumentException("Encoded bits end in the middle of a codeword.");
+      }
+      if (output != null) {
+        output.append(this.symbols[(int) (entry >>> 32)]);
+      }
+      decoded += 1;
+      int second = (int) ((entry >>> 16) & 0xFFFFL);
+      int total = (int) ((entry >>> 8) & 0x7FL);
+      if (second != 0 && decoded < count && pos + total <= size) {
+        if (output != null) {
+          output.append(this.symbols[second - 1]);
+        }
+        decoded += 1;
+        pos += total;
+      } else {
+        pos += length;
+      }
+    }
+    return pos;
+  }
+  
+  // This method looks up the codeword that starts at the given bit position of the given words,
+  // following links to other tables as needed, and returns the slot of its symbol in the high 32
+  // bits and the length of the codeword in the low bits. The second symbol of an entry is left
+  // out, so every lookup decodes exactly one symbol.
+  long resolve(long[] words, int pos) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... words ...   -- long[]
+     * ... pos ...     -- int
+     */
+    int consumed = 0;
+    int width = this.rootBits;
+    long entry = this.entries[this.peek(words, pos, width)];
+    while ((entry & 0x80L) != 0) {
+      consumed += width;
+      width = (int) (entry & 0x7FL);
+      entry = this.entries[(int) (entry >>> 32) + this.peek(words, pos + consumed, width)];
+    }
+    return (entry & 0xFFFFFFFF00000000L) | (consumed + (entry & 0x7FL));
+  }
+  
+  // This method decodes the given InterleavedEncoding, whose symbols must all be single chars.
+  // One cursor is kept into each of the four streams, and every step of the main loop decodes
+  // one symbol from each of them, for as many steps as the last stream, which holds the fewest
+  // symbols, has symbols. The symbols the other streams have left are decoded afterwards. Every
+  // stream must end exactly where the jump table says the next one starts.
+  String decodeInterleaved(InterleavedEncoding input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...               -- InterleavedEncoding
+     * FIELDS OF PARAMETERS:
+     * ... input.length ...        -- int
+     * ... input.offsets ...       -- int[]
+     * ... input.bits ...          -- BitBuffer
+     * METHODS ON PARAMETERS:
+     * ... input.quarter() ...     -- int
+     * ... input.count(int k) ...  -- int
+     */
+    if (this.codes.multiChar) {
+      throw new IllegalArgumentException(
+          "Interleaved streams can only be made of single-character symbols.");
+    }
+    long[] words = input.bits.words;
+    char[] output = new char[input.length];
+    int quarter = input.quarter();
+    int[] cursors = Arrays.copyOf(input.offsets, InterleavedEncoding.STREAMS);
+    int pos0 = cursors[0];
+    int pos1 = cursors[1];
+    int pos2 = cursors[2];
+    int pos3 = cursors[3];
+    int out1 = quarter;
+    int out2 = quarter * 2;
+    int out3 = quarter * 3;
+    int steps = input.count(3);
+    for (int i = 0; i < steps; i += 1) {
+      long found0 = this.resolve(words, pos0);
+      long found1 = this.resolve(words, pos1);
+      long found2 = this.resolve(words, pos2);
+      long found3 = this.resolve(words, pos3);
+      output[i] = this.symbols[(int) (found0 >>> 32)].charAt(0);
+      output[out1 + i] = this.symbols[(int) (found1 >>> 32)].charAt(0);
+      output[out2 + i] = this.symbols[(int) (found2 >>> 32)].charAt(0);
+      output[out3 + i] = this.symbols[(int) (found3 >>> 32)].charAt(0);
+      pos0 += (int) (found0 & 0x7FL);
+      pos1 += (int) (found1 & 0x7FL);
+      pos2 += (int) (found2 & 0x7FL);
+      pos3 += (int) (found3 & 0x7FL);
+    }
+    cursors[0] = pos0;
+    cursors[1] = pos1;
+    cursors[2] = pos2;
+    cursors[3] = pos3;
+    for (int k = 0; k < InterleavedEncoding.STREAMS; k += 1) {
+      int pos = cursors[k];
+      int out = quarter * k;
+      for (int i = steps; i < input.count(k); i += 1) {
+        long found = this.resolve(words, pos);
+        output[out + i] = this.symbols[(int) (found >>> 32)].charAt(0);
+        pos += (int) (found & 0x7FL);
+      }
+      if (pos != input.offsets[k + 1]) {
+        throw new IllegalArgumentException(
+            "Stream " + k + " does not end where the jump table says it does.");
+      }
+    }
+    return new String(output);
+  }
+}
+
+class ExamplesDecodeTable {
+  
+  //tests that the constructor throws exceptions when expected
+  boolean testDecodeTableExceptions(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Node node = new Node(2, leaf, new Leaf("b", 1));
+    CodeTable table = new CodeTable(node);
+    return t.checkConstructorException(
+        new IllegalArgumentException("Lookahead must be between 1 and 16 bits."),
+        "DecodeTable", node, table, 0)
+        && t.checkConstructorException(
+            new IllegalArgumentException("Cannot build lookup tables for a single Leaf."),
+            "DecodeTable", leaf, new CodeTable(leaf), 4)
+        && t.checkConstructorException(new IllegalArgumentException("Malformed lookup tables."),
+            "DecodeTable", table, 2, 1, new long[4])
+        && t.checkConstructorException(new IllegalArgumentException("Malformed lookup tables."),
+            "DecodeTable", table, 2, 4, new long[3])
+        && t.checkConstructorException(new IllegalArgumentException("Malformed lookup tables."),
+            "DecodeTable", table, 1, 1, new long[2])
+        && t.checkConstructorException(new IllegalArgumentException("Malformed lookup tables."),
+            "DecodeTable", table, 1, 1, new long[] {1L, 0x80L | 1, 1L, 1L << 32 | 1});
+  }
+  
+  //tests that the constructor taking in lookup tables that were already built works as expected
+  void testLoadedDecodeTable(Tester t) {
+    Node node = new Node(3, new Leaf("a", 1), new Node(2, new Leaf("b", 1), new Leaf("c", 1)));
+    CodeTable codes = new CodeTable(node);
+    DecodeTable built = new DecodeTable(node, codes, 4);
+    DecodeTable loaded = new DecodeTable(codes, built.rootBits, built.subBits,
+        Arrays.copyOf(built.entries, built.used));
+    t.checkExpect(loaded.used, built.used);
+    t.checkExpect(loaded.symbols, built.symbols);
+    BitBuffer bits = codes.toBits("cabbac");
+    t.checkExpect(loaded.decode(bits), "cabbac");
+  }
+  
+  //tests that the put method works as expected
+  void testPut(Tester t) {
+    Node node = new Node(2, new Leaf("a", 1), new Leaf("b", 1));
+    DecodeTable table = new DecodeTable(node, new CodeTable(node), 1);
+    table.entries = new long[8];
+    table.put(0, 3, 1, 1, "b");
+    t.checkExpect(table.entries, new long[] {0, 0, 0, 0, 1L << 32 | 1, 1L << 32 | 1,
+        1L << 32 | 1, 1L << 32 | 1});
+    table.put(0, 3, 3, 2, "a");
+    t.checkExpect(table.entries[2], 3L);
+    t.checkExpect(table.entries[3], 0L);
+  }
+  
+  //tests that the link method works as expected
+  void testLink(Tester t) {
+    Node node = new Node(2, new Leaf("a", 1), new Leaf("b", 1));
+    DecodeTable table = new DecodeTable(node, new CodeTable(node), 1);
+    t.checkExpect(table.used, 2);
+    t.checkExpect(table.link(1, 3), 2);
+    t.checkExpect(table.used, 10);
+    t.checkExpect(table.entries.length >= 10, true);
+    t.checkExpect(table.entries[1], 2L << 32 | 0x80L | 3);
+  }
+  
+  //tests that the pairSymbols method works as expected
+  void testPairSymbols(Tester t) {
+    Leaf a = new Leaf("a", 4);
+    Leaf b = new Leaf("b", 2);
+    Leaf c = new Leaf("c", 2);
+    Node root = new Node(8, a, new Node(4, b, c));
+    DecodeTable table = new DecodeTable(root, new CodeTable(root), 2);
+    t.checkExpect(table.entries[0], 1L << 16 | 2L << 8 | 1);
+    t.checkExpect(table.entries[1], 1L);
+    t.checkExpect(table.entries[2], 1L << 32 | 2);
+    t.checkExpect(table.entries[3], 2L << 32 | 2);
+  }
+  
+  //tests that the wellFormed method works as expected
+  void testWellFormed(Tester t) {
+    Node node = new Node(3, new Leaf("a", 1), new Node(2, new Leaf("b", 1), new Leaf("c", 1)));
+    DecodeTable table = new DecodeTable(node, new CodeTable(node), 1);
+    long[] built = table.entries.clone();
+    t.checkExpect(table.used, 4);
+    t.checkExpect(table.wellFormed(0, 1, 0, new boolean[4]), true);
+    t.checkExpect(table.wellFormed(2, 1, 1, new boolean[4]), true);
+    t.checkExpect(table.wellFormed(0, 1, 0, new boolean[] {false, false, true, false}), false);
+    t.checkExpect(table.wellFormed(0, 1, 63, new boolean[4]), false);
+    long[] broken = new long[] {0L, 1L << 16 | 1L << 8 | 1, 0x80L | 1, 3L << 32 | 0x80L | 1,
+        2L << 32 | 0x80L | 2};
+    int[] at = new int[] {0, 1, 0, 1, 0};
+    for (int i = 0; i < broken.length; i += 1) {
+      table.entries = built.clone();
+      table.entries[at[i]] = broken[i];
+      t.checkExpect(table.wellFormed(0, 1, 0, new boolean[4]), false);
+    }
+    table.entries = built.clone();
+    table.entries[3] = 3L << 32 | 1;
+    t.checkExpect(table.wellFormed(0, 1, 0, new boolean[4]), false);
+  }
+  
+  //tests that the peek method works as expected
+  boolean testPeek(Tester t) {
+    Node node = new Node(2, new Leaf("a", 1), new Leaf("b", 1));
+    DecodeTable table = new DecodeTable(node, new CodeTable(node), 1);
+    long[] words = new long[] {0xF0L, 0xA000000000000000L};
+    return t.checkExpect(table.peek(words, 56, 4), 15)
+        && t.checkExpect(table.peek(words, 60, 8), 0x0A)
+        && t.checkExpect(table.peek(words, 64, 3), 5)
+        && t.checkExpect(table.peek(words, 126, 4), 0)
+        && t.checkExpect(table.peek(words, 128, 4), 0);
+  }
+  
+  //tests that the decodeInto method works as expected
+  void testDecodeInto(Tester t) {
+    Node node = new Node(3, new Leaf("a", 1), new Node(2, new Leaf("b", 1), new Leaf("c", 1)));
+    CodeTable codes = new CodeTable(node);
+    DecodeTable table = new DecodeTable(node, codes, 4);
+    BitBuffer bits = codes.toBits("cabbac");
+    StringBuilder output = new StringBuilder("x");
+    t.checkExpect(table.decodeInto(bits, 2, 7, output), 7);
+    t.checkExpect(output.toString(), "xabb");
+    t.checkExpect(table.decodeInto(bits, 7, 8, output), 8);
+    t.checkExpect(output.toString(), "xabba");
+    t.checkExpect(table.decodeInto(bits, 8, 9, output), 8);
+    t.checkExpect(output.toString(), "xabba?");
+    t.checkExpect(table.decodeInto(bits, 4, 4, output), 4);
+    t.checkExpect(output.toString(), "xabba?");
+  }
+  
+  //tests that the decode method works as expected
+  void testDecode(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    int fib = 1;
+    int prev = 1;
+    for (int i = 0; i < 20; i += 1) {
+      letters.add("" + (char) ('a' + i));
+      numbers.add(fib);
+      int next = fib + prev;
+      prev = fib;
+      fib = next;
+    }
+    Huffman huff = new Huffman(letters, numbers);
+    StringBuilder message = new StringBuilder();
+    for (int i = 0; i < 5000; i += 1) {
+      message.append((char) ('a' + (i * 7 + i / 3) % 20));
+    }
+    BitBuffer bits = huff.encodeBits(message.toString());
+    for (int lookahead = 1; lookahead <= 12; lookahead += 1) {
+      DecodeTable table = new DecodeTable(huff.f.orchard.get(0), huff.table, lookahead);
+      t.checkExpect(table.decode(bits), message.toString());
+      for (int cut = bits.size - 20; cut < bits.size; cut += 1) {
+        BitBuffer partial = new BitBuffer(0);
+        for (int i = 0; i < cut; i += 1) {
+          partial.appendBit(bits.get(i));
+        }
+        t.checkExpect(table.decode(partial), huff.f.decodeBits(partial));
+      }
+    }
+    t.checkExpect(huff.decoder.decode(new BitBuffer(0)), "");
+  }
+  
+  //tests that the decodeBytes method works as expected
+  void testDecodeBytes(Tester t) {
+    Leaf a = new Leaf("a", 4);
+    Leaf b = new Leaf("b", 2);
+    Leaf c = new Leaf("c", 2);
+    Node root = new Node(8, a, new Node(4, b, c));
+    CodeTable codes = new CodeTable(root);
+    byte[] values = new byte[] {10, 20, 30};
+    BitBuffer bits = codes.toBits("aabcacba");
+    for (int lookahead = 1; lookahead <= 3; lookahead += 1) {
+      DecodeTable table = new DecodeTable(root, codes, lookahead);
+      t.checkExpect(table.decodeBytes(bits, values), new byte[] {10, 10, 20, 30, 10, 30, 20, 10});
+      t.checkExpect(table.decodeBytes(new BitBuffer(0), values), new byte[0]);
+    }
+    BitBuffer partial = codes.toBits("ab");
+    partial.append(1L, 1);
+    t.checkException(new IllegalArgumentException("Encoded bits end in the middle of a codeword."),
+        new DecodeTable(root, codes, 2), "decodeBytes", partial, values);
+  }
+  
+  //tests that the decodeSymbols method works as expected
+  void testDecodeSymbols(Tester t) {
+    Leaf a = new Leaf("a", 4);
+    Leaf b = new Leaf("b", 2);
+    Leaf c = new Leaf("c", 2);
+    Node root = new Node(8, a, new Node(4, b, c));
+    CodeTable codes = new CodeTable(root);
+    DecodeTable table = new DecodeTable(root, codes, 2);
+    BitBuffer bits = codes.toBits("aabcaca");
+    StringBuilder output = new StringBuilder();
+    t.checkExpect(table.decodeSymbols(bits, 0, 1, output), 1);
+    t.checkExpect(output.toString(), "a");
+    t.checkExpect(table.decodeSymbols(bits, 1, 3, output), 6);
+    t.checkExpect(output.toString(), "aabc");
+    t.checkExpect(table.decodeSymbols(bits, 6, 0, output), 6);
+    t.checkExpect(table.decodeSymbols(bits, 6, 2, null), 9);
+    t.checkExpect(output.toString(), "aabc");
+    t.checkExpect(table.decodeSymbols(bits, 9, 1, output), 10);
+    t.checkExpect(output.toString(), "aabca");
+    t.checkException(new IllegalArgumentException("Encoded bits end in the middle of a codeword."),
+        table, "decodeSymbols", bits, 9, 2, output);
+  }
+  
+  //tests that the resolve method works as expected
+  void testResolve(Tester t) {
+    Leaf a = new Leaf("a", 4);
+    Leaf b = new Leaf("b", 2);
+    Leaf c = new Leaf("c", 2);
+    Node root = new Node(8, a, new Node(4, b, c));
+    CodeTable codes = new CodeTable(root);
+    BitBuffer bits = codes.toBits("acb");
+    for (int lookahead = 1; lookahead <= 3; lookahead += 1) {
+      DecodeTable table = new DecodeTable(root, codes, lookahead);
+      t.checkExpect(table.resolve(bits.words, 0), 1L);
+      t.checkExpect(table.resolve(bits.words, 1), 2L << 32 | 2);
+      t.checkExpect(table.resolve(bits.words, 3), 1L << 32 | 2);
+    }
+  }
+  
+  //tests that the decodeInterleaved method works as expected
+  void testDecodeInterleaved(Tester t) {
+    Leaf a = new Leaf("a", 4);
+    Leaf b = new Leaf("b", 2);
+    Leaf c = new Leaf("c", 2);
+    Node root = new Node(8, a, new Node(4, b, c));
+    CodeTable codes = new CodeTable(root);
+    DecodeTable table = new DecodeTable(root, codes, 2);
+    BitBuffer bits = codes.toBits("abcaacbcab");
+    InterleavedEncoding streams = new InterleavedEncoding(10, new int[] {0, 5, 9, 14, 16}, bits);
+    t.checkExpect(table.decodeInterleaved(streams), "abcaacbcab");
+    InterleavedEncoding three = new InterleavedEncoding(3, new int[] {0, 1, 3, 5, 5},
+        codes.toBits("abc"));
+    t.checkExpect(table.decodeInterleaved(three), "abc");
+    InterleavedEncoding empty = new InterleavedEncoding(0, new int[5], new BitBuffer(0));
+    t.checkExpect(table.decodeInterleaved(empty), "");
+    InterleavedEncoding shifted = new InterleavedEncoding(10, new int[] {0, 5, 8, 14, 16}, bits);
+    t.checkException(new IllegalArgumentException(
+        "Stream 1 does not end where the jump table says it does."),
+        table, "decodeInterleaved", shifted);
+  }
+}
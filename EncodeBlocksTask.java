@@ -0,0 +1,59 @@
+import java.util.concurrent.RecursiveAction;
+
+// This represents the encoding of a range of blocks of a string, which splits itself in half
+// until it holds a single block, so that the blocks are encoded in parallel on a ForkJoinPool.
+class EncodeBlocksTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  CodeTable table;
+  String input;
+  int blockSize;
+  BitBuffer[] blocks;
+  int lo;
+  int hi;
+  
+  // Constructor takes in the CodeTable to encode with, the string, the number of symbols in each
+  // block, the array to put the encoded blocks in and the range of blocks to encode, from lo up
+  // to but not including hi.
+  EncodeBlocksTask(CodeTable table, String input, int blockSize, BitBuffer[] blocks, int lo,
+      int hi) {
+    this.table = table;
+    this.input = input;
+    this.blockSize = blockSize;
+    this.blocks = blocks;
+    this.lo = lo;
+    this.hi = hi;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.table ...                                           -- CodeTable
+   * ... this.input ...                                           -- String
+   * ... this.blockSize ...                                       -- int
+   * ... this.blocks ...                                          -- BitBuffer[]
+   * ... this.lo ...                                              -- int
+   * ... this.hi ...                                              -- int
+   * METHODS:
+   * ... compute() ...                                            -- void
+   * METHODS ON FIELDS:
+   * ... this.table.toBits(String input, int start, int end) ...  -- BitBuffer
+   */
+  
+  // EFFECT: Encodes every block in this range into the array of blocks, splitting the range in
+  // half and encoding both halves in parallel while it holds more than one block.
+  protected void compute() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.hi - this.lo == 1) {
+      int start = this.lo * this.blockSize;
+      int end = (int) Math.min((long) start + this.blockSize, this.input.length());
+      this.blocks[this.lo] = this.table.toBits(this.input, start, end);
+    } else if (this.hi - this.lo > 1) {
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(new EncodeBlocksTask(this.table, this.input, this.blockSize, this.blocks,
+          this.lo, mid),
+          new EncodeBlocksTask(this.table, this.input, this.blockSize, this.blocks, mid,
+              this.hi));
+    }
+  }
+}
@@ -0,0 +1,144 @@
+import tester.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// This represents a finished Huffman Tree copied out of its Node and Leaf objects into a single
+// array of ints, so that walking it one bit at a time reads neighbouring memory instead of
+// following references between objects spread over the heap. Nodes are numbered from 0, the
+// root, and the children of node n are kept at indices 2n and 2n + 1 of the children array, left
+// before right. A child that is a Node is kept as its number, and a child that is a Leaf is kept
+// as -1 minus the slot of its symbol in the CodeTable of the tree.
+class FlatTree {
+  CodeTable codes;
+  String[] symbols;
+  int[] children;
+  int nodes;
+  
+  // Constructor takes in the root of a finished Huffman Tree and the CodeTable built from it, and
+  // copies the tree into arrays. A tree made of a single Leaf has no codewords to walk.
+  FlatTree(ATree root, CodeTable codes) {
+    if (root.height() == 0) {
+      throw new IllegalArgumentException("Cannot flatten a single Leaf.");
+    }
+    this.codes = codes;
+    this.symbols = codes.symbols.toArray(new String[0]);
+    this.children = new int[16];
+    this.nodes = 0;
+    root.flatten(this);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.codes ...                           -- CodeTable
+   * ... this.symbols ...                         -- String[]
+   * ... this.children ...                        -- int[]
+   * ... this.nodes ...                           -- int
+   * METHODS:
+   * ... newNode() ...                            -- int
+   * ... encodeBits(String input) ...             -- BitBuffer
+   * ... decode(BitBuffer input) ...              -- String
+   * METHODS ON FIELDS:
+   * ... this.codes.toBits(String input) ...      -- BitBuffer
+   */
+  
+  // EFFECT: Makes room for one more Node in this FlatTree, and returns its number.
+  int newNode() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (2 * (this.nodes + 1) > this.children.length) {
+      this.children = Arrays.copyOf(this.children, this.children.length * 2);
+    }
+    this.nodes += 1;
+    return this.nodes - 1;
+  }
+  
+  // This method encodes the given string into a new BitBuffer through the CodeTable of this
+  // FlatTree, which holds the same codewords as the tree.
+  BitBuffer encodeBits(String input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     */
+    return this.codes.toBits(input);
+  }
+  
+  // This method decodes the given BitBuffer by walking this FlatTree one bit at a time from the
+  // root, just like the Huffman Tree it was copied from. If the bits end in the middle of a
+  // codeword, a ? is added at the end.
+  String decode(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...         -- BitBuffer
+     * FIELDS OF PARAMETERS:
+     * ... input.words ...   -- long[]
+     * ... input.size ...    -- int
+     */
+    long[] words = input.words;
+    int[] children = this.children;
+    StringBuilder output = new StringBuilder();
+    int node = 0;
+    for (int pos = 0; pos < input.size; pos += 1) {
+      int bit = (int) (words[pos >>> 6] >>> (63 - (pos & 63))) & 1;
+      int next = children[2 * node + bit];
+      if (next < 0) {
+        output.append(this.symbols[-1 - next]);
+        node = 0;
+      } else {
+        node = next;
+      }
+    }
+    if (node != 0) {
+      output.append("?");
+    }
+    return output.toString();
+  }
+}
+
+class ExamplesFlatTree {
+  ArrayList<String> letters = new ArrayList<String>(Arrays.asList("a", "b", "c", "d", "e", "f"));
+  ArrayList<Integer> numbers = new ArrayList<Integer>(Arrays.asList(12, 45, 5, 13, 9, 16));
+  Huffman huff = new Huffman(this.letters, this.numbers);
+  
+  //tests that the constructor and the flatten methods work as expected
+  void testFlatTreeConstructor(Tester t) {
+    FlatTree tree = this.huff.flatten();
+    t.checkExpect(tree.nodes, 5);
+    t.checkExpect(tree.children[0], -1 - this.huff.table.index.get("b"));
+    t.checkExpect(tree.children[1], 1);
+    t.checkExpect(tree.symbols[-1 - tree.children[0]], "b");
+    t.checkConstructorException(new IllegalArgumentException("Cannot flatten a single Leaf."),
+        "FlatTree", new Leaf("a", 1), this.huff.table);
+  }
+  
+  //tests that the newNode method works as expected
+  void testNewNode(Tester t) {
+    FlatTree tree = this.huff.flatten();
+    for (int i = 0; i < 20; i += 1) {
+      t.checkExpect(tree.newNode(), 5 + i);
+    }
+    t.checkExpect(tree.children.length >= 50, true);
+  }
+  
+  //tests that the encodeBits method works as expected
+  boolean testFlatEncodeBits(Tester t) {
+    FlatTree tree = this.huff.flatten();
+    return t.checkExpect(tree.encodeBits("fedcba").toBooleans(), this.huff.encode("fedcba"))
+        && t.checkExpect(tree.encodeBits("").size, 0);
+  }
+  
+  //tests that the decode method works as expected
+  void testFlatDecode(Tester t) {
+    FlatTree tree = this.huff.flatten();
+    t.checkExpect(tree.decode(this.huff.encodeBits("badcafe")), "badcafe");
+    t.checkExpect(tree.decode(new BitBuffer(0)), "");
+    BitBuffer partial = new BitBuffer(0);
+    partial.append(1L, 1);
+    t.checkExpect(tree.decode(partial), this.huff.decode(partial));
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 500; i += 1) {
+      text.append((char) ('a' + (i * 7 + i / 5) % 6));
+    }
+    t.checkExpect(tree.decode(this.huff.encodeBits(text.toString())), text.toString());
+  }
+}
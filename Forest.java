@@ -0,0 +1,244 @@
+import java.util.ArrayList;
+
+// This structurally represents the Huffman Tree. 
+class Forest {
+  ArrayList<ATree> orchard;
+  
+  // Constructor
+  Forest(ArrayList<ATree> orchard) {
+    this.orchard = orchard;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.orchard ...                                -- ArrayList<ATree>
+   * METHODS:
+   * ... populateTree(ArrayList<String> letters, 
+   *                  ArrayList<Integer> numbers) ...    -- void
+   * ... makeHuffmanTree() ...                           -- void
+   * ... insert(ATree element) ...                       -- void
+   * ... makeHuffmanTreeHeap() ...                       -- void
+   * ... makeHuffmanTreeQueues() ...                     -- void
+   * ... toBoolean(String input) ...                     -- ArrayList<Boolean>
+   * ... decodingTree(ArrayList<Boolean> input) ...      -- String
+   * ... decodeBits(BitBuffer input) ...                 -- String
+   * ... decodeInto(BitBuffer input, 
+   *                StringBuilder output) ...            -- int
+   * METHODS ON FIELDS:
+   * ... this.orchard.add(Atree object) ...              -- boolean
+   * ... this.orchard.size() ...                         -- int
+   * ... this.orchard.remove(int index) ...              -- ATree
+   * ... this.orchard.get(int index) ...                 -- ATree
+   * ... this.orchard.add(int index, ATree object) ...   -- void
+   */
+  
+  // EFFECT: Modifies this Forest to be filled up with the given letters/symbols 
+  // and their respective frequencies. 
+  void populateTree(ArrayList<String> letters, ArrayList<Integer> numbers) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... letters ...                  -- ArrayList<String>
+     * ... numbers ...                  -- ArrayList<Integer>
+     * METHODS ON PARAMETERS:
+     * ... letters.size() ...           -- int
+     * ... letters.get(int index) ...   -- String
+     * ... numbers.get(int index) ...   -- Integer
+     */
+    for (int i = 0 ; i < letters.size(); i += 1) {
+      ATree leaf = new Leaf(letters.get(i), numbers.get(i));
+      this.orchard.add(leaf);
+    }
+  }
+  
+  // EFFECT: Modifies this Forest to construct itself into a Huffman Tree-like structure from 
+  // its constituent character and frequency values. 
+  void makeHuffmanTree() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    while (this.orchard.size() > 1) {
+      ATree left = this.orchard.remove(0);
+      ATree right = this.orchard.remove(0);
+      
+      ATree combined = new Node(left.freq + right.freq, left, right);
+      
+      this.insert(combined);
+    }
+  }
+  
+  // EFFECT: Modifies this Forest by adding an ATree into this Forest's arraylist of ATrees, 
+  // without disturbing the sorted arraylist of ATrees by adding in the correct place - the 
+  // deepest point that retains ascending relation. 
+  void insert(ATree element) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... element ...                              -- ATree
+     * METHODS ON PARAMETERS:
+     * ... element.isSmallerFreq(ATree other) ...   -- boolean
+     */
+    for (int i = 0; i <= this.orchard.size(); i += 1) {
+      if (i == this.orchard.size()) {
+        this.orchard.add(element);
+        i += this.orchard.size();
+      } else if (element.isSmallerFreq(this.orchard.get(i))) {
+        this.orchard.add(i, element);
+        i += this.orchard.size();
+      }
+    }
+  }
+  
+  // EFFECT: Modifies this Forest, whose ATrees may be in any order, to construct itself into a 
+  // Huffman Tree-like structure using a binary heap, in O(n log n) time. The ATrees are combined 
+  // in the same order as sorting them stably and then calling makeHuffmanTree: ties go to the 
+  // ATree that came first in this Forest, and every combined ATree comes after the ATrees that 
+  // are already in this Forest. Ties between ATrees that are out of order can therefore be
+  // combined in a different order than after the unstable selection sort of Utils. 
+  void makeHuffmanTreeHeap() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    int size = this.orchard.size();
+    if (size == 0) {
+      return;
+    }
+    ATree[] trees = this.orchard.toArray(new ATree[2 * size - 1]);
+    int[] heap = new int[size];
+    int heapSize = 0;
+    Utils u = new Utils();
+    for (int i = 0; i < size; i += 1) {
+      heapSize = u.heapPush(heap, heapSize, trees, i);
+    }
+    for (int next = size; heapSize > 1; next += 1) {
+      int left = heap[0];
+      heapSize = u.heapPop(heap, heapSize, trees);
+      int right = heap[0];
+      heapSize = u.heapPop(heap, heapSize, trees);
+      trees[next] = new Node(trees[left].freq + trees[right].freq, trees[left], trees[right]);
+      heapSize = u.heapPush(heap, heapSize, trees, next);
+    }
+    this.orchard.clear();
+    this.orchard.add(trees[heap[0]]);
+  }
+  
+  // EFFECT: Modifies this Forest, whose ATrees must already be sorted by ascending frequency, to
+  // construct itself into a Huffman Tree-like structure in linear time. Combined ATrees are 
+  // created in ascending order of frequency, so they wait in a second queue next to the sorted
+  // ATrees and the two smallest are always at the front of the two queues. Ties go to the sorted
+  // ATrees, which makes the result the same as that of makeHuffmanTree. 
+  void makeHuffmanTreeQueues() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    int size = this.orchard.size();
+    if (size == 0) {
+      return;
+    }
+    ATree[] sorted = this.orchard.toArray(new ATree[size]);
+    ATree[] combined = new ATree[size];
+    int nextSorted = 0;
+    int nextCombined = 0;
+    int made = 0;
+    for (int step = 1; step < size; step += 1) {
+      ATree[] two = new ATree[2];
+      for (int k = 0; k < 2; k += 1) {
+        if (nextCombined == made 
+            || (nextSorted < size && !combined[nextCombined].isSmallerFreq(sorted[nextSorted]))) {
+          two[k] = sorted[nextSorted];
+          nextSorted += 1;
+        } else {
+          two[k] = combined[nextCombined];
+          nextCombined += 1;
+        }
+      }
+      combined[made] = new Node(two[0].freq + two[1].freq, two[0], two[1]);
+      made += 1;
+    }
+    this.orchard.clear();
+    if (made == 0) {
+      this.orchard.add(sorted[0]);
+    } else {
+      this.orchard.add(combined[made - 1]);
+    }
+  }
+  
+  // This method takes the given string input and executes on this Forest, converting the input 
+  // string into an arraylist of booleans, depicting the encoded version of the given input. 
+  ArrayList<Boolean> toBoolean(String input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     */
+    ArrayList<Boolean> converted = new ArrayList<Boolean>();
+    String str = input;
+    while (!str.equals("")) {
+      String letter = str.substring(0,1);
+      str = str.substring(1);
+      if (!this.orchard.get(0).find(letter)) {
+        throw new IllegalArgumentException(
+            "Tried to encode " + letter + " but that is not part of the language.");
+      } else {
+        this.orchard.get(0).updateConverted(converted, letter);
+      }     
+    }
+    return converted;
+  }
+  
+  // This method uses the given arraylist of booleans and decodes it, in order to return a 
+  // string that matches the given steps in the boolean arraylist. 
+  String decodingTree(ArrayList<Boolean> input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...          -- ArrayList<Boolean>
+     * METHODS ON PARAMETERS:
+     * ... input.size() ...   -- int
+     */
+    if (input.size() == 0) {
+      return "";
+    }
+    return this.decodeBits(new BitBuffer(input));
+  }
+  
+  // This method decodes the given BitBuffer by walking this Forest's Huffman Tree in a loop, 
+  // moving a cursor over the bits one at a time and starting again at the top of the tree every
+  // time a Leaf is reached. A trailing code that stops short of a Leaf is decoded as "?". 
+  String decodeBits(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...                                -- BitBuffer
+     */
+    StringBuilder output = new StringBuilder();
+    this.decodeInto(input, output);
+    return output.toString();
+  }
+  
+  // EFFECT: Decodes the given BitBuffer in the same way as the decodeBits method, appending the 
+  // symbols to the given StringBuilder. Returns the position just after the last whole codeword, 
+  // which is before the end of the bits only when they stop short of a Leaf. 
+  int decodeInto(BitBuffer input, StringBuilder output) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...                                -- BitBuffer
+     * ... output ...                               -- StringBuilder
+     * FIELDS OF PARAMETERS:
+     * ... input.words ...                          -- long[]
+     * ... input.size ...                           -- int
+     * METHODS ON FIELDS:
+     * ... this.orchard.get(int index) ...          -- ATree
+     */
+    ATree root = this.orchard.get(0);
+    ATree current = root;
+    int whole = 0;
+    long[] words = input.words;
+    for (int i = 0; i < input.size; i += 1) {
+      current = current.step(((words[i >>> 6] >>> (63 - (i & 63))) & 1L) == 1L);
+      if (current.emit(output)) {
+        current = root;
+        whole = i + 1;
+      }
+    }
+    if (current != root) {
+      output.append("?");
+    }
+    return whole;
+  }
+}
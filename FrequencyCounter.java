@@ -0,0 +1,590 @@
+import tester.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// This represents a histogram of how often every symbol occurs in some sample data, used to build
+// a Huffman Tree straight from that data. Symbols are the values of chars or the unsigned values
+// of bytes, depending on what was counted. The 256 smallest symbols are counted in a plain array,
+// and every other symbol in an open-addressed hash map with linear probing, so counting never
+// boxes a count or allocates per symbol.
+class FrequencyCounter {
+  long[] small;
+  int[] keys;
+  long[] values;
+  int used;
+  
+  // Constructor makes an empty FrequencyCounter.
+  FrequencyCounter() {
+    this.small = new long[256];
+    this.keys = new int[16];
+    this.values = new long[16];
+    this.used = 0;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.small ...                                        -- long[]
+   * ... this.keys ...                                         -- int[]
+   * ... this.values ...                                       -- long[]
+   * ... this.used ...                                         -- int
+   * METHODS:
+   * ... add(int symbol, long amount) ...                      -- void
+   * ... slot(int[] keys, int symbol) ...                      -- int
+   * ... get(int symbol) ...                                   -- long
+   * ... count(CharSequence text) ...                          -- void
+   * ... countChar(long[] stripes, char c) ...                 -- void
+   * ... count(byte[] data) ...                                -- void
+   * ... count(byte[] data, int start, int end) ...            -- void
+   * ... count(InputStream in) ...                             -- void
+   * ... count(ByteBuffer data) ...                             -- void
+   * ... countParallel(CharSequence text, int parallelism) ... -- void
+   * ... countParallel(byte[] data, int parallelism) ...       -- void
+   * ... merge(FrequencyCounter other) ...                     -- void
+   * ... symbols() ...                                         -- int[]
+   * ... scaledCounts(int[] symbols) ...                       -- int[]
+   * ... toHuffman() ...                                       -- Huffman
+   * ... toByteHuffman() ...                                   -- ByteHuffman
+   */
+  
+  // EFFECT: Adds the given amount to the count of the given symbol.
+  void add(int symbol, long amount) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... symbol ...   -- int
+     * ... amount ...   -- long
+     */
+    if (symbol < 256) {
+      this.small[symbol] += amount;
+      return;
+    }
+    int slot = this.slot(this.keys, symbol);
+    if (this.keys[slot] == 0) {
+      if (2 * (this.used + 1) > this.keys.length) {
+        int[] oldKeys = this.keys;
+        long[] oldValues = this.values;
+        this.keys = new int[oldKeys.length * 2];
+        this.values = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i += 1) {
+          if (oldKeys[i] != 0) {
+            int moved = this.slot(this.keys, oldKeys[i]);
+            this.keys[moved] = oldKeys[i];
+            this.values[moved] = oldValues[i];
+          }
+        }
+        slot = this.slot(this.keys, symbol);
+      }
+      this.keys[slot] = symbol;
+      this.used += 1;
+    }
+    this.values[slot] += amount;
+  }
+  
+  // This method returns the slot of the given array of keys, whose length is a power of two, that
+  // holds the given symbol, or the empty slot where it belongs. Empty slots hold 0, which is never
+  // a key since it is one of the 256 smallest symbols.
+  int slot(int[] keys, int symbol) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... keys ...     -- int[]
+     * ... symbol ...   -- int
+     */
+    int mask = keys.length - 1;
+    int slot = (symbol * 0x9E3779B9) >>> 7 & mask;
+    while (keys[slot] != 0 && keys[slot] != symbol) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+  
+  // This method returns how often the given symbol has been counted.
+  long get(int symbol) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... symbol ...   -- int
+     */
+    if (symbol < 256) {
+      return this.small[symbol];
+    }
+    int slot = this.slot(this.keys, symbol);
+    if (this.keys[slot] == 0) {
+      return 0;
+    }
+    return this.values[slot];
+  }
+  
+  // EFFECT: Counts every char of the given text. Four chars at a time are counted into four 
+  // separate sub-histograms, which are added to this one at the end, so that repeated chars do 
+  // not make every increment wait for the one before it to store the same count. A group of four
+  // holding a char past the 256 smallest is counted one char at a time instead.
+  void count(CharSequence text) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... text ...   -- CharSequence
+     */
+    int n = text.length();
+    long[] stripes = new long[4 * 256];
+    int i = 0;
+    while (i + 4 <= n) {
+      char c0 = text.charAt(i);
+      char c1 = text.charAt(i + 1);
+      char c2 = text.charAt(i + 2);
+      char c3 = text.charAt(i + 3);
+      if ((c0 | c1 | c2 | c3) < 256) {
+        stripes[c0] += 1;
+        stripes[256 + c1] += 1;
+        stripes[512 + c2] += 1;
+        stripes[768 + c3] += 1;
+        i += 4;
+      } else {
+        this.countChar(stripes, c0);
+        i += 1;
+      }
+    }
+    while (i < n) {
+      this.countChar(stripes, text.charAt(i));
+      i += 1;
+    }
+    for (int b = 0; b < 256; b += 1) {
+      this.small[b] += stripes[b] + stripes[256 + b] + stripes[512 + b] + stripes[768 + b];
+    }
+  }
+  
+  // EFFECT: Counts the given char into the first of the given sub-histograms if it is one of the
+  // 256 smallest symbols, and into this FrequencyCounter otherwise.
+  void countChar(long[] stripes, char c) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... stripes ...   -- long[]
+     * ... c ...         -- char
+     */
+    if (c < 256) {
+      stripes[c] += 1;
+    } else {
+      this.add(c, 1);
+    }
+  }
+  
+  // EFFECT: Counts every byte of the given data.
+  void count(byte[] data) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... data ...   -- byte[]
+     */
+    this.count(data, 0, data.length);
+  }
+  
+  // EFFECT: Counts every byte of the given data from the given start up to but not including the
+  // given end, through the sub-histograms of Utils.countBytes.
+  void count(byte[] data, int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... data ...    -- byte[]
+     * ... start ...   -- int
+     * ... end ...     -- int
+     */
+    int[] counts = new Utils().countBytes(data, start, end);
+    for (int b = 0; b < 256; b += 1) {
+      this.small[b] += counts[b];
+    }
+  }
+  
+  // EFFECT: Counts every byte read from the given InputStream until it ends, through a buffer of a
+  // fixed size.
+  void count(InputStream in) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... in ...                                        -- InputStream
+     * METHODS ON PARAMETERS:
+     * ... in.read(byte[] bytes, int off, int len) ...   -- int
+     */
+    byte[] buffer = new byte[65536];
+    int n = in.read(buffer, 0, buffer.length);
+    while (n >= 0) {
+      this.count(buffer, 0, n);
+      n = in.read(buffer, 0, buffer.length);
+    }
+  }
+  
+  // EFFECT: Counts every byte of the given buffer between its position and its limit, reading
+  // them in place, so that a direct or memory-mapped buffer is never copied onto the heap. Like
+  // counting a byte array, every fourth byte goes into the same one of four sub-histograms. The
+  // position of the given buffer is left where it was.
+  void count(ByteBuffer data) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... data ...                 -- ByteBuffer
+     * METHODS ON PARAMETERS:
+     * ... data.position() ...      -- int
+     * ... data.limit() ...         -- int
+     * ... data.get(int index) ...  -- byte
+     */
+    long[] stripes = new long[4 * 256];
+    int end = data.limit();
+    int i = data.position();
+    while (i + 4 <= end) {
+      stripes[data.get(i) & 0xFF] += 1;
+      stripes[256 + (data.get(i + 1) & 0xFF)] += 1;
+      stripes[512 + (data.get(i + 2) & 0xFF)] += 1;
+      stripes[768 + (data.get(i + 3) & 0xFF)] += 1;
+      i += 4;
+    }
+    while (i < end) {
+      stripes[data.get(i) & 0xFF] += 1;
+      i += 1;
+    }
+    for (int b = 0; b < 256; b += 1) {
+      this.small[b] += stripes[b] + stripes[256 + b] + stripes[512 + b] + stripes[768 + b];
+    }
+  }
+  
+  // EFFECT: Counts every char of the given text, splitting it into pieces that are counted into
+  // separate histograms on the given number of threads and merged into this one afterwards.
+  void countParallel(CharSequence text, int parallelism) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... text ...          -- CharSequence
+     * ... parallelism ...   -- int
+     */
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      this.merge(pool.invoke(new CountTask(text, null, 0, text.length(),
+          Math.max(1 << 16, text.length() / (4 * parallelism)))));
+    } finally {
+      pool.shutdown();
+    }
+  }
+  
+  // EFFECT: Counts every byte of the given data, splitting it into pieces that are counted into
+  // separate histograms on the given number of threads and merged into this one afterwards.
+  void countParallel(byte[] data, int parallelism) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... data ...          -- byte[]
+     * ... parallelism ...   -- int
+     */
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      this.merge(pool.invoke(new CountTask(null, data, 0, data.length,
+          Math.max(1 << 16, data.length / (4 * parallelism)))));
+    } finally {
+      pool.shutdown();
+    }
+  }
+  
+  // EFFECT: Adds every count of the given FrequencyCounter to this one.
+  void merge(FrequencyCounter other) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... other ...          -- FrequencyCounter
+     * FIELDS OF PARAMETERS:
+     * ... other.small ...    -- long[]
+     * ... other.keys ...     -- int[]
+     * ... other.values ...   -- long[]
+     */
+    for (int i = 0; i < 256; i += 1) {
+      this.small[i] += other.small[i];
+    }
+    for (int i = 0; i < other.keys.length; i += 1) {
+      if (other.keys[i] != 0) {
+        this.add(other.keys[i], other.values[i]);
+      }
+    }
+  }
+  
+  // This method returns every symbol that has been counted at least once, in ascending order.
+  int[] symbols() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    int[] symbols = new int[256 + this.used];
+    int n = 0;
+    for (int i = 0; i < 256; i += 1) {
+      if (this.small[i] > 0) {
+        symbols[n] = i;
+        n += 1;
+      }
+    }
+    int start = n;
+    for (int i = 0; i < this.keys.length; i += 1) {
+      if (this.keys[i] != 0 && this.values[i] > 0) {
+        symbols[n] = this.keys[i];
+        n += 1;
+      }
+    }
+    Arrays.sort(symbols, start, n);
+    return Arrays.copyOf(symbols, n);
+  }
+  
+  // This method returns the counts of the given symbols, scaled down when needed so that they add
+  // up to no more than the largest int, since every Node of a Huffman Tree holds the sum of its
+  // Leaves in an int. Scaling keeps every count at 1 or more.
+  int[] scaledCounts(int[] symbols) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... symbols ...   -- int[]
+     */
+    long total = 0;
+    for (int i = 0; i < symbols.length; i += 1) {
+      total += this.get(symbols[i]);
+    }
+    long divisor = 1;
+    while (total / divisor + symbols.length > Integer.MAX_VALUE) {
+      divisor *= 2;
+    }
+    int[] counts = new int[symbols.length];
+    for (int i = 0; i < symbols.length; i += 1) {
+      counts[i] = (int) Math.max(1, this.get(symbols[i]) / divisor);
+    }
+    return counts;
+  }
+  
+  // This method builds a Huffman Tree over every char that has been counted, each one a symbol of
+  // its own, with the counts as their frequencies.
+  Huffman toHuffman() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    int[] symbols = this.symbols();
+    int[] counts = this.scaledCounts(symbols);
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < symbols.length; i += 1) {
+      letters.add(String.valueOf((char) symbols[i]));
+      numbers.add(counts[i]);
+    }
+    return new Huffman(letters, numbers);
+  }
+  
+  // This method builds a ByteHuffman over every byte that has been counted, with the counts as
+  // their frequencies.
+  ByteHuffman toByteHuffman() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.used > 0) {
+      throw new IllegalStateException("Symbols above 255 cannot be bytes.");
+    }
+    int[] symbols = this.symbols();
+    int[] counts = this.scaledCounts(symbols);
+    int[] byByte = new int[256];
+    for (int i = 0; i < symbols.length; i += 1) {
+      byByte[symbols[i]] = counts[i];
+    }
+    return new ByteHuffman(byByte);
+  }
+}
+
+// This represents a piece of the text or data counted by FrequencyCounter.countParallel, which
+// splits itself in half until it is small enough to be counted into a histogram of its own.
+class CountTask extends RecursiveTask<FrequencyCounter> {
+  private static final long serialVersionUID = 1L;
+  CharSequence text;
+  byte[] data;
+  int lo;
+  int hi;
+  int threshold;
+  
+  // Constructor takes in either the text or the data to count, leaving the other null, and the
+  // range of it to count, from lo up to but not including hi.
+  CountTask(CharSequence text, byte[] data, int lo, int hi, int threshold) {
+    this.text = text;
+    this.data = data;
+    this.lo = lo;
+    this.hi = hi;
+    this.threshold = threshold;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.text ...        -- CharSequence
+   * ... this.data ...        -- byte[]
+   * ... this.lo ...          -- int
+   * ... this.hi ...          -- int
+   * ... this.threshold ...   -- int
+   * METHODS:
+   * ... compute() ...        -- FrequencyCounter
+   */
+  
+  // This method counts this piece into a new FrequencyCounter, or splits it in half, counts both
+  // halves in parallel and merges their histograms.
+  protected FrequencyCounter compute() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.hi - this.lo <= this.threshold) {
+      FrequencyCounter counter = new FrequencyCounter();
+      if (this.text != null) {
+        counter.count(this.text.subSequence(this.lo, this.hi));
+      } else {
+        counter.count(this.data, this.lo, this.hi);
+      }
+      return counter;
+    }
+    int mid = (this.lo + this.hi) >>> 1;
+    CountTask left = new CountTask(this.text, this.data, this.lo, mid, this.threshold);
+    CountTask right = new CountTask(this.text, this.data, mid, this.hi, this.threshold);
+    left.fork();
+    FrequencyCounter counted = right.compute();
+    counted.merge(left.join());
+    return counted;
+  }
+}
+
+class ExamplesFrequencyCounter {
+  
+  //tests that the add, slot and get methods work as expected
+  void testAddAndGet(Tester t) {
+    FrequencyCounter counter = new FrequencyCounter();
+    counter.add('a', 3);
+    counter.add(1000, 2);
+    counter.add(1000, 5);
+    t.checkExpect(counter.get('a'), 3L);
+    t.checkExpect(counter.get(1000), 7L);
+    t.checkExpect(counter.get(2000), 0L);
+    t.checkExpect(counter.get(0), 0L);
+    t.checkExpect(counter.used, 1);
+    for (int i = 256; i < 1256; i += 1) {
+      counter.add(i, i);
+    }
+    t.checkExpect(counter.used, 1000);
+    t.checkExpect(counter.keys.length, 2048);
+    t.checkExpect(counter.get(1000), 1007L);
+    t.checkExpect(counter.get(1255), 1255L);
+    int[] keys = new int[] {0, 0, 0, 0};
+    t.checkExpect(counter.slot(keys, 300) < 4, true);
+  }
+  
+  //tests that the count methods work as expected
+  void testCount(Tester t) throws IOException {
+    FrequencyCounter counter = new FrequencyCounter();
+    counter.count("abcab\u4E2D\u4E2D");
+    t.checkExpect(counter.get('a'), 2L);
+    t.checkExpect(counter.get('c'), 1L);
+    t.checkExpect(counter.get('\u4E2D'), 2L);
+    counter.count(new byte[] {97, 97, (byte) 200});
+    t.checkExpect(counter.get('a'), 4L);
+    t.checkExpect(counter.get(200), 1L);
+    counter.count(new byte[] {97, 97, 97, 98, 99}, 1, 4);
+    t.checkExpect(counter.get('a'), 6L);
+    t.checkExpect(counter.get('b'), 3L);
+    counter.count("ab\u4E2Dcabcaa");
+    t.checkExpect(counter.get('a'), 10L);
+    t.checkExpect(counter.get('\u4E2D'), 3L);
+    t.checkExpect(counter.get('c'), 3L);
+    
+    byte[] data = new byte[200000];
+    for (int i = 0; i < data.length; i += 1) {
+      data[i] = (byte) (i % 3);
+    }
+    FrequencyCounter streamed = new FrequencyCounter();
+    streamed.count(new ByteArrayInputStream(data));
+    t.checkExpect(streamed.get(0), 66667L);
+    t.checkExpect(streamed.get(2), 66666L);
+    
+    ByteBuffer buffer = ByteBuffer.allocateDirect(6);
+    buffer.put(new byte[] {5, 5, 6, 7, 7, 7});
+    buffer.position(1);
+    buffer.limit(5);
+    FrequencyCounter buffered = new FrequencyCounter();
+    buffered.count(buffer);
+    t.checkExpect(buffered.get(5), 1L);
+    t.checkExpect(buffered.get(6), 1L);
+    t.checkExpect(buffered.get(7), 2L);
+    t.checkExpect(buffer.position(), 1);
+  }
+  
+  //tests that the countParallel methods and CountTask work as expected
+  void testCountParallel(Tester t) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 500000; i += 1) {
+      text.append((char) ('a' + (i * 7) % 26));
+      if (i % 1000 == 0) {
+        text.append('\u03BB');
+      }
+    }
+    FrequencyCounter serial = new FrequencyCounter();
+    serial.count(text);
+    FrequencyCounter parallel = new FrequencyCounter();
+    parallel.countParallel(text, 4);
+    t.checkExpect(parallel.small, serial.small);
+    t.checkExpect(parallel.get('\u03BB'), 500L);
+    
+    byte[] data = new byte[1000000];
+    for (int i = 0; i < data.length; i += 1) {
+      data[i] = (byte) (i * 31 + i / 7);
+    }
+    FrequencyCounter serialBytes = new FrequencyCounter();
+    serialBytes.count(data);
+    FrequencyCounter parallelBytes = new FrequencyCounter();
+    parallelBytes.countParallel(data, 3);
+    t.checkExpect(parallelBytes.small, serialBytes.small);
+    
+    FrequencyCounter task = new CountTask(null, data, 10, 20, 4).compute();
+    FrequencyCounter expected = new FrequencyCounter();
+    expected.count(Arrays.copyOfRange(data, 10, 20));
+    t.checkExpect(task.small, expected.small);
+  }
+  
+  //tests that the merge method works as expected
+  void testMerge(Tester t) {
+    FrequencyCounter one = new FrequencyCounter();
+    one.count("aab\u4E2D");
+    FrequencyCounter two = new FrequencyCounter();
+    two.count("bc\u4E2D\u4E2E");
+    one.merge(two);
+    t.checkExpect(one.get('a'), 2L);
+    t.checkExpect(one.get('b'), 2L);
+    t.checkExpect(one.get('\u4E2D'), 2L);
+    t.checkExpect(one.get('\u4E2E'), 1L);
+    t.checkExpect(two.get('a'), 0L);
+  }
+  
+  //tests that the symbols and scaledCounts methods work as expected
+  void testSymbolsAndScaledCounts(Tester t) {
+    FrequencyCounter counter = new FrequencyCounter();
+    counter.count("\u4E2Ezb\u4E2Dzz");
+    t.checkExpect(counter.symbols(), new int[] {'b', 'z', '\u4E2D', '\u4E2E'});
+    t.checkExpect(counter.scaledCounts(counter.symbols()), new int[] {1, 3, 1, 1});
+    FrequencyCounter huge = new FrequencyCounter();
+    huge.add('a', 3000000000L);
+    huge.add('b', 1000000000L);
+    huge.add('c', 1);
+    int[] scaled = huge.scaledCounts(huge.symbols());
+    t.checkExpect(scaled, new int[] {1500000000, 500000000, 1});
+    t.checkExpect(new FrequencyCounter().symbols(), new int[0]);
+  }
+  
+  //tests that the toHuffman method works as expected
+  void testToHuffman(Tester t) {
+    FrequencyCounter counter = new FrequencyCounter();
+    String text = "the quick brown fox jumps over the lazy dog \u00E9\u4E2D";
+    counter.count(text);
+    Huffman huff = counter.toHuffman();
+    t.checkExpect(huff.decode(huff.encodeBits(text)), text);
+    t.checkExpect(huff.table.lengths[huff.table.slotOf(' ')] <= 3, true);
+    FrequencyCounter single = new FrequencyCounter();
+    single.count("aaa");
+    t.checkException(new IllegalArgumentException("Lists don't meet input criteria."),
+        single, "toHuffman");
+  }
+  
+  //tests that the toByteHuffman method works as expected
+  void testToByteHuffman(Tester t) {
+    FrequencyCounter counter = new FrequencyCounter();
+    byte[] data = new byte[] {1, 1, 1, 2, 3, (byte) 250};
+    counter.count(data);
+    ByteHuffman huff = counter.toByteHuffman();
+    t.checkExpect(huff.decode(huff.encode(data)), data);
+    t.checkExpect(huff.lengths[1], 1);
+    FrequencyCounter wide = new FrequencyCounter();
+    wide.count("\u4E2D");
+    t.checkException(new IllegalStateException("Symbols above 255 cannot be bytes."),
+        wide, "toByteHuffman");
+  }
+}
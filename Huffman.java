@@ -1,35 +1,11 @@
 import tester.*;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-
-// This represents a comparator object, used to compare two generic types;
-// compare the second one with respect to the first one.  
-interface IComparator<T> {
-  // This method compares the two given generic types, comparing the second one relative to the 
-  // first one. 
-  int compare(T one, T two);
-}
-
-// This comparator object is used to compare two ATree objects. 
-class TreeCompare implements IComparator<ATree> {
-  
-  /* TEMPLATE
-   * METHODS:
-   * ... compare(ATree one, ATree two) ...   -- int
-   */
-  
-  // This method compares the two provided ATrees in terms of their values of frequency. 
-  public int compare(ATree one, ATree two) {
-    /* TEMPLATE
-     * PARAMETERS:
-     * ... one ...        -- ATree
-     * ... two ...        -- ATree
-     * FIELDS ON PARAMETERS:
-     * ... one.freq ...   -- int
-     * ... two.freq ...   -- int
-     */
-    return one.freq - two.freq;
-  }
-}
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 // This represents a Huffman Tree, constructed by an ArrayList of letters and their respective
 // frequencies that are subsequently encoded into a structure Forest, that represents the entire
@@ -38,23 +14,59 @@ class Huffman {
   ArrayList<String> letters;
   ArrayList<Integer> numbers;
   Forest f;
+  CodeTable table;
+  DecodeTable decoder;
+  HuffmanMetrics metrics;
   
   // Constructor takes in an ArrayList of symbols to encode and their respective frequencies in 
-  // an ArrayList of integers. It uses these parameters to create a Huffman Tree. 
+  // an ArrayList of integers. It uses these parameters to create a Huffman Tree. Symbols of equal
+  // frequency are combined in the order they were given in, which is not always the order the
+  // selection sort used to leave them in, so unsorted input with ties can get different codewords
+  // than it used to, of the same lengths in total; a, b and c with frequencies 2, 2 and 1 used to
+  // give a the one-bit codeword and now give it to b. 
   Huffman(ArrayList<String> letters, ArrayList<Integer> numbers) {
+    this(letters, numbers, null);
+  }
+  
+  // Constructor creates a Huffman Tree in the same way, which records how long it took to build 
+  // and everything it encodes and decodes in the given HuffmanMetrics, whether one string at a 
+  // time, in batches, in blocks or in streams. Blocks or streams that cannot be decoded whole 
+  // count as truncated decodes. Without metrics, given as null, nothing is recorded. 
+  Huffman(ArrayList<String> letters, ArrayList<Integer> numbers, HuffmanMetrics metrics) {
     // Exception thrown if two inputted arraylists are not of the same length or, if the 
     // arraylist of letters is of size less than two (because then it would be illogical to make
     // use of a Huffman Tree). 
     if ((letters.size() != numbers.size()) || letters.size() < 2) {
       throw new IllegalArgumentException("Lists don't meet input criteria.");
     }
+    long start = 0;
+    if (metrics != null) {
+      start = System.nanoTime();
+    }
     this.letters = letters;
     this.numbers = numbers;
     Forest encodedTree = new Forest(new ArrayList<ATree>());
     encodedTree.populateTree(letters, numbers);
-    new Utils().sort(encodedTree.orchard, new TreeCompare());
-    encodedTree.makeHuffmanTree();
+    if (new Utils().isSorted(encodedTree.orchard, new TreeCompare())) {
+      encodedTree.makeHuffmanTreeQueues();
+    } else {
+      encodedTree.makeHuffmanTreeHeap();
+    }
     this.f = encodedTree;
+    ATree root = encodedTree.orchard.get(0);
+    // A codeword longer than 64 bits does not fit into the code table, which happens with 
+    // frequencies such as negative ones, so such a tree encodes and decodes by walking the tree. 
+    if (root.height() <= 64) {
+      this.table = new CodeTable(root);
+      this.decoder = new DecodeTable(root, this.table, 10);
+    } else {
+      this.table = null;
+      this.decoder = null;
+    }
+    this.metrics = metrics;
+    if (metrics != null) {
+      metrics.recordBuild(letters, numbers, this.table, System.nanoTime() - start);
+    }
   }
   
   /* TEMPLATE
@@ -62,436 +74,442 @@ class Huffman {
    * ... this.letters ...                                    -- ArrayList<String>
    * ... this.numbers ...                                    -- ArrayList<Integer>
    * ... this.f ...                                          -- Forest
+   * ... this.table ...                                      -- CodeTable
+   * ... this.decoder ...                                    -- DecodeTable
+   * ... this.metrics ...                                    -- HuffmanMetrics
    * METHODS:
    * ... encode(String input) ...                            -- ArrayList<Boolean>
+   * ... encodeBits(String input) ...                        -- BitBuffer
+   * ... encodeParallel(String input, 
+   *                    int blockSize, 
+   *                    ForkJoinPool pool) ...               -- BlockEncoding
+   * ... encodeBatch(String[] messages, MessageBatch into) ...   -- MessageBatch
+   * ... encodeInterleaved(String input) ...                 -- InterleavedEncoding
    * ... decode(ArrayList<Boolean> input) ...                -- String
+   * ... decode(BitBuffer input) ...                         -- String
+   * ... decodeBatch(MessageBatch batch, 
+   *                 StringBuilder text, int[] ends) ...     -- void
+   * ... decodeParallel(BlockEncoding input, 
+   *                    ForkJoinPool pool) ...               -- String
+   * ... decodeRange(BlockEncoding input, int from, int to) ...   -- String
+   * ... decodeInterleaved(InterleavedEncoding input) ...    -- String
+   * ... canonical() ...                                     -- CanonicalCode
+   * ... canonical(int maxLength) ...                        -- CanonicalCode
+   * ... flatten() ...                                       -- FlatTree
+   * ... toBits(String input) ...                            -- BitBuffer
+   * ... requireTables() ...                                 -- void
+   * ... unwrap(IllegalArgumentException e) ...              -- IllegalArgumentException
    * METHODS ON FIELDS:
    * ... this.f.toBoolean(String input) ...                  -- ArrayList<Boolean>
-   * ... this.f.decodingTree(ArrayList<Boolean> input) ...   -- String
+   * ... this.decoder.decode(BitBuffer input) ...           -- String
+   * ... this.table.toBits(String input) ...                 -- BitBuffer
+   * ... this.metrics.recordEncode(int chars, int bits, long nanos) ...   -- void
+   * ... this.metrics.recordDecode(int bits, int chars, 
+   *                               boolean truncated, long nanos) ...   -- void
    */
   
   // This method takes in an input in the form of a string to then "encode" the given string, based
-  // on this Huffman tree. The method traverses this Huffman Tree to perform this encoding, saving
-  // its steps in an arraylist of instructions and returning it, depicting the encoded string 
-  // in an arraylist of booleans. 
+  // on this Huffman tree. It is an adapter over encodeBits that unpacks the encoded bits into an 
+  // arraylist of instructions, depicting the encoded string in an arraylist of booleans. 
   ArrayList<Boolean> encode(String input) {
     /* TEMPLATE
      * PARAMETERS:
      * ... input ...   -- String
      */
-    return this.f.toBoolean(input);
+    return this.encodeBits(input).toBooleans();
   }
   
-  // This method is quite the inverse of the encode method. This method uses the provided arraylist
-  // of booleans and the given arraylist serves as instructions to traverse this Huffman Tree. 
-  // After decoding process, where it has mapped the list of boolean values to their respective 
-  // character values, a collation of these character values are returned as a string. 
-  String decode(ArrayList<Boolean> input) {
+  // This method "encodes" the given string based on this Huffman tree into a packed BitBuffer. 
+  // Every symbol is looked up in the code table that was precomputed from this Huffman Tree and 
+  // its codeword is appended to the buffer, using a single bit of storage per encoded bit. A 
+  // tree without a code table encodes by searching the tree for every symbol instead. 
+  BitBuffer encodeBits(String input) {
     /* TEMPLATE
-     * ... input ...   -- ArrayList<Boolean>
+     * PARAMETERS:
+     * ... input ...   -- String
      */
-    ArrayList<Boolean> version2 = new ArrayList<Boolean>();
-    
-    for (boolean item : input) {
-      version2.add(item);
+    if (this.metrics == null) {
+      return this.toBits(input);
     }
-    
-    return this.f.decodingTree(version2);
-  }
-}
-
-
-// This interface represents an ITree, which is one of:
-// - Node
-// - Leaf
-// An ITree repesents either an encoded value available in the Huffman Tree (leaf) or a collection 
-// of such encoded values(subtree). 
-interface ITree {
-  
-}
-
-// The class serves as an abstracted representation for an ITree, containing the value associated
-// with any ITree. 
-abstract class ATree implements ITree {
-  int freq;
-  
-  // Constructor
-  ATree(int freq) {
-    this.freq = freq;
+    long start = System.nanoTime();
+    BitBuffer bits;
+    try {
+      bits = this.toBits(input);
+    } catch (IllegalArgumentException e) {
+      this.metrics.unknownSymbols.increment();
+      throw e;
+    }
+    this.metrics.recordEncode(input.length(), bits.size, System.nanoTime() - start);
+    return bits;
   }
   
-  /* TEMPLATE
-   * FIELDS:
-   * ... this.freq ...                                                      -- int
-   * METHODS:
-   * ... isSmallerFreq(ATree other) ...                                     -- boolean
-   * ... find(String c) ...                                                 -- boolean
-   * ... updateConverted(ArrayList<Boolean> converted, String letter) ...   -- void
-   * ... decodeThisTree(ArrayList<Boolean> input, Forest f) ...             -- String
-   */ 
-  
-  // This method checks whether the frequency of this ATree is smaller than the frequency of the 
-  // given ATree. 
-  boolean isSmallerFreq(ATree other) {
+  // This method encodes the given string through the code table of this Huffman tree, or through
+  // the tree itself when it has no code table. 
+  BitBuffer toBits(String input) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... other ...        -- ATree
-     * FIELDS OF PARAMETERS:
-     * ... other.freq ...   -- int
+     * ... input ...   -- String
      */
-    return (this.freq < other.freq);
-  }
-  
-  // This method is meant to check whether the given string exists in this particular ATree or not.
-  abstract boolean find(String c);
-  
-  // This method is meant to update the arraylist of booleans based on where the encoded letter is
-  // located in the Huffman Tree. 
-  abstract void updateConverted(ArrayList<Boolean> converted, String letter);
-  
-  // This method is meant to use the given arraylist of booleans as instructions to locate what
-  // is meant to be decoded. This method also keeps track of the current Forest that is being 
-  // navigated. 
-  abstract String decodeThisTree(ArrayList<Boolean> input, Forest f);
-}
-
-// This represents a Node in an ATree, that is a combination of two ITrees. 
-class Node extends ATree {
-  ATree left;
-  ATree right;
-  
-  // Constructor
-  Node(int total, ATree left, ATree right) {
-    super(total);
-    this.left = left;
-    this.right = right;
+    if (this.table == null) {
+      return new BitBuffer(this.f.toBoolean(input));
+    }
+    return this.table.toBits(input);
   }
   
-  /* TEMPLATE
-   * FIELDS:
-   * ... this.freq ...                                                                 -- int
-   * ... this.left ...                                                                 -- ATree
-   * ... this.right ...                                                                -- ATree
-   * METHODS:
-   * ... isSmallerFreq(ATree other) ...                                                -- boolean
-   * ... find(String c) ...                                                            -- boolean
-   * ... updateConverted(ArrayList<Boolean> converted, String letter) ...              -- void
-   * ... decodeThisTree(ArrayList<Boolean> input, Forest f) ...                        -- String
-   * METHODS ON FIELDS:
-   * ... this.left.find(String c) ...                                                  -- boolean
-   * ... this.right.find(String c) ...                                                 -- boolean
-   * ... this.left.updateConverted(ArrayList<Boolean> converted, String letter) ...    -- void
-   * ... this.right.updateConverted(ArrayList<Boolean> converted, String letter) ...   -- void
-   * ... this.right.decodeThisTree(ArrayList<Boolean> input, Forest f) ...             -- String
-   * ... this.left.decodeThisTree(ArrayList<Boolean> input, Forest f) ...              -- String
-   */ 
-  
-  // This method checks whether or not the given string is present in this Node or not. More
-  // specifically, it checks whether or not the given string is present in the two ITrees that
-  // constitute the Node. 
-  public boolean find(String c) {
+  // EFFECT: Throws an exception if this Huffman tree has no code table and lookup tables, which 
+  // every way of encoding and decoding other than encodeBits and decode needs. 
+  void requireTables() {
     /* TEMPLATE
-     * PARAMETERS:
-     * ... c ...   -- String
+     * Template: Same as class template.
      */
-    return this.left.find(c) || this.right.find(c);
-    
+    if (this.table == null) {
+      throw new IllegalStateException(
+          "This tree has codewords longer than 64 bits, so it has no code table.");
+    }
   }
   
-  // EFFECT: Uses this Node to modify the given arraylist of booleans in the process of encoding 
-  // and forming a resultant arraylist of booleans that consists the encoded values. 
-  public void updateConverted(ArrayList<Boolean> converted, String letter) {
+  // This method encodes the given messages one after another into the given MessageBatch, 
+  // replacing the messages it held, and returns it, instead of making a BitBuffer per message. 
+  MessageBatch encodeBatch(String[] messages, MessageBatch into) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... converted ...                 -- ArrayList<Boolean>
-     * ... letter ...                    -- String
-     * METHODS ON PARAMETERS:
-     * ... converted.add(Object o) ...   -- boolean
+     * ... messages ...   -- String[]
+     * ... into ...       -- MessageBatch
      */
-    if (this.left.find(letter)) {
-      converted.add(false);
-      this.left.updateConverted(converted, letter);
-    } else {
-      converted.add(true);
-      this.right.updateConverted(converted, letter);
+    this.requireTables();
+    long start = 0;
+    if (this.metrics != null) {
+      start = System.nanoTime();
     }
-  } 
+    try {
+      into.encode(this.table, messages);
+    } catch (IllegalArgumentException e) {
+      if (this.metrics != null) {
+        this.metrics.unknownSymbols.increment();
+      }
+      throw e;
+    }
+    if (this.metrics != null) {
+      int chars = 0;
+      for (int i = 0; i < messages.length; i += 1) {
+        chars += messages[i].length();
+      }
+      this.metrics.recordEncode(chars, into.bits.size, System.nanoTime() - start);
+    }
+    return into;
+  }
   
-  // This method uses the user-inputted arraylist of booleans to traverse through this Node, 
-  // in order to reach the characters at the leaves of the Huffman Tree, during the process of
-  // decoding. 
-  public String decodeThisTree(ArrayList<Boolean> input, Forest f) {
+  // This method encodes the given string in blocks of the given number of symbols, which are 
+  // encoded at the same time on the given ForkJoinPool, all reading the same code table. The 
+  // blocks are then joined into one BlockEncoding that records where every block starts. 
+  BlockEncoding encodeParallel(String input, int blockSize, ForkJoinPool pool) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... input ...                     -- ArrayList<Boolean>
-     * ... f ...                         -- Forest
-     * METHODS ON PARAMETERS:
-     * ... input.size() ...              -- int
-     * ... input.remove(int index) ...   -- Object o
+     * ... input ...       -- String
+     * ... blockSize ...   -- int
+     * ... pool ...        -- ForkJoinPool
      */
-    if (input.size() == 0) {
-      return "?";
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("Blocks must hold at least one symbol.");
     }
-    boolean direction = input.remove(0);
-    if (direction) {
-      return this.right.decodeThisTree(input, f);
-    } else {
-      return this.left.decodeThisTree(input, f);
+    this.requireTables();
+    if (this.table.multiChar) {
+      throw new IllegalArgumentException("Blocks can only be made of single-character symbols.");
     }
+    long start = 0;
+    if (this.metrics != null) {
+      start = System.nanoTime();
+    }
+    int count = (int) (((long) input.length() + blockSize - 1) / blockSize);
+    BitBuffer[] blocks = new BitBuffer[count];
+    try {
+      pool.invoke(new EncodeBlocksTask(this.table, input, blockSize, blocks, 0, count));
+    } catch (IllegalArgumentException e) {
+      if (this.metrics != null) {
+        this.metrics.unknownSymbols.increment();
+      }
+      throw this.unwrap(e);
+    }
+    BlockEncoding encoded = new BlockEncoding(blockSize, input.length(), blocks);
+    if (this.metrics != null) {
+      this.metrics.recordEncode(input.length(), encoded.bits.size, System.nanoTime() - start);
+    }
+    return encoded;
   }
-}
-
-// This method represents a Leaf in an ATree, that holds an encoded character and its respective
-// frequency. 
-class Leaf extends ATree {
-  String val;
-  
-  // Constructor
-  Leaf(String val, int freq) {
-    super(freq);
-    this.val = val;
-  }
-  
-  /* TEMPLATE
-   * FIELDS:
-   * ... this.freq ...                                                      -- int
-   * ... this.val ...                                                       -- String
-   * METHODS:
-   * ... isSmallerFreq(ATree other) ...                                     -- boolean
-   * ... find(String c) ...                                                 -- boolean
-   * ... updateConverted(ArrayList<Boolean> converted, String letter) ...   -- void
-   * ... decodeThisTree(ArrayList<Boolean> input, Forest f) ...             -- String
-   * METHODS ON FIELDS:
-   * ... this.val.equals(String str) ...                                    -- boolean
-   */ 
   
-  // This method checks whether the given string is the same as this Leaf's encoded symbol. If 
-  // yes, then the given string has been found in this Huffman Tree!
-  public boolean find(String c) {
+  // This method returns the exception that a task on a ForkJoinPool threw, given the one the pool
+  // rethrew. A task that failed on another thread is rethrown wrapped in a new exception of the
+  // same type, whose message is the whole of the original one, and once more for every thread it
+  // was joined across, so the original is returned instead, reading the same as when the work 
+  // is done on the calling thread. 
+  IllegalArgumentException unwrap(IllegalArgumentException e) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... c ...   -- String
+     * ... e ...   -- IllegalArgumentException
      */
-    return this.val.equals(c);
+    IllegalArgumentException original = e;
+    while (original.getCause() instanceof IllegalArgumentException) {
+      original = (IllegalArgumentException) original.getCause();
+    }
+    return original;
   }
   
-  // EFFECT: This simply marks the end of traversal during the process of encoding one letter.
-  public void updateConverted(ArrayList<Boolean> converted, String letter) {
+  // This method encodes the given string with this Huffman tree as four streams, each holding a 
+  // quarter of its symbols, one after another in a single BitBuffer, recording where every 
+  // stream starts. The streams decode faster than a single encoding, since decoding them can 
+  // work on the four at once. 
+  InterleavedEncoding encodeInterleaved(String input) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... converted ...   -- ArrayList<Boolean>
-     * ... letter ...      -- String
+     * ... input ...   -- String
      */
-    return;
+    this.requireTables();
+    if (this.table.multiChar) {
+      throw new IllegalArgumentException(
+          "Interleaved streams can only be made of single-character symbols.");
+    }
+    long began = 0;
+    if (this.metrics != null) {
+      began = System.nanoTime();
+    }
+    int[] offsets = new int[InterleavedEncoding.STREAMS + 1];
+    int quarter = (int) (((long) input.length() + InterleavedEncoding.STREAMS - 1) 
+        / InterleavedEncoding.STREAMS);
+    BitBuffer bits = new BitBuffer(input.length() * 2);
+    try {
+      for (int k = 0; k < InterleavedEncoding.STREAMS; k += 1) {
+        int start = (int) Math.min((long) k * quarter, input.length());
+        int end = (int) Math.min((long) (k + 1) * quarter, input.length());
+        this.table.appendTo(bits, input, start, end);
+        offsets[k + 1] = bits.size;
+      }
+    } catch (IllegalArgumentException e) {
+      if (this.metrics != null) {
+        this.metrics.unknownSymbols.increment();
+      }
+      throw e;
+    }
+    if (this.metrics != null) {
+      this.metrics.recordEncode(input.length(), bits.size, System.nanoTime() - began);
+    }
+    return new InterleavedEncoding(input.length(), offsets, bits);
   }
   
-  // This method adds the value of this Leaf's encoded symbol to the string output of decoding in
-  // the decoding process and simply resets the process to start again at the top of the Huffman
-  // Tree with the remaining arraylist of booleans(instructions). 
-  public String decodeThisTree(ArrayList<Boolean> input, Forest f) {
+  // This method is quite the inverse of the encode method. This method uses the provided arraylist
+  // of booleans and the given arraylist serves as instructions to traverse this Huffman Tree. 
+  // After decoding process, where it has mapped the list of boolean values to their respective 
+  // character values, a collation of these character values are returned as a string. 
+  String decode(ArrayList<Boolean> input) {
     /* TEMPLATE
-     * PARAMETERS:
-     * ... input ...                                      -- ArrayList<Boolean>
-     * ... f ...                                          -- Forest
-     * METHODS ON PARAMETERS:
-     * ... f.decodingTree(ArrayList<Boolean> input) ...   -- String
+     * ... input ...   -- ArrayList<Boolean>
      */
-    return this.val + f.decodingTree(input);
-  }
-}
-
-// This structurally represents the Huffman Tree. 
-class Forest {
-  ArrayList<ATree> orchard;
-  
-  // Constructor
-  Forest(ArrayList<ATree> orchard) {
-    this.orchard = orchard;
+    return this.decode(new BitBuffer(input));
   }
   
-  /* TEMPLATE
-   * FIELDS:
-   * ... this.orchard ...                                -- ArrayList<ATree>
-   * METHODS:
-   * ... populateTree(ArrayList<String> letters, 
-   *                  ArrayList<Integer> numbers) ...    -- void
-   * ... makeHuffmanTree() ...                           -- void
-   * ... insert(ATree element) ...                       -- void
-   * ... toBoolean(String input) ...                     -- ArrayList<Boolean>
-   * ... decodingTree(ArrayList<Boolean> input) ...      -- String
-   * METHODS ON FIELDS:
-   * ... this.orchard.add(Atree object) ...              -- boolean
-   * ... this.orchard.size() ...                         -- int
-   * ... this.orchard.remove(int index) ...              -- ATree
-   * ... this.orchard.get(int index) ...                 -- ATree
-   * ... this.orchard.add(int index, ATree object) ...   -- void
-   */
-  
-  // EFFECT: Modifies this Forest to be filled up with the given letters/symbols 
-  // and their respective frequencies. 
-  void populateTree(ArrayList<String> letters, ArrayList<Integer> numbers) {
+  // This method decodes the given packed BitBuffer in the same way as decoding an arraylist of 
+  // booleans holding the same bits, resolving several bits at a time through the lookup tables
+  // built from this Huffman Tree. A tree without lookup tables is walked one bit at a time 
+  // instead. Either way, the decode counts as truncated in the metrics when the bits stop short 
+  // of a complete codeword. 
+  String decode(BitBuffer input) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... letters ...                  -- ArrayList<String>
-     * ... numbers ...                  -- ArrayList<Integer>
-     * METHODS ON PARAMETERS:
-     * ... letters.size() ...           -- int
-     * ... letters.get(int index) ...   -- String
-     * ... numbers.get(int index) ...   -- Integer
+     * ... input ...   -- BitBuffer
      */
-    for (int i = 0 ; i < letters.size(); i += 1) {
-      ATree leaf = new Leaf(letters.get(i), numbers.get(i));
-      this.orchard.add(leaf);
+    if (this.metrics == null && this.decoder == null) {
+      return this.f.decodeBits(input);
+    }
+    if (this.metrics == null) {
+      return this.decoder.decode(input);
     }
+    long start = System.nanoTime();
+    StringBuilder output = new StringBuilder();
+    int whole;
+    if (this.decoder == null) {
+      whole = this.f.decodeInto(input, output);
+    } else {
+      whole = this.decoder.decodeInto(input, 0, input.size, output);
+    }
+    this.metrics.recordDecode(input.size, output.length(), whole < input.size, 
+        System.nanoTime() - start);
+    return output.toString();
   }
   
-  // EFFECT: Modifies this Forest to construct itself into a Huffman Tree-like structure from 
-  // its constituent character and frequency values. 
-  void makeHuffmanTree() {
+  // EFFECT: Decodes every message of the given MessageBatch, appending them one after another to
+  // the given StringBuilder and recording where every message ends in the given array. 
+  void decodeBatch(MessageBatch batch, StringBuilder text, int[] ends) {
     /* TEMPLATE
-     * Template: Same as class template.
+     * PARAMETERS:
+     * ... batch ...   -- MessageBatch
+     * ... text ...    -- StringBuilder
+     * ... ends ...    -- int[]
      */
-    while (this.orchard.size() > 1) {
-      ATree left = this.orchard.remove(0);
-      ATree right = this.orchard.remove(0);
-      
-      ATree combined = new Node(left.freq + right.freq, left, right);
-      
-      this.insert(combined);
+    this.requireTables();
+    if (this.metrics == null) {
+      batch.decode(this.decoder, text, ends);
+      return;
     }
+    long start = System.nanoTime();
+    int before = text.length();
+    boolean truncated = batch.decode(this.decoder, text, ends);
+    this.metrics.recordDecode(batch.offsets[batch.count], text.length() - before, truncated, 
+        System.nanoTime() - start);
   }
   
-  // EFFECT: Modifies this Forest by adding an ATree into this Forest's arraylist of ATrees, 
-  // without disturbing the sorted arraylist of ATrees by adding in the correct place - the 
-  // deepest point that retains ascending relation. 
-  void insert(ATree element) {
+  // This method decodes the given BlockEncoding made with this Huffman tree, decoding its blocks
+  // at the same time on the given ForkJoinPool, since each one starts at a recorded bit offset, 
+  // and joining the results in order. 
+  String decodeParallel(BlockEncoding input, ForkJoinPool pool) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... element ...                              -- ATree
+     * ... input ...                -- BlockEncoding
+     * ... pool ...                 -- ForkJoinPool
      * METHODS ON PARAMETERS:
-     * ... element.isSmallerFreq(ATree other) ...   -- boolean
+     * ... input.blockCount() ...   -- int
      */
-    for (int i = 0; i <= this.orchard.size(); i += 1) {
-      if (i == this.orchard.size()) {
-        this.orchard.add(element);
-        i += this.orchard.size();
-      } else if (element.isSmallerFreq(this.orchard.get(i))) {
-        this.orchard.add(i, element);
-        i += this.orchard.size();
+    this.requireTables();
+    long start = 0;
+    if (this.metrics != null) {
+      start = System.nanoTime();
+    }
+    String[] blocks = new String[input.blockCount()];
+    try {
+      pool.invoke(new DecodeBlocksTask(this.decoder, input, blocks, 0, blocks.length));
+    } catch (IllegalArgumentException e) {
+      if (this.metrics != null) {
+        this.metrics.truncatedDecodes.increment();
       }
+      throw this.unwrap(e);
     }
+    StringBuilder output = new StringBuilder(Math.min(input.length, input.bits.size));
+    for (int i = 0; i < blocks.length; i += 1) {
+      output.append(blocks[i]);
+    }
+    if (this.metrics != null) {
+      this.metrics.recordDecode(input.bits.size, output.length(), false, 
+          System.nanoTime() - start);
+    }
+    return output.toString();
   }
   
-  // This method takes the given string input and executes on this Forest, converting the input 
-  // string into an arraylist of booleans, depicting the encoded version of the given input. 
-  ArrayList<Boolean> toBoolean(String input) {
+  // This method decodes the symbols of the given BlockEncoding made with this Huffman tree from
+  // the given index up to but not including the other given index. Decoding starts at the bit 
+  // offset of the block holding the first symbol, so only the symbols before it in that block 
+  // are decoded and skipped, rather than every symbol before it. 
+  String decodeRange(BlockEncoding input, int from, int to) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... input ...   -- String
+     * ... input ...             -- BlockEncoding
+     * ... from ...              -- int
+     * ... to ...                -- int
+     * FIELDS OF PARAMETERS:
+     * ... input.blockSize ...   -- int
+     * ... input.length ...      -- int
+     * ... input.offsets ...     -- int[]
+     * ... input.bits ...        -- BitBuffer
      */
-    ArrayList<Boolean> converted = new ArrayList<Boolean>();
-    String str = input;
-    while (!str.equals("")) {
-      String letter = str.substring(0,1);
-      str = str.substring(1);
-      if (!this.orchard.get(0).find(letter)) {
-        throw new IllegalArgumentException(
-            "Tried to encode " + letter + " but that is not part of the language.");
-      } else {
-        this.orchard.get(0).updateConverted(converted, letter);
-      }     
-    }
-    return converted;
-  }
-  
-  // This method uses the given arraylist of booleans and decodes it, in order to return a 
-  // string that matches the given steps in the boolean arraylist. 
-  String decodingTree(ArrayList<Boolean> input) {
+    if (from < 0 || to > input.length || from > to) {
+      throw new IndexOutOfBoundsException(
+          "Symbols " + from + " to " + to + " are outside of " + input.length + " symbols.");
+    }
+    if (from == to) {
+      return "";
+    }
+    this.requireTables();
+    long start = 0;
+    if (this.metrics != null) {
+      start = System.nanoTime();
+    }
+    StringBuilder output = new StringBuilder(Math.min(to - from, input.bits.size));
+    int block = from / input.blockSize;
+    int pos;
+    int end;
+    try {
+      pos = this.decoder.decodeSymbols(input.bits, input.offsets[block], 
+          from - block * input.blockSize, null);
+      end = this.decoder.decodeSymbols(input.bits, pos, to - from, output);
+    } catch (IllegalArgumentException e) {
+      if (this.metrics != null) {
+        this.metrics.truncatedDecodes.increment();
+      }
+      throw e;
+    }
+    if (this.metrics != null) {
+      this.metrics.recordDecode(end - pos, output.length(), false, System.nanoTime() - start);
+    }
+    return output.toString();
+  }
+  
+  // This method decodes the given InterleavedEncoding made with this Huffman tree, advancing a 
+  // cursor into each of its four streams in the same loop. 
+  String decodeInterleaved(InterleavedEncoding input) {
     /* TEMPLATE
      * PARAMETERS:
-     * ... input ...          -- ArrayList<Boolean>
-     * METHODS ON PARAMETERS:
-     * ... input.size() ...   -- int
+     * ... input ...   -- InterleavedEncoding
      */
-    if (input.size() == 0) {
-      return "";
+    this.requireTables();
+    long start = 0;
+    if (this.metrics != null) {
+      start = System.nanoTime();
     }
-    return this.orchard.get(0).decodeThisTree(input, this);
+    String output;
+    try {
+      output = this.decoder.decodeInterleaved(input);
+    } catch (IllegalArgumentException e) {
+      if (this.metrics != null) {
+        this.metrics.truncatedDecodes.increment();
+      }
+      throw e;
+    }
+    if (this.metrics != null) {
+      this.metrics.recordDecode(input.bits.size, output.length(), false, 
+          System.nanoTime() - start);
+    }
+    return output;
   }
   
-}
-
-// A Utility Class. 
-class Utils {
-  
-  /* TEMPLATE
-   * METHODS:
-   * ... sort(ArrayList<ATree> array, IComparator<ATree> comp) ...   -- ArrayList<ATree>
-   * ... swap(ArrayList<ATree> array, int one, int two) ...          -- ArrayList<ATree>
-   * ... indexOfMin(ArrayList<ATree> array, 
-   *                int start, 
-   *                IComparator<ATree> comp) ...                     -- int
-   */
-  
-  // EFFECT: This method implements the selectionSort algorithm on the given arrayList, 
-  // using the given comparator. 
-  ArrayList<ATree> sort(ArrayList<ATree> array, IComparator<ATree> comp) {
+  // This method returns the canonical form of this Huffman tree's code, which keeps the code
+  // length of every symbol but determines the codewords from those lengths alone. A tree that 
+  // holds a symbol more than once, or has a codeword longer than 63 bits, has no such form, so 
+  // the best canonical code over its frequencies of at most 63 bits is returned instead, with the
+  // frequencies of a repeated symbol added together. 
+  CanonicalCode canonical() {
     /* TEMPLATE
-     * PARAMETERS:
-     * ... array ...          -- ArrayList<ATree>
-     * ... comp ...           -- IComparator<ATree> comp
-     * METHODS ON PARAMETERS:
-     * ... array.size() ...   -- int
+     * Template: Same as class template.
      */
-    for (int i = 0; i < array.size(); i += 1) {
-      int indexOfMin = new Utils().indexOfMin(array, i, comp);
-      array = new Utils().swap(array, i, indexOfMin);
+    boolean keepsLengths = this.table != null && this.table.symbols.size() == this.letters.size();
+    for (int i = 0; keepsLengths && i < this.table.symbols.size(); i += 1) {
+      keepsLengths = this.table.lengths[i] <= 63;
+    }
+    if (keepsLengths) {
+      return new CanonicalCode(this.table);
     }
-    return array;
+    return this.canonical(63);
   }
   
-  // EFFECT: This method implements a swap between two elements located at the two given indices, 
-  // within the given arraylist. 
-  ArrayList<ATree> swap(ArrayList<ATree> array, int one, int two) {
+  // This method returns this Huffman tree flattened into arrays, which decodes without
+  // following any references between Node and Leaf objects.
+  FlatTree flatten() {
     /* TEMPLATE
-     * PARAMETERS:
-     * ... array ...                  -- ArrayList<ATree>
-     * ... one ...                    -- int
-     * ... two ...                    -- int
-     * METHODS ON PARAMETERS:
-     * ... array.get(int index) ...                 -- ATree
-     * ... array.set(int index, ATree object) ...   -- ATree
+     * Template: Same as class template.
      */
-    ATree temp = array.get(one);
-    array.set(one, array.get(two));
-    array.set(two,  temp);
-    return array;
+    this.requireTables();
+    return new FlatTree(this.f.orchard.get(0), this.table);
   }
   
-  // EFFECT: This method finds the minimum value into the given arraylist, in accordance with the 
-  // given comparator. 
-  int indexOfMin(ArrayList<ATree> array, int start, IComparator<ATree> comp) {
+  // This method returns a canonical code over the same symbols and frequencies as this Huffman 
+  // tree, but with no codeword longer than the given number of bits. It is the best such code, 
+  // so it is the same length as this tree's code whenever no codeword of that is too long. 
+  CanonicalCode canonical(int maxLength) {
     /* TEMPLATE
-     * ... array ...                        -- ArrayList<ATree>
-     * ... start ...                        -- int
-     * ... comp ...                         -- IComparator<ATree>
-     * METHODS ON PARAMETERS:
-     * ... array.get(int index) ...         -- ATree
-     * ... array.size() ...                 -- int
-     * ... comp.compare(T one, T two) ...   -- boolean
+     * PARAMETERS:
+     * ... maxLength ...   -- int
      */
-    ATree min = array.get(start);
-    int minVal = start;
-    for (int i = start + 1; i < array.size(); i += 1) {
-      if (comp.compare(min, array.get(i)) > 0) {
-        min = array.get(i);
-        minVal = i;
-      }
-    }
-    return minVal;
+    return new CanonicalCode(this.letters, this.numbers, maxLength);
   }
 }
 
+
 class ExamplesHuffman {
   
   //tests that the exceptions are thrown when expected
@@ -1074,4 +1092,913 @@ class ExamplesHuffman {
     return t.checkExpect(new Utils().indexOfMin(tree, 0, new TreeCompare()), 0)
         && t.checkExpect(new Utils().indexOfMin(tree2, 0, new TreeCompare()), 2);
   }
-}
\ No newline at end of file
+  
+  //tests that the fillCodes method works as expected
+  void testFillCodes(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Leaf leaf2 = new Leaf("b", 5);
+    Node node = new Node(4, leaf, leaf2);
+    Node bigger = new Node(10, node, new Leaf("c", 3));
+    CodeTable table = new CodeTable(leaf);
+    t.checkExpect(table.symbols.size(), 1);
+    t.checkExpect(table.lengths[0], 0);
+    
+    CodeTable table2 = new CodeTable(new Leaf("z", 2));
+    bigger.fillCodes(table2, 1L, 1);
+    t.checkExpect(table2.symbols.size(), 4);
+    t.checkExpect(table2.codes[table2.index.get("a")], 4L);
+    t.checkExpect(table2.lengths[table2.index.get("a")], 3);
+    t.checkExpect(table2.codes[table2.index.get("b")], 5L);
+    t.checkExpect(table2.codes[table2.index.get("c")], 3L);
+    t.checkExpect(table2.lengths[table2.index.get("c")], 2);
+    
+    Node twice = new Node(2, leaf, new Leaf("a", 1));
+    CodeTable table3 = new CodeTable(twice);
+    t.checkExpect(table3.symbols.size(), 1);
+    t.checkExpect(table3.codes[0], 0L);
+    t.checkExpect(table3.lengths[0], 1);
+    
+    CodeTable empty = new CodeTable();
+    t.checkExpect(empty.symbols.size(), 0);
+    t.checkExpect(empty.slotOf('a'), -1);
+    t.checkExpect(empty.multiChar, false);
+  }
+  
+  //tests that the add method works as expected
+  void testAdd(Tester t) {
+    CodeTable table = new CodeTable(new Leaf("a", 1));
+    table.add("bc", 6L, 3);
+    table.add("a", 1L, 1);
+    t.checkExpect(table.symbols.size(), 2);
+    t.checkExpect(table.codes[1], 6L);
+    t.checkExpect(table.lengths[1], 3);
+    t.checkExpect(table.lengths[0], 0);
+    t.checkExpect(table.slotOf('b'), -1);
+    
+    for (int i = 0; i < 20; i += 1) {
+      table.add("x" + i, i, 5);
+    }
+    t.checkExpect(table.symbols.size(), 22);
+    t.checkExpect(table.codes[21], 19L);
+  }
+  
+  //tests that the slotOf method works as expected
+  boolean testSlotOf(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(1);
+    numbers.add(2);
+    numbers.add(3);
+    CodeTable table = new Huffman(letters, numbers).table;
+    return t.checkExpect(table.symbols.get(table.slotOf('b')), "b")
+        && t.checkExpect(table.symbols.get(table.slotOf('c')), "c")
+        && t.checkExpect(table.slotOf('!'), -1)
+        && t.checkExpect(table.slotOf('\u4e2d'), -1);
+  }
+  
+  //tests that the toBits method works as expected
+  void testToBits(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    letters.add("d");
+    letters.add("e");
+    letters.add("f");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(12);
+    numbers.add(45);
+    numbers.add(5);
+    numbers.add(13);
+    numbers.add(9);
+    numbers.add(16);
+    Huffman huff = new Huffman(letters, numbers);
+    t.checkExpect(huff.table.toBits("abc").toBooleans(), huff.f.toBoolean("abc"));
+    t.checkExpect(huff.table.toBits("fedcbafedcba").toBooleans(), 
+        huff.f.toBoolean("fedcbafedcba"));
+    t.checkExpect(huff.table.toBits("").size, 0);
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode g but that is not part of the language."), 
+        huff.table, "toBits", "abg");
+  }
+  
+  //tests that the encodeBits method works as expected
+  boolean testEncodeBits(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(1);
+    numbers.add(2);
+    numbers.add(3);
+    BitBuffer bits = new Huffman(letters, numbers).encodeBits("abc");
+    return t.checkExpect(bits.size, 5)
+        && t.checkExpect(bits.words[0], 0xB0L << 56);
+  }
+  
+  //tests that the decode method works as expected on a BitBuffer
+  boolean testDecodeBitBuffer(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(1);
+    numbers.add(2);
+    numbers.add(3);
+    Huffman huff = new Huffman(letters, numbers);
+    BitBuffer partial = new BitBuffer(4);
+    partial.append(13L, 4);
+    return t.checkExpect(huff.decode(huff.encodeBits("cabbacab")), "cabbacab")
+        && t.checkExpect(huff.decode(partial), "bc?")
+        && t.checkExpect(huff.decode(new BitBuffer(0)), "");
+  }
+  
+  //tests that the append method works as expected
+  void testAppend(Tester t) {
+    BitBuffer bits = new BitBuffer(0);
+    bits.append(5L, 3);
+    t.checkExpect(bits.size, 3);
+    t.checkExpect(bits.words[0], 5L << 61);
+    bits.append(-1L, 0);
+    t.checkExpect(bits.size, 3);
+    bits.append(0xFFL, 2);
+    t.checkExpect(bits.words[0], 23L << 59);
+    
+    BitBuffer bits2 = new BitBuffer(0);
+    bits2.append(0L, 60);
+    bits2.append(0x3FL, 6);
+    t.checkExpect(bits2.size, 66);
+    t.checkExpect(bits2.words[0], 15L);
+    t.checkExpect(bits2.words[1], 3L << 62);
+    bits2.append(-1L, 64);
+    t.checkExpect(bits2.size, 130);
+    t.checkExpect(bits2.words[1], -1L);
+    t.checkExpect(bits2.words[2], 3L << 62);
+  }
+  
+  //tests that the appendBit method works as expected
+  void testAppendBit(Tester t) {
+    BitBuffer bits = new BitBuffer(1);
+    bits.appendBit(true);
+    bits.appendBit(false);
+    bits.appendBit(true);
+    t.checkExpect(bits.size, 3);
+    t.checkExpect(bits.words[0], 5L << 61);
+    for (int i = 0; i < 100; i += 1) {
+      bits.appendBit(true);
+    }
+    t.checkExpect(bits.size, 103);
+    t.checkExpect(bits.get(102), true);
+  }
+  
+  //tests that the get method works as expected
+  void testGet(Tester t) {
+    ArrayList<Boolean> list = new ArrayList<Boolean>();
+    list.add(true);
+    list.add(false);
+    list.add(false);
+    list.add(true);
+    BitBuffer bits = new BitBuffer(list);
+    t.checkExpect(bits.get(0), true);
+    t.checkExpect(bits.get(1), false);
+    t.checkExpect(bits.get(3), true);
+    t.checkException(new IndexOutOfBoundsException("Bit 4 is outside of 4 bits."), 
+        bits, "get", 4);
+  }
+  
+  //tests that the toBooleans method works as expected
+  boolean testToBooleans(Tester t) {
+    ArrayList<Boolean> list = new ArrayList<Boolean>();
+    for (int i = 0; i < 70; i += 1) {
+      list.add(i % 3 == 0);
+    }
+    return t.checkExpect(new BitBuffer(list).toBooleans(), list)
+        && t.checkExpect(new BitBuffer(0).toBooleans(), new ArrayList<Boolean>());
+  }
+  
+  //tests that the toByteArray method works as expected
+  boolean testToByteArray(Tester t) {
+    BitBuffer bits = new BitBuffer(0);
+    bits.append(0xABCDL, 16);
+    bits.append(1L, 1);
+    byte[] expected = new byte[] {(byte) 0xAB, (byte) 0xCD, (byte) 0x80};
+    BitBuffer longer = new BitBuffer(0);
+    longer.append(0x0102030405060708L, 64);
+    longer.append(0x09L, 8);
+    byte[] expected2 = new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9};
+    return t.checkExpect(bits.toByteArray(), expected)
+        && t.checkExpect(longer.toByteArray(), expected2)
+        && t.checkExpect(new BitBuffer(0).toByteArray(), new byte[0]);
+  }
+  
+  //tests that the step method works as expected
+  boolean testStep(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Leaf leaf2 = new Leaf("b", 5);
+    Node node = new Node(4, leaf, leaf2);
+    Node bigger = new Node(10, node, leaf);
+    return t.checkExpect(node.step(false), leaf)
+        && t.checkExpect(node.step(true), leaf2)
+        && t.checkExpect(bigger.step(false), node)
+        && t.checkException(new IllegalStateException("Cannot step past the Leaf a."), 
+            leaf, "step", true);
+  }
+  
+  //tests that the emit method works as expected
+  boolean testEmit(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Leaf leaf2 = new Leaf("bc", 5);
+    Node node = new Node(4, leaf, leaf2);
+    StringBuilder output = new StringBuilder();
+    boolean fromNode = node.emit(output);
+    boolean fromLeaf = leaf2.emit(output);
+    boolean fromLeaf2 = leaf.emit(output);
+    return t.checkExpect(fromNode, false)
+        && t.checkExpect(fromLeaf, true)
+        && t.checkExpect(fromLeaf2, true)
+        && t.checkExpect(output.toString(), "bca");
+  }
+  
+  //tests that the decodeBits method works as expected
+  void testDecodeBits(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(1);
+    numbers.add(2);
+    numbers.add(3);
+    Huffman huff = new Huffman(letters, numbers);
+    BitBuffer bits = new BitBuffer(0);
+    bits.append(13L, 4);
+    t.checkExpect(huff.f.decodeBits(bits), "bc?");
+    t.checkExpect(huff.f.decodeBits(new BitBuffer(0)), "");
+    StringBuilder output = new StringBuilder();
+    t.checkExpect(huff.f.decodeInto(bits, output), 3);
+    t.checkExpect(output.toString(), "bc?");
+    bits.append(1L, 1);
+    t.checkExpect(huff.f.decodeBits(bits), "bcb");
+    t.checkExpect(huff.f.decodeInto(bits, output), 5);
+    t.checkExpect(output.toString(), "bc?bcb");
+    
+    StringBuilder longInput = new StringBuilder();
+    for (int i = 0; i < 1000000; i += 1) {
+      longInput.append("abccbc".charAt(i % 6));
+    }
+    String message = longInput.toString();
+    t.checkExpect(huff.f.decodeBits(huff.encodeBits(message)), message);
+  }
+  
+  //tests that the height method works as expected
+  boolean testHeight(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Leaf leaf2 = new Leaf("b", 5);
+    Node node = new Node(4, leaf, leaf2);
+    Node bigger = new Node(10, leaf, node);
+    return t.checkExpect(leaf.height(), 0)
+        && t.checkExpect(node.height(), 1)
+        && t.checkExpect(bigger.height(), 2);
+  }
+  
+  //tests that the fillDecodeTable method works as expected
+  void testFillDecodeTable(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Leaf leaf2 = new Leaf("b", 5);
+    Leaf leaf3 = new Leaf("c", 5);
+    Node node = new Node(10, leaf2, leaf3);
+    Node bigger = new Node(11, leaf, node);
+    DecodeTable table = new DecodeTable(bigger, new CodeTable(bigger), 1);
+    t.checkExpect(table.entries[0], 1L);
+    t.checkExpect(table.entries[1], 2L << 32 | 0x80L | 1);
+    t.checkExpect(table.entries[2], 1L << 32 | 1);
+    t.checkExpect(table.entries[3], 2L << 32 | 1);
+    
+    table.entries = new long[4];
+    leaf3.fillDecodeTable(table, 0, 2, 1, 0);
+    t.checkExpect(table.entries, new long[] {2L << 32 | 1, 2L << 32 | 1, 0, 0});
+    node.fillDecodeTable(table, 0, 2, 1, 1);
+    t.checkExpect(table.entries[2], 1L << 32 | 2);
+    t.checkExpect(table.entries[3], 2L << 32 | 2);
+  }
+  
+  //tests that the canonical method works as expected
+  void testCanonical(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("c");
+    letters.add("b");
+    letters.add("a");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(1);
+    numbers.add(2);
+    numbers.add(3);
+    CanonicalCode code = new Huffman(letters, numbers).canonical();
+    ArrayList<String> ordered = new ArrayList<String>();
+    ordered.add("a");
+    ordered.add("b");
+    ordered.add("c");
+    t.checkExpect(code.symbols, ordered);
+    t.checkExpect(code.lengths, new int[] {1, 2, 2});
+    t.checkExpect(code.codes, new long[] {0, 2, 3});
+    
+    ArrayList<String> twice = new ArrayList<String>();
+    twice.add("a");
+    twice.add("a");
+    twice.add("b");
+    ArrayList<Integer> weights = new ArrayList<Integer>();
+    weights.add(1);
+    weights.add(3);
+    weights.add(3);
+    CanonicalCode merged = new Huffman(twice, weights).canonical();
+    ArrayList<String> mergedOrder = new ArrayList<String>();
+    mergedOrder.add("a");
+    mergedOrder.add("b");
+    t.checkExpect(merged.symbols, mergedOrder);
+    t.checkExpect(merged.lengths, new int[] {1, 1});
+    t.checkExpect(merged.decode(merged.encodeBits("abba")), "abba");
+    
+    ArrayList<String> deepLetters = new ArrayList<String>();
+    ArrayList<Integer> deepNumbers = new ArrayList<Integer>();
+    for (int i = 0; i < 70; i += 1) {
+      deepLetters.add(Character.toString((char) ('0' + i)));
+      deepNumbers.add(-i);
+    }
+    CanonicalCode deep = new Huffman(deepLetters, deepNumbers).canonical();
+    t.checkExpect(deep.symbols.size(), 70);
+    t.checkExpect(deep.decode(deep.encodeBits("0123456789utu")), "0123456789utu");
+  }
+  
+  //tests that the makeHuffmanTreeHeap method works as expected
+  void testMakeHuffmanTreeHeap(Tester t) {
+    Leaf leaf = new Leaf("a", 4);
+    Leaf leaf2 = new Leaf("b", 1);
+    Leaf leaf3 = new Leaf("c", 1);
+    Leaf leaf4 = new Leaf("d", 2);
+    ArrayList<ATree> tree = new ArrayList<ATree>();
+    tree.add(leaf);
+    tree.add(leaf2);
+    tree.add(leaf3);
+    tree.add(leaf4);
+    Forest f = new Forest(tree);
+    f.makeHuffmanTreeHeap();
+    
+    ArrayList<ATree> treev2 = new ArrayList<ATree>();
+    Node firstC = new Node(2, leaf2, leaf3);
+    Node secondC = new Node(4, leaf4, firstC);
+    treev2.add(new Node(8, leaf, secondC));
+    t.checkExpect(f, new Forest(treev2));
+    
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 300; i += 1) {
+      letters.add("s" + i);
+      numbers.add((i * 7919) % 1009 + 1);
+    }
+    Forest heapForest = new Forest(new ArrayList<ATree>());
+    heapForest.populateTree(letters, numbers);
+    heapForest.makeHuffmanTreeHeap();
+    Forest oldForest = new Forest(new ArrayList<ATree>());
+    oldForest.populateTree(letters, numbers);
+    new Utils().sort(oldForest.orchard, new TreeCompare());
+    oldForest.makeHuffmanTree();
+    t.checkExpect(heapForest, oldForest);
+    
+    Leaf tiedA = new Leaf("a", 2);
+    Leaf tiedB = new Leaf("b", 2);
+    Leaf tiedC = new Leaf("c", 1);
+    ArrayList<ATree> tied = new ArrayList<ATree>();
+    tied.add(tiedA);
+    tied.add(tiedB);
+    tied.add(tiedC);
+    Forest tiedForest = new Forest(tied);
+    tiedForest.makeHuffmanTreeHeap();
+    ArrayList<ATree> tiedResult = new ArrayList<ATree>();
+    tiedResult.add(new Node(5, tiedB, new Node(3, tiedC, tiedA)));
+    t.checkExpect(tiedForest, new Forest(tiedResult));
+    ArrayList<String> tiedLetters = new ArrayList<String>(Arrays.asList("a", "b", "c"));
+    ArrayList<Integer> tiedNumbers = new ArrayList<Integer>(Arrays.asList(2, 2, 1));
+    Huffman tiedHuffman = new Huffman(tiedLetters, tiedNumbers);
+    t.checkExpect(tiedHuffman.encode("b"), new ArrayList<Boolean>(Arrays.asList(false)));
+    t.checkExpect(tiedHuffman.encode("a"), new ArrayList<Boolean>(Arrays.asList(true, true)));
+    
+    Forest empty = new Forest(new ArrayList<ATree>());
+    empty.makeHuffmanTreeHeap();
+    t.checkExpect(empty, new Forest(new ArrayList<ATree>()));
+  }
+  
+  //tests that the makeHuffmanTreeQueues method works as expected
+  void testMakeHuffmanTreeQueues(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Leaf leaf2 = new Leaf("b", 5);
+    Node node = new Node(4, leaf, leaf2);
+    Node bigger = new Node(10, node, leaf);
+    ArrayList<ATree> tree = new ArrayList<ATree>();
+    tree.add(leaf);
+    tree.add(node);
+    tree.add(leaf2);
+    tree.add(bigger);
+    Forest f = new Forest(tree);
+    f.makeHuffmanTreeQueues();
+    
+    ArrayList<ATree> treev2 = new ArrayList<ATree>();
+    Node firstC = new Node(5, leaf, node);
+    Node secondC = new Node(10, leaf2, firstC);
+    Node thirdC = new Node(20, bigger, secondC);
+    treev2.add(thirdC);
+    t.checkExpect(f, new Forest(treev2));
+    
+    ArrayList<ATree> single = new ArrayList<ATree>();
+    single.add(leaf);
+    Forest f2 = new Forest(single);
+    f2.makeHuffmanTreeQueues();
+    ArrayList<ATree> single2 = new ArrayList<ATree>();
+    single2.add(leaf);
+    t.checkExpect(f2, new Forest(single2));
+    
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 50000; i += 1) {
+      letters.add("s" + i);
+      numbers.add(i / 3 + 1);
+    }
+    Forest queueForest = new Forest(new ArrayList<ATree>());
+    queueForest.populateTree(letters, numbers);
+    queueForest.makeHuffmanTreeQueues();
+    Forest heapForest = new Forest(new ArrayList<ATree>());
+    heapForest.populateTree(letters, numbers);
+    heapForest.makeHuffmanTreeHeap();
+    t.checkExpect(queueForest.orchard.size(), 1);
+    t.checkExpect(queueForest, heapForest);
+  }
+  
+  //tests that the isSorted method works as expected
+  boolean testIsSorted(Tester t) {
+    Leaf leaf = new Leaf("a", 1);
+    Leaf leaf2 = new Leaf("b", 5);
+    Node node = new Node(4, leaf, leaf2);
+    ArrayList<ATree> tree = new ArrayList<ATree>();
+    tree.add(leaf);
+    tree.add(node);
+    tree.add(leaf2);
+    ArrayList<ATree> tree2 = new ArrayList<ATree>();
+    tree2.add(leaf);
+    tree2.add(leaf2);
+    tree2.add(node);
+    return t.checkExpect(new Utils().isSorted(tree, new TreeCompare()), true)
+        && t.checkExpect(new Utils().isSorted(tree2, new TreeCompare()), false)
+        && t.checkExpect(new Utils().isSorted(new ArrayList<ATree>(), new TreeCompare()), true);
+  }
+  
+  //tests that the heapBefore method works as expected
+  boolean testHeapBefore(Tester t) {
+    ATree[] trees = new ATree[] {new Leaf("a", 3), new Leaf("b", 1), new Leaf("c", 3)};
+    return t.checkExpect(new Utils().heapBefore(trees, 1, 0), true)
+        && t.checkExpect(new Utils().heapBefore(trees, 0, 2), true)
+        && t.checkExpect(new Utils().heapBefore(trees, 2, 0), false)
+        && t.checkExpect(new Utils().heapBefore(trees, 2, 1), false);
+  }
+  
+  //tests that the heapPush and heapPop methods work as expected
+  void testHeapPushPop(Tester t) {
+    ATree[] trees = new ATree[] {new Leaf("a", 3), new Leaf("b", 1), new Leaf("c", 3), 
+      new Leaf("d", 0), new Leaf("e", 2)};
+    int[] heap = new int[5];
+    int size = 0;
+    Utils u = new Utils();
+    for (int i = 0; i < 5; i += 1) {
+      size = u.heapPush(heap, size, trees, i);
+    }
+    t.checkExpect(size, 5);
+    int[] popped = new int[5];
+    for (int i = 0; i < 5; i += 1) {
+      popped[i] = heap[0];
+      size = u.heapPop(heap, size, trees);
+    }
+    t.checkExpect(popped, new int[] {3, 1, 4, 0, 2});
+    t.checkExpect(size, 0);
+  }
+  
+  //tests that the countBytes method works as expected
+  void testCountBytes(Tester t) {
+    int[] counts = new Utils().countBytes(new byte[] {0, 1, 1, (byte) 255, (byte) 255, -1});
+    t.checkExpect(counts.length, 256);
+    t.checkExpect(counts[0], 1);
+    t.checkExpect(counts[1], 2);
+    t.checkExpect(counts[255], 3);
+    t.checkExpect(counts[2], 0);
+    t.checkExpect(new Utils().countBytes(new byte[0]), new int[256]);
+    
+    byte[] data = new byte[1003];
+    int[] expected = new int[256];
+    for (int i = 0; i < data.length; i += 1) {
+      data[i] = (byte) (i % 7 == 0 ? i : 'e');
+      if (i >= 2 && i < 1001) {
+        expected[data[i] & 0xFF] += 1;
+      }
+    }
+    t.checkExpect(new Utils().countBytes(data, 2, 1001), expected);
+    t.checkExpect(new Utils().countBytes(data, 5, 7)['e'], 2);
+    t.checkExpect(new Utils().countBytes(data, 5, 5), new int[256]);
+  }
+  
+  //tests that the mapFile method works as expected
+  void testMapFile(Tester t) throws IOException {
+    Path file = Files.createTempFile("huffman", ".bin");
+    Files.write(file, new byte[] {3, 1, 4});
+    MappedByteBuffer mapped = new Utils().mapFile(file);
+    t.checkExpect(mapped.limit(), 3);
+    t.checkExpect(mapped.get(2), (byte) 4);
+    Files.delete(file);
+  }
+  
+  //tests that the toBits method works as expected on part of a string
+  void testToBitsRange(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(1);
+    numbers.add(2);
+    numbers.add(3);
+    Huffman huff = new Huffman(letters, numbers);
+    t.checkExpect(huff.table.toBits("cabbac", 1, 4).toBooleans(), huff.encode("abb"));
+    t.checkExpect(huff.table.toBits("cabbac", 3, 3).size, 0);
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode d but that is not part of the language."), 
+        huff.table, "toBits", "abdc", 1, 3);
+  }
+  
+  //tests that the appendBits method works as expected
+  void testAppendBits(Tester t) {
+    BitBuffer bits = new BitBuffer(0);
+    bits.append(5L, 3);
+    BitBuffer other = new BitBuffer(0);
+    other.append(-1L, 64);
+    other.append(2L, 2);
+    bits.appendBits(other);
+    t.checkExpect(bits.size, 69);
+    t.checkExpect(bits.words[0], 0xBFFFFFFFFFFFFFFFL);
+    t.checkExpect(bits.words[1], 0xF0L << 56);
+    bits.appendBits(new BitBuffer(0));
+    t.checkExpect(bits.size, 69);
+  }
+  
+  //tests that the slice method works as expected
+  void testSlice(Tester t) {
+    BitBuffer bits = new BitBuffer(0);
+    for (int i = 0; i < 200; i += 1) {
+      bits.appendBit(i % 3 == 0);
+    }
+    BitBuffer slice = bits.slice(5, 150);
+    t.checkExpect(slice.size, 145);
+    boolean same = true;
+    for (int i = 0; i < slice.size; i += 1) {
+      same = same && slice.get(i) == bits.get(i + 5);
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(bits.slice(64, 64).size, 0);
+    t.checkExpect(bits.slice(0, 200).words, bits.words);
+    t.checkException(new IndexOutOfBoundsException("Bits 10 to 201 are outside of 200 bits."),
+        bits, "slice", 10, 201);
+  }
+  
+  //tests that the truncate method works as expected
+  void testTruncate(Tester t) {
+    BitBuffer bits = new BitBuffer(0);
+    for (int i = 0; i < 150; i += 1) {
+      bits.appendBit(true);
+    }
+    bits.truncate(70);
+    t.checkExpect(bits.size, 70);
+    t.checkExpect(bits.words[1], -1L << 58);
+    t.checkExpect(bits.words[2], 0L);
+    bits.append(0L, 2);
+    t.checkExpect(bits.get(70), false);
+    bits.truncate(64);
+    t.checkExpect(bits.words[1], 0L);
+    t.checkExpect(bits.words[0], -1L);
+    bits.truncate(0);
+    t.checkExpect(bits.words[0], 0L);
+    t.checkException(new IndexOutOfBoundsException("Cannot truncate 0 bits to 1 bits."),
+        bits, "truncate", 1);
+  }
+  
+  //tests that the encodeParallel method works as expected
+  void testEncodeParallel(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 26; i += 1) {
+      letters.add("" + (char) ('a' + i));
+      numbers.add(1 + (i * 17) % 40);
+    }
+    Huffman huff = new Huffman(letters, numbers);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100000; i += 1) {
+      text.append((char) ('a' + (i * 7 + i / 5) % 26));
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    BlockEncoding blocks = huff.encodeParallel(text.toString(), 4096, pool);
+    StringBuilder unknown = new StringBuilder(text);
+    for (int i = 0; i < unknown.length(); i += 1000) {
+      unknown.setCharAt(i, '!');
+    }
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode ! but that is not part of the language."),
+        huff, "encodeParallel", unknown.toString(), 100, pool);
+    pool.shutdown();
+    t.checkExpect(blocks.blockCount(), 25);
+    t.checkExpect(blocks.length, 100000);
+    t.checkExpect(huff.decode(blocks.bits), text.toString());
+    t.checkExpect(huff.decode(blocks.block(24)), text.substring(24 * 4096));
+    t.checkExpect(huff.encodeParallel("", 10, ForkJoinPool.commonPool()).blockCount(), 0);
+    t.checkException(new IllegalArgumentException("Blocks must hold at least one symbol."),
+        huff, "encodeParallel", "abc", 0, ForkJoinPool.commonPool());
+  }
+  
+  //tests that the unwrap method works as expected
+  void testUnwrap(Tester t) {
+    Huffman huff = new Huffman(new ArrayList<String>(Arrays.asList("a", "b")),
+        new ArrayList<Integer>(Arrays.asList(1, 2)));
+    IllegalArgumentException original = new IllegalArgumentException("Bad block.");
+    IllegalArgumentException once = new IllegalArgumentException(original);
+    t.checkExpect(huff.unwrap(original), original);
+    t.checkExpect(huff.unwrap(once) == original, true);
+    t.checkExpect(huff.unwrap(new IllegalArgumentException(once)) == original, true);
+  }
+  
+  //tests that the decodeParallel method works as expected
+  void testDecodeParallel(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 40; i += 1) {
+      letters.add("" + (char) ('0' + i));
+      numbers.add(1 + (i * 13) % 50);
+    }
+    Huffman huff = new Huffman(letters, numbers);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 50000; i += 1) {
+      text.append((char) ('0' + (i * 11 + i / 9) % 40));
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    BlockEncoding blocks = huff.encodeParallel(text.toString(), 1000, pool);
+    t.checkExpect(huff.decodeParallel(blocks, pool), text.toString());
+    BlockEncoding framed = new BlockEncoding(blocks.toByteArray());
+    t.checkExpect(huff.decodeParallel(framed, pool), text.toString());
+    t.checkExpect(huff.decodeParallel(huff.encodeParallel("", 5, pool), pool), "");
+    BlockEncoding shifted = huff.encodeParallel(text.toString(), 100, pool);
+    shifted.offsets[150] -= 1;
+    t.checkException(
+        new IllegalArgumentException("Block 149 does not end where the next block starts."),
+        huff, "decodeParallel", shifted, pool);
+    pool.shutdown();
+  }
+  
+  //tests that a tree with codewords longer than 64 bits encodes and decodes through the tree
+  void testDeepTree(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 70; i += 1) {
+      letters.add("" + (char) ('0' + i));
+      numbers.add(-i);
+    }
+    HuffmanMetrics metrics = new HuffmanMetrics();
+    Huffman huff = new Huffman(letters, numbers, metrics);
+    t.checkExpect(huff.f.orchard.get(0).height() > 64, true);
+    t.checkExpect(huff.table, null);
+    t.checkExpect(huff.decoder, null);
+    t.checkExpect(metrics.getBuilds(), 1L);
+    String text = "0123456789utu";
+    t.checkExpect(huff.encode(text), huff.f.toBoolean(text));
+    t.checkExpect(huff.decode(huff.encode(text)), text);
+    t.checkExpect(huff.decode(huff.encodeBits(text)), text);
+    BitBuffer partial = huff.encodeBits("u");
+    partial.truncate(partial.size - 1);
+    t.checkExpect(huff.decode(partial), "?");
+    t.checkExpect(metrics.getDecodes(), 3L);
+    t.checkExpect(metrics.getTruncatedDecodes(), 1L);
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode ! but that is not part of the language."), huff, "encodeBits", "0!");
+    t.checkException(new IllegalStateException(
+        "This tree has codewords longer than 64 bits, so it has no code table."),
+        huff, "encodeInterleaved", text);
+    t.checkException(new IllegalStateException(
+        "This tree has codewords longer than 64 bits, so it has no code table."),
+        huff, "flatten");
+    t.checkException(new IllegalStateException(
+        "This tree has codewords longer than 64 bits, so it has no code table."),
+        huff, "decodeBatch", new MessageBatch(), new StringBuilder(), new int[0]);
+  }
+  
+  //tests that the decodeRange method works as expected
+  void testDecodeRange(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("a");
+    letters.add("b");
+    letters.add("c");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(1);
+    numbers.add(2);
+    numbers.add(3);
+    Huffman huff = new Huffman(letters, numbers);
+    String text = "abcabcccbaabcbcbacbcbbbcacca";
+    BlockEncoding blocks = huff.encodeParallel(text, 4, ForkJoinPool.commonPool());
+    boolean all = true;
+    for (int from = 0; from <= text.length(); from += 1) {
+      for (int to = from; to <= text.length(); to += 1) {
+        all = all && huff.decodeRange(blocks, from, to).equals(text.substring(from, to));
+      }
+    }
+    t.checkExpect(all, true);
+    t.checkExpect(huff.decodeRange(blocks, 9, 13), "aabc");
+    t.checkException(new IndexOutOfBoundsException("Symbols 3 to 29 are outside of 28 symbols."),
+        huff, "decodeRange", blocks, 3, 29);
+    t.checkException(new IndexOutOfBoundsException("Symbols 5 to 4 are outside of 28 symbols."),
+        huff, "decodeRange", blocks, 5, 4);
+    BlockEncoding forged = new BlockEncoding(Integer.MAX_VALUE, Integer.MAX_VALUE - 8,
+        new BitBuffer[] {new BitBuffer(0)});
+    t.checkException(new IllegalArgumentException("Encoded bits end in the middle of a codeword."),
+        huff, "decodeRange", forged, 0, Integer.MAX_VALUE - 8);
+  }
+  
+  //tests that the encodeInterleaved and decodeInterleaved methods work as expected
+  void testInterleaved(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 40; i += 1) {
+      letters.add("" + (char) ('0' + i));
+      numbers.add(1 + (i * 13) % 50);
+    }
+    Huffman huff = new Huffman(letters, numbers);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 50001; i += 1) {
+      text.append((char) ('0' + (i * 11 + i / 9) % 40));
+    }
+    InterleavedEncoding streams = huff.encodeInterleaved(text.toString());
+    t.checkExpect(streams.offsets[0], 0);
+    t.checkExpect(streams.bits.size, huff.encodeBits(text.toString()).size);
+    t.checkExpect(huff.decode(streams.stream(1)), text.substring(12501, 25002));
+    t.checkExpect(huff.decodeInterleaved(streams), text.toString());
+    InterleavedEncoding framed = new InterleavedEncoding(streams.toByteArray());
+    t.checkExpect(huff.decodeInterleaved(framed), text.toString());
+    for (int n = 0; n < 9; n += 1) {
+      String prefix = text.substring(0, n);
+      t.checkExpect(huff.decodeInterleaved(huff.encodeInterleaved(prefix)), prefix);
+    }
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode a but that is not part of the language."),
+        huff, "encodeInterleaved", "01a");
+    
+    Huffman words = new Huffman(new ArrayList<String>(Arrays.asList("ab", "a", "b")),
+        new ArrayList<Integer>(Arrays.asList(3, 2, 1)));
+    t.checkException(new IllegalArgumentException(
+        "Interleaved streams can only be made of single-character symbols."),
+        words, "encodeInterleaved", "aab");
+    t.checkException(new IllegalArgumentException(
+        "Interleaved streams can only be made of single-character symbols."),
+        words, "decodeInterleaved", new InterleavedEncoding(0, new int[5], new BitBuffer(0)));
+  }
+  
+  //tests that the lengthLimited and expandPackage methods work as expected
+  void testLengthLimited(Tester t) {
+    Utils u = new Utils();
+    t.checkExpect(u.lengthLimited(new int[] {1, 1, 2, 4, 8}, 3), new int[] {3, 3, 3, 3, 1});
+    t.checkExpect(u.lengthLimited(new int[] {8, 1, 4, 1, 2}, 10), new int[] {1, 4, 2, 4, 3});
+    t.checkExpect(u.lengthLimited(new int[] {5, 0, 0, 7}, 2), new int[] {2, 2, 2, 2});
+    t.checkExpect(u.lengthLimited(new int[] {3, 9}, 63), new int[] {1, 1});
+    
+    int[] weights = new int[30];
+    int fib = 1;
+    int prev = 1;
+    for (int i = 0; i < weights.length; i += 1) {
+      weights[i] = fib;
+      int next = fib + prev;
+      prev = fib;
+      fib = next;
+    }
+    int[] lengths = u.lengthLimited(weights, 8);
+    double kraft = 0;
+    int longest = 0;
+    for (int i = 0; i < lengths.length; i += 1) {
+      kraft += Math.pow(2, -lengths[i]);
+      longest = Math.max(longest, lengths[i]);
+    }
+    t.checkExpect(kraft, 1.0);
+    t.checkExpect(longest, 8);
+    int[] unlimited = u.lengthLimited(weights, 40);
+    t.checkExpect(unlimited[0], 29);
+    t.checkExpect(unlimited[29], 1);
+    
+    int[] expanded = new int[2];
+    u.expandPackage(new int[][] {{0, 1}, {-1}}, 1, 0, expanded);
+    t.checkExpect(expanded, new int[] {1, 1});
+    t.checkException(new IllegalArgumentException("No prefix code of 5 symbols fits in 2 bits."),
+        u, "lengthLimited", new int[] {1, 1, 1, 1, 1}, 2);
+    t.checkException(new IllegalArgumentException("No prefix code of 1 symbols fits in 4 bits."),
+        u, "lengthLimited", new int[] {1}, 4);
+  }
+  
+  //tests that the appendTo method works as expected
+  void testAppendTo(Tester t) {
+    Huffman huff = new Huffman(new ArrayList<String>(Arrays.asList("a", "b", "c")),
+        new ArrayList<Integer>(Arrays.asList(1, 2, 3)));
+    BitBuffer bits = huff.encodeBits("ab");
+    huff.table.appendTo(bits, "xcab", 1, 3);
+    t.checkExpect(bits.toBooleans(), huff.encode("abca"));
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode x but that is not part of the language."),
+        huff.table, "appendTo", bits, "xcab", 0, 2);
+  }
+  
+  //tests that the encodeBatch and decodeBatch methods work as expected
+  void testHuffmanBatch(Tester t) {
+    Huffman huff = new Huffman(new ArrayList<String>(Arrays.asList("a", "b", "c")),
+        new ArrayList<Integer>(Arrays.asList(1, 2, 3)));
+    MessageBatch batch = huff.encodeBatch(new String[] {"abc", "cc"}, new MessageBatch());
+    t.checkExpect(batch.count, 2);
+    StringBuilder text = new StringBuilder("x");
+    int[] ends = new int[2];
+    huff.decodeBatch(batch, text, ends);
+    t.checkExpect(text.toString(), "xabccc");
+    t.checkExpect(ends, new int[] {4, 6});
+  }
+  
+  //tests that the tokensToBits method works as expected
+  void testTokensToBits(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    letters.add("the");
+    letters.add(" ");
+    letters.add("t");
+    letters.add("h");
+    letters.add("e");
+    letters.add("then");
+    letters.add("n");
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    numbers.add(20);
+    numbers.add(25);
+    numbers.add(3);
+    numbers.add(2);
+    numbers.add(4);
+    numbers.add(6);
+    numbers.add(1);
+    Huffman huff = new Huffman(letters, numbers);
+    t.checkExpect(huff.table.multiChar, true);
+    CodeTable table = huff.table;
+    int the = table.index.get("the");
+    int space = table.index.get(" ");
+    int then = table.index.get("then");
+    BitBuffer expected = new BitBuffer(0);
+    expected.append(table.codes[the], table.lengths[the]);
+    expected.append(table.codes[space], table.lengths[space]);
+    expected.append(table.codes[then], table.lengths[then]);
+    t.checkExpect(huff.encodeBits("the then").toBooleans(), expected.toBooleans());
+    t.checkExpect(table.tokensToBits("xthe", 1, 4).toBooleans(), huff.encode("the"));
+    BitBuffer appended = huff.encodeBits("the");
+    table.appendTo(appended, "x then", 2, 6);
+    table.appendTokens(appended, " ", 0, 1);
+    t.checkExpect(appended.toBooleans(), huff.encode("thethen "));
+    t.checkExpect(huff.decode(huff.encodeBits("then the tenth hen")), "then the tenth hen");
+    t.checkExpect(huff.encodeBits("the the").size < 7 * 3, true);
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode x but that is not part of the language."), 
+        huff, "encodeBits", "the x");
+    t.checkException(new IllegalArgumentException(
+        "Blocks can only be made of single-character symbols."), 
+        huff, "encodeParallel", "the", 2, ForkJoinPool.commonPool());
+  }
+  
+  //tests that the compare method of WeightCompare works as expected
+  boolean testWeightCompare(Tester t) {
+    WeightCompare comp = new WeightCompare(new int[] {5, 2, 5});
+    return t.checkExpect(comp.compare(0, 1) > 0, true)
+        && t.checkExpect(comp.compare(1, 2) < 0, true)
+        && t.checkExpect(comp.compare(0, 2), 0);
+  }
+  
+  //tests that the canonical method works as expected with a maximum code length
+  void testCanonicalLimited(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>();
+    ArrayList<Integer> numbers = new ArrayList<Integer>();
+    int fib = 1;
+    int prev = 1;
+    for (int i = 0; i < 20; i += 1) {
+      letters.add("" + (char) ('a' + i));
+      numbers.add(fib);
+      int next = fib + prev;
+      prev = fib;
+      fib = next;
+    }
+    Huffman huff = new Huffman(letters, numbers);
+    CanonicalCode limited = huff.canonical(6);
+    t.checkExpect(limited.lengths[limited.lengths.length - 1], 6);
+    t.checkExpect(limited.decode(limited.encodeBits("abcdefghijklmnopqrst")),
+        "abcdefghijklmnopqrst");
+    CanonicalCode roomy = huff.canonical(30);
+    t.checkExpect(roomy.encodeBits("aabst").size, huff.encodeBits("aabst").size);
+  }
+}
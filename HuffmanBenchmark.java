@@ -0,0 +1,508 @@
+import tester.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+// This represents one operation to be timed by HuffmanBenchmark.
+interface IBenchmark {
+  // This method runs the operation once and returns a value computed from its result, so that
+  // the work cannot be optimized away.
+  long run();
+  
+  // This method returns how many bytes of input or output one run processes, or 0 if the
+  // operation is not measured in bytes.
+  long bytes();
+}
+
+// This benchmark builds a Huffman Tree from a fixed alphabet and set of frequencies.
+class BuildBenchmark implements IBenchmark {
+  ArrayList<String> letters;
+  ArrayList<Integer> numbers;
+  
+  // Constructor takes in the alphabet and frequencies to build a Huffman Tree from.
+  BuildBenchmark(ArrayList<String> letters, ArrayList<Integer> numbers) {
+    this.letters = letters;
+    this.numbers = numbers;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.letters ...   -- ArrayList<String>
+   * ... this.numbers ...   -- ArrayList<Integer>
+   * METHODS:
+   * ... run() ...          -- long
+   * ... bytes() ...        -- long
+   */
+  
+  // This method builds the Huffman Tree and returns the number of symbols in its code table.
+  public long run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return new Huffman(this.letters, this.numbers).table.symbols.size();
+  }
+  
+  // This method returns 0, since building a tree is measured per operation.
+  public long bytes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return 0;
+  }
+}
+
+// This benchmark encodes a fixed text with a Huffman Tree.
+class EncodeBenchmark implements IBenchmark {
+  Huffman huff;
+  String text;
+  
+  // Constructor takes in the Huffman Tree to encode with and the text to encode.
+  EncodeBenchmark(Huffman huff, String text) {
+    this.huff = huff;
+    this.text = text;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.huff ...                            -- Huffman
+   * ... this.text ...                            -- String
+   * METHODS:
+   * ... run() ...                                -- long
+   * ... bytes() ...                              -- long
+   * METHODS ON FIELDS:
+   * ... this.huff.encodeBits(String input) ...   -- BitBuffer
+   */
+  
+  // This method encodes the text and returns the number of bits it was encoded into.
+  public long run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.huff.encodeBits(this.text).size;
+  }
+  
+  // This method returns the number of chars in the text.
+  public long bytes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.text.length();
+  }
+}
+
+// This benchmark decodes a fixed BitBuffer with a Huffman Tree.
+class DecodeBenchmark implements IBenchmark {
+  Huffman huff;
+  BitBuffer bits;
+  long length;
+  
+  // Constructor takes in the Huffman Tree to decode with and the text whose encoding is decoded.
+  DecodeBenchmark(Huffman huff, String text) {
+    this.huff = huff;
+    this.bits = huff.encodeBits(text);
+    this.length = text.length();
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.huff ...                           -- Huffman
+   * ... this.bits ...                           -- BitBuffer
+   * ... this.length ...                         -- long
+   * METHODS:
+   * ... run() ...                               -- long
+   * ... bytes() ...                             -- long
+   * METHODS ON FIELDS:
+   * ... this.huff.decode(BitBuffer input) ...   -- String
+   */
+  
+  // This method decodes the bits and returns the number of chars they were decoded into.
+  public long run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.huff.decode(this.bits).length();
+  }
+  
+  // This method returns the number of chars in the decoded text.
+  public long bytes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.length;
+  }
+}
+
+// This benchmark decodes the four interleaved streams of a fixed text with a Huffman Tree.
+class InterleavedBenchmark implements IBenchmark {
+  Huffman huff;
+  InterleavedEncoding streams;
+  long length;
+  
+  // Constructor takes in the Huffman Tree to decode with and the text whose streams are decoded.
+  InterleavedBenchmark(Huffman huff, String text) {
+    this.huff = huff;
+    this.streams = huff.encodeInterleaved(text);
+    this.length = text.length();
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.huff ...                                                  -- Huffman
+   * ... this.streams ...                                               -- InterleavedEncoding
+   * ... this.length ...                                                -- long
+   * METHODS:
+   * ... run() ...                                                      -- long
+   * ... bytes() ...                                                    -- long
+   * METHODS ON FIELDS:
+   * ... this.huff.decodeInterleaved(InterleavedEncoding input) ...     -- String
+   */
+  
+  // This method decodes the streams and returns the number of chars they were decoded into.
+  public long run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.huff.decodeInterleaved(this.streams).length();
+  }
+  
+  // This method returns the number of chars in the decoded text.
+  public long bytes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.length;
+  }
+}
+
+// This benchmark encodes fixed binary data with a ByteHuffman, and decodes it again if asked to.
+class ByteBenchmark implements IBenchmark {
+  ByteHuffman huff;
+  byte[] data;
+  BitBuffer bits;
+  boolean decode;
+  
+  // Constructor takes in the ByteHuffman to use, the data to encode and whether to time decoding
+  // the encoded data rather than encoding it.
+  ByteBenchmark(ByteHuffman huff, byte[] data, boolean decode) {
+    this.huff = huff;
+    this.data = data;
+    this.bits = huff.encode(data);
+    this.decode = decode;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.huff ...                           -- ByteHuffman
+   * ... this.data ...                           -- byte[]
+   * ... this.bits ...                           -- BitBuffer
+   * ... this.decode ...                         -- boolean
+   * METHODS:
+   * ... run() ...                               -- long
+   * ... bytes() ...                             -- long
+   * METHODS ON FIELDS:
+   * ... this.huff.encode(byte[] input) ...      -- BitBuffer
+   * ... this.huff.decode(BitBuffer input) ...   -- byte[]
+   */
+  
+  // This method encodes the data and returns the number of bits, or decodes the encoded data and
+  // returns the number of bytes.
+  public long run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.decode) {
+      return this.huff.decode(this.bits).length;
+    }
+    return this.huff.encode(this.data).size;
+  }
+  
+  // This method returns the number of bytes in the data.
+  public long bytes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.data.length;
+  }
+}
+
+// This represents a benchmark suite for building Huffman Trees, encoding and decoding, run with
+// "java HuffmanBenchmark" on a compiled tree. Every operation is run a number of times to warm up
+// the JIT and then timed over a number of runs, reporting the time per run, the throughput in
+// MB/s and the bytes allocated per run. The corpora are English-like text, text drawn from a Zipf
+// distribution and uniformly random bytes, all generated from fixed seeds so that runs compare.
+class HuffmanBenchmark {
+  int warmupRuns;
+  int measuredRuns;
+  long sink;
+  
+  // Constructor takes in how many times to run each operation before and while timing it.
+  HuffmanBenchmark(int warmupRuns, int measuredRuns) {
+    if (warmupRuns < 0 || measuredRuns < 1) {
+      throw new IllegalArgumentException("A benchmark needs at least one measured run.");
+    }
+    this.warmupRuns = warmupRuns;
+    this.measuredRuns = measuredRuns;
+    this.sink = 0;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.warmupRuns ...                                     -- int
+   * ... this.measuredRuns ...                                   -- int
+   * ... this.sink ...                                           -- long
+   * METHODS:
+   * ... englishText(int length, long seed) ...                  -- String
+   * ... zipfText(int length, int alphabet, long seed) ...       -- String
+   * ... uniformBytes(int length, long seed) ...                 -- byte[]
+   * ... allocatedBytes() ...                                    -- long
+   * ... measure(String name, IBenchmark op) ...                 -- String
+   * ... run() ...                                               -- ArrayList<String>
+   */
+  
+  // This method generates text of the given length out of common English words picked at random
+  // in proportion to how common they are, separated by spaces and the odd punctuation.
+  String englishText(int length, long seed) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... length ...   -- int
+     * ... seed ...     -- long
+     */
+    String[] words = new String[] {"the", "of", "and", "to", "a", "in", "is", "that", "it", "was",
+        "for", "on", "are", "with", "as", "be", "his", "they", "at", "one", "have", "this", "from",
+        "by", "word", "but", "what", "some", "we", "can", "out", "other", "were", "all", "there",
+        "when", "up", "use", "your", "how", "said", "an", "each", "she", "which", "do", "their",
+        "time", "if", "will", "way", "about", "many", "then", "them", "write", "would", "like",
+        "so", "these", "her", "long", "make", "thing", "see", "him", "two", "has", "look", "more",
+        "day", "could", "go", "come", "did", "number", "sound", "no", "most", "people", "my"};
+    Random random = new Random(seed);
+    StringBuilder text = new StringBuilder(length + 8);
+    while (text.length() < length) {
+      // Squaring a uniform number favours the words at the front of the list.
+      double pick = random.nextDouble();
+      text.append(words[(int) (pick * pick * words.length)]);
+      int gap = random.nextInt(20);
+      if (gap == 0) {
+        text.append(". ");
+      } else if (gap == 1) {
+        text.append(", ");
+      } else {
+        text.append(' ');
+      }
+    }
+    return text.substring(0, length);
+  }
+  
+  // This method generates text of the given length whose chars are drawn from an alphabet of the
+  // given size, the k-th most common char occurring in proportion to 1/k.
+  String zipfText(int length, int alphabet, long seed) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... length ...     -- int
+     * ... alphabet ...   -- int
+     * ... seed ...       -- long
+     */
+    double[] cumulative = new double[alphabet];
+    double total = 0;
+    for (int k = 0; k < alphabet; k += 1) {
+      total += 1.0 / (k + 1);
+      cumulative[k] = total;
+    }
+    Random random = new Random(seed);
+    char[] text = new char[length];
+    for (int i = 0; i < length; i += 1) {
+      double pick = random.nextDouble() * total;
+      int lo = 0;
+      int hi = alphabet - 1;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (cumulative[mid] < pick) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      text[i] = (char) ('!' + lo);
+    }
+    return new String(text);
+  }
+  
+  // This method generates the given number of uniformly random bytes.
+  byte[] uniformBytes(int length, long seed) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... length ...   -- int
+     * ... seed ...     -- long
+     */
+    byte[] data = new byte[length];
+    new Random(seed).nextBytes(data);
+    return data;
+  }
+  
+  // This method returns the number of bytes allocated so far by the current thread, or -1 if the
+  // JVM does not keep track of it.
+  long allocatedBytes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+      if (counting.isThreadAllocatedMemorySupported()
+          && counting.isThreadAllocatedMemoryEnabled()) {
+        return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+  
+  // This method warms up and times the given operation and returns a line reporting the given
+  // name, the time per run, the throughput in MB/s, or "-" for operations that are not measured
+  // in bytes, and the bytes allocated per run, or "-" if they cannot be counted.
+  String measure(String name, IBenchmark op) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... name ...         -- String
+     * ... op ...           -- IBenchmark
+     * METHODS ON PARAMETERS:
+     * ... op.run() ...     -- long
+     * ... op.bytes() ...   -- long
+     */
+    for (int i = 0; i < this.warmupRuns; i += 1) {
+      this.sink += op.run();
+    }
+    long allocatedBefore = this.allocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < this.measuredRuns; i += 1) {
+      this.sink += op.run();
+    }
+    long elapsed = Math.max(1, System.nanoTime() - start);
+    long allocatedAfter = this.allocatedBytes();
+    
+    double nanosPerRun = (double) elapsed / this.measuredRuns;
+    String throughput = "-";
+    if (op.bytes() > 0) {
+      throughput = String.format("%.1f", op.bytes() * 1000.0 / nanosPerRun);
+    }
+    String allocated = "-";
+    if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+      allocated = String.valueOf((allocatedAfter - allocatedBefore) / this.measuredRuns);
+    }
+    return String.format("%-32s %14.0f %10s %14s", name, nanosPerRun, throughput, allocated);
+  }
+  
+  // This method runs the whole suite and returns its report, one line per operation after a
+  // header line.
+  ArrayList<String> run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    ArrayList<String> report = new ArrayList<String>();
+    report.add(String.format("%-32s %14s %10s %14s", "benchmark", "ns/op", "MB/s", "B/op"));
+    
+    int[] alphabets = new int[] {2, 16, 256, 4096};
+    for (int a = 0; a < alphabets.length; a += 1) {
+      Random random = new Random(alphabets[a]);
+      ArrayList<String> letters = new ArrayList<String>();
+      ArrayList<Integer> numbers = new ArrayList<Integer>();
+      for (int k = 0; k < alphabets[a]; k += 1) {
+        letters.add(String.valueOf((char) ('!' + k)));
+        numbers.add(1 + random.nextInt(100000));
+      }
+      report.add(this.measure("build/" + alphabets[a], new BuildBenchmark(letters, numbers)));
+    }
+    
+    int length = 1 << 20;
+    String[] names = new String[] {"english", "zipf-64", "zipf-1024"};
+    String[] texts = new String[] {this.englishText(length, 1), this.zipfText(length, 64, 2),
+        this.zipfText(length, 1024, 3)};
+    for (int i = 0; i < texts.length; i += 1) {
+      FrequencyCounter counter = new FrequencyCounter();
+      counter.count(texts[i]);
+      Huffman huff = counter.toHuffman();
+      report.add(this.measure("encode/" + names[i], new EncodeBenchmark(huff, texts[i])));
+      report.add(this.measure("decode/" + names[i], new DecodeBenchmark(huff, texts[i])));
+      report.add(this.measure("decode-4x/" + names[i], new InterleavedBenchmark(huff, texts[i])));
+    }
+    
+    byte[] data = this.uniformBytes(length, 4);
+    ByteHuffman bytes = new ByteHuffman(data);
+    report.add(this.measure("encode/uniform-bytes", new ByteBenchmark(bytes, data, false)));
+    report.add(this.measure("decode/uniform-bytes", new ByteBenchmark(bytes, data, true)));
+    return report;
+  }
+  
+  // This method runs the suite with 20 warm-up runs and 50 measured runs of every operation, or
+  // the numbers given as arguments, and prints the report.
+  public static void main(String[] args) {
+    int warmupRuns = 20;
+    int measuredRuns = 50;
+    if (args.length == 2) {
+      warmupRuns = Integer.parseInt(args[0]);
+      measuredRuns = Integer.parseInt(args[1]);
+    }
+    HuffmanBenchmark benchmark = new HuffmanBenchmark(warmupRuns, measuredRuns);
+    ArrayList<String> report = benchmark.run();
+    for (int i = 0; i < report.size(); i += 1) {
+      System.out.println(report.get(i));
+    }
+  }
+}
+
+class ExamplesHuffmanBenchmark {
+  HuffmanBenchmark bench = new HuffmanBenchmark(0, 1);
+  
+  //tests that the constructor throws exceptions when expected
+  boolean testHuffmanBenchmarkExceptions(Tester t) {
+    return t.checkConstructorException(
+        new IllegalArgumentException("A benchmark needs at least one measured run."),
+        "HuffmanBenchmark", 5, 0);
+  }
+  
+  //tests that the englishText, zipfText and uniformBytes methods work as expected
+  void testCorpora(Tester t) {
+    String english = this.bench.englishText(5000, 7);
+    t.checkExpect(english.length(), 5000);
+    t.checkExpect(english, this.bench.englishText(5000, 7));
+    t.checkExpect(english.contains(" the "), true);
+    String zipf = this.bench.zipfText(10000, 8, 7);
+    t.checkExpect(zipf.length(), 10000);
+    FrequencyCounter counter = new FrequencyCounter();
+    counter.count(zipf);
+    t.checkExpect(counter.symbols().length, 8);
+    t.checkExpect(counter.get('!') > counter.get('"'), true);
+    t.checkExpect(counter.get('"') > counter.get('('), true);
+    t.checkExpect(this.bench.uniformBytes(100, 3).length, 100);
+    t.checkExpect(this.bench.uniformBytes(100, 3), this.bench.uniformBytes(100, 3));
+  }
+  
+  //tests that the run and bytes methods of the benchmarks work as expected
+  void testBenchmarks(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>(Arrays.asList("a", "b", "c"));
+    ArrayList<Integer> numbers = new ArrayList<Integer>(Arrays.asList(2, 1, 1));
+    Huffman huff = new Huffman(letters, numbers);
+    t.checkExpect(new BuildBenchmark(letters, numbers).run(), 3L);
+    t.checkExpect(new BuildBenchmark(letters, numbers).bytes(), 0L);
+    t.checkExpect(new EncodeBenchmark(huff, "aabc").run(), 6L);
+    t.checkExpect(new EncodeBenchmark(huff, "aabc").bytes(), 4L);
+    t.checkExpect(new DecodeBenchmark(huff, "aabc").run(), 4L);
+    t.checkExpect(new DecodeBenchmark(huff, "aabc").bytes(), 4L);
+    t.checkExpect(new InterleavedBenchmark(huff, "aabca").run(), 5L);
+    t.checkExpect(new InterleavedBenchmark(huff, "aabca").bytes(), 5L);
+    ByteHuffman bytes = new ByteHuffman(new byte[] {1, 1, 2});
+    t.checkExpect(new ByteBenchmark(bytes, new byte[] {1, 2, 2}, false).run(), 3L);
+    t.checkExpect(new ByteBenchmark(bytes, new byte[] {1, 2, 2}, true).run(), 3L);
+  }
+  
+  //tests that the measure and allocatedBytes methods work as expected
+  void testMeasure(Tester t) {
+    HuffmanBenchmark twice = new HuffmanBenchmark(1, 2);
+    Huffman huff = new Huffman(new ArrayList<String>(Arrays.asList("a", "b")),
+        new ArrayList<Integer>(Arrays.asList(1, 1)));
+    String line = twice.measure("encode/ab", new EncodeBenchmark(huff, "abba"));
+    t.checkExpect(line.startsWith("encode/ab "), true);
+    t.checkExpect(twice.sink, 12L);
+    t.checkExpect(this.bench.allocatedBytes() != 0, true);
+  }
+}
@@ -0,0 +1,639 @@
+import tester.*;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// This represents a compiled Huffman code that never changes once it is made, so that a single
+// instance can be shared by any number of threads for encoding and decoding without locking.
+// It is built from the same inputs as a Huffman Tree, which it copies, and keeps only the code
+// table and lookup tables compiled from that tree, never handing out anything that could change
+// them. Both tables are mutable objects, so they are private: a HuffmanCode shared through a
+// CodeCache only offers methods that read them. Every field is final, so a HuffmanCode is safely
+// published to every thread that can see a reference to it.
+// A HuffmanCode can also be saved to a file and loaded back without building a tree again. The
+// file holds, all big-endian:
+// - the int MAGIC and the int VERSION of the format
+// - the number of letters, then every letter with its frequency
+// - the number of slots of the code table, then the symbol, codeword length as a byte and
+//   codeword as a long of every slot
+// - the rootBits, subBits and number of entries of the lookup tables, then every entry
+// - the CRC32 checksum of everything before it, as an int
+// Strings are written as their number of chars followed by the chars.
+class HuffmanCode {
+  static final int MAGIC = 0x48554643;
+  static final int VERSION = 1;
+  final List<String> letters;
+  final List<Integer> numbers;
+  private final CodeTable table;
+  private final DecodeTable decoder;
+  
+  // Constructor takes in an ArrayList of symbols to encode and their respective frequencies in
+  // an ArrayList of integers, with the same requirements as a Huffman Tree, and compiles the code.
+  // Changing either ArrayList afterwards does not change this HuffmanCode. A tree whose codewords
+  // do not fit the code table cannot be compiled.
+  HuffmanCode(ArrayList<String> letters, ArrayList<Integer> numbers) {
+    ArrayList<String> ownLetters = new ArrayList<String>(letters);
+    ArrayList<Integer> ownNumbers = new ArrayList<Integer>(numbers);
+    Huffman huff = new Huffman(ownLetters, ownNumbers);
+    if (huff.table == null) {
+      throw new IllegalArgumentException("Codewords longer than 64 bits are not supported.");
+    }
+    this.letters = Collections.unmodifiableList(ownLetters);
+    this.numbers = Collections.unmodifiableList(ownNumbers);
+    this.table = huff.table;
+    this.decoder = huff.decoder;
+  }
+  
+  // Constructor takes in the bytes of a saved HuffmanCode between the position and the limit of
+  // the given buffer, and loads the code from them without building a tree. The lookup tables
+  // are copied out of the buffer in bulk, so that loading a memory-mapped file is fast. The
+  // checksum only catches damage, so everything it covers is checked as well: negative counts,
+  // codewords that are not 1 to 64 bits long, repeated symbols and lookup tables that decoding
+  // could not follow make a malformed code file.
+  HuffmanCode(ByteBuffer serialized) {
+    ByteBuffer in = serialized.duplicate();
+    int start = in.position();
+    int size = in.remaining();
+    if (size < 12 || in.getInt(start) != MAGIC) {
+      throw new IllegalArgumentException("Not a saved Huffman code.");
+    }
+    int version = in.getInt(start + 4);
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported code file version " + version + ".");
+    }
+    in.limit(start + size - 4);
+    CRC32 checksum = new CRC32();
+    checksum.update(in.duplicate());
+    if ((int) checksum.getValue() != serialized.getInt(start + size - 4)) {
+      throw new IllegalArgumentException("Code file checksum does not match.");
+    }
+    in.position(start + 8);
+    
+    ArrayList<String> ownLetters = new ArrayList<String>();
+    ArrayList<Integer> ownNumbers = new ArrayList<Integer>();
+    CodeTable codes = new CodeTable();
+    long[] entries;
+    int rootBits;
+    int subBits;
+    try {
+      int count = in.getInt();
+      if (count < 0) {
+        throw new IllegalArgumentException("Malformed code file.");
+      }
+      for (int i = 0; i < count; i += 1) {
+        ownLetters.add(this.readString(in));
+        ownNumbers.add(in.getInt());
+      }
+      int slots = in.getInt();
+      if (slots < 0) {
+        throw new IllegalArgumentException("Malformed code file.");
+      }
+      for (int slot = 0; slot < slots; slot += 1) {
+        String symbol = this.readString(in);
+        int length = in.get();
+        long code = in.getLong();
+        if (length < 1 || length > 64 || (length < 64 && (code >>> length) != 0)
+            || codes.index.get(symbol) != null) {
+          throw new IllegalArgumentException("Malformed code file.");
+        }
+        codes.add(symbol, code, length);
+      }
+      rootBits = in.getInt();
+      subBits = in.getInt();
+      int used = in.getInt();
+      if (used < 0 || used > in.remaining() / 8) {
+        throw new IllegalArgumentException("Malformed code file.");
+      }
+      entries = new long[used];
+      in.asLongBuffer().get(entries);
+      in.position(in.position() + used * 8);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Malformed code file.");
+    }
+    if (in.hasRemaining() || codes.symbols.size() < 1) {
+      throw new IllegalArgumentException("Malformed code file.");
+    }
+    DecodeTable loaded;
+    try {
+      loaded = new DecodeTable(codes, rootBits, subBits, entries);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed code file.");
+    }
+    this.letters = Collections.unmodifiableList(ownLetters);
+    this.numbers = Collections.unmodifiableList(ownNumbers);
+    this.table = codes;
+    this.decoder = loaded;
+  }
+  
+  // Constructor loads the HuffmanCode saved in the file at the given path, mapping the file into
+  // memory instead of reading it.
+  HuffmanCode(Path file) throws IOException {
+    this(new Utils().mapFile(file));
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.letters ...                                    -- List<String>
+   * ... this.numbers ...                                    -- List<Integer>
+   * ... this.table ...                                      -- CodeTable
+   * ... this.decoder ...                                    -- DecodeTable
+   * METHODS:
+   * ... codeLength(String symbol) ...                       -- int
+   * ... encode(String input) ...                            -- ArrayList<Boolean>
+   * ... encodeBits(String input) ...                        -- BitBuffer
+   * ... decode(ArrayList<Boolean> input) ...                -- String
+   * ... decode(BitBuffer input) ...                         -- String
+   * ... encodeBatch(String[] messages, MessageBatch into) ...   -- MessageBatch
+   * ... encodeBatch(List<String> messages, 
+   *                 MessageBatch into) ...                  -- MessageBatch
+   * ... encodeBatch(String[] messages) ...                  -- MessageBatch
+   * ... decodeBatch(MessageBatch batch, 
+   *                 StringBuilder text, int[] ends) ...     -- void
+   * ... decodeBatch(MessageBatch batch, String[] messages) ...   -- void
+   * ... readString(ByteBuffer in) ...                       -- String
+   * ... writeString(DataOutputStream out, String str) ...   -- void
+   * ... toByteArray() ...                                   -- byte[]
+   * ... save(Path file) ...                                 -- void
+   * METHODS ON FIELDS:
+   * ... this.table.index.get(String symbol) ...             -- Integer
+   * ... this.table.toBits(String input) ...                 -- BitBuffer
+   * ... this.decoder.decode(BitBuffer input) ...            -- String
+   */
+  
+  // This method returns the length of the codeword of the given symbol, or 0 if the symbol is not
+  // part of the language.
+  int codeLength(String symbol) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... symbol ...   -- String
+     */
+    Integer slot = this.table.index.get(symbol);
+    if (slot == null) {
+      return 0;
+    }
+    return this.table.lengths[slot];
+  }
+  
+  // This method encodes the given string into an arraylist of booleans, just like the Huffman
+  // Tree this code was compiled from.
+  ArrayList<Boolean> encode(String input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     */
+    return this.encodeBits(input).toBooleans();
+  }
+  
+  // This method encodes the given string into a new BitBuffer. It only reads this code's tables,
+  // so any number of threads can call it at once.
+  BitBuffer encodeBits(String input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     */
+    return this.table.toBits(input);
+  }
+  
+  // This method decodes the given arraylist of booleans, just like the Huffman Tree this code was
+  // compiled from.
+  String decode(ArrayList<Boolean> input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- ArrayList<Boolean>
+     */
+    return this.decode(new BitBuffer(input));
+  }
+  
+  // This method decodes the given BitBuffer through this code's lookup tables. It only reads
+  // them, so any number of threads can call it at once.
+  String decode(BitBuffer input) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- BitBuffer
+     */
+    return this.decoder.decode(input);
+  }
+  
+  // This method encodes the given messages into the given MessageBatch, replacing the messages
+  // it held, and returns it. Reusing the same MessageBatch keeps encoding from allocating.
+  MessageBatch encodeBatch(String[] messages, MessageBatch into) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... messages ...   -- String[]
+     * ... into ...       -- MessageBatch
+     */
+    into.encode(this.table, messages);
+    return into;
+  }
+  
+  // This method encodes the given messages into the given MessageBatch, replacing the messages
+  // it held, and returns it.
+  MessageBatch encodeBatch(List<String> messages, MessageBatch into) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... messages ...   -- List<String>
+     * ... into ...       -- MessageBatch
+     */
+    into.encode(this.table, messages);
+    return into;
+  }
+  
+  // This method encodes the given messages into the MessageBatch of the calling thread and
+  // returns it. The batch is only valid until the same thread encodes another batch this way.
+  MessageBatch encodeBatch(String[] messages) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... messages ...   -- String[]
+     */
+    return this.encodeBatch(messages, MessageBatch.LOCAL.get());
+  }
+  
+  // EFFECT: Decodes every message of the given MessageBatch, appending them one after another to
+  // the given StringBuilder and recording where every message ends in the given array.
+  void decodeBatch(MessageBatch batch, StringBuilder text, int[] ends) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... batch ...   -- MessageBatch
+     * ... text ...    -- StringBuilder
+     * ... ends ...    -- int[]
+     */
+    batch.decode(this.decoder, text, ends);
+  }
+  
+  // EFFECT: Decodes every message of the given MessageBatch into its own string, stored in the
+  // given array at the index of the message.
+  void decodeBatch(MessageBatch batch, String[] messages) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... batch ...      -- MessageBatch
+     * ... messages ...   -- String[]
+     */
+    batch.decode(this.decoder, messages);
+  }
+  
+  // This method reads a string written by the writeString method out of the given buffer.
+  String readString(ByteBuffer in) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... in ...   -- ByteBuffer
+     */
+    int length = in.getInt();
+    if (length < 0 || length > in.remaining() / 2) {
+      throw new IllegalArgumentException("Malformed code file.");
+    }
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i += 1) {
+      chars[i] = in.getChar();
+    }
+    return new String(chars);
+  }
+  
+  // EFFECT: Writes the number of chars of the given string to the given stream, then the chars.
+  void writeString(DataOutputStream out, String str) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... out ...   -- DataOutputStream
+     * ... str ...   -- String
+     */
+    out.writeInt(str.length());
+    out.writeChars(str);
+  }
+  
+  // This method returns the bytes of this HuffmanCode in the format described above, which the
+  // constructor taking in a ByteBuffer loads again.
+  byte[] toByteArray() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(this.letters.size());
+      for (int i = 0; i < this.letters.size(); i += 1) {
+        this.writeString(out, this.letters.get(i));
+        out.writeInt(this.numbers.get(i));
+      }
+      out.writeInt(this.table.symbols.size());
+      for (int slot = 0; slot < this.table.symbols.size(); slot += 1) {
+        this.writeString(out, this.table.symbols.get(slot));
+        out.writeByte(this.table.lengths[slot]);
+        out.writeLong(this.table.codes[slot]);
+      }
+      out.writeInt(this.decoder.rootBits);
+      out.writeInt(this.decoder.subBits);
+      out.writeInt(this.decoder.used);
+      for (int i = 0; i < this.decoder.used; i += 1) {
+        out.writeLong(this.decoder.entries[i]);
+      }
+      out.flush();
+      CRC32 checksum = new CRC32();
+      checksum.update(bytes.toByteArray());
+      out.writeInt((int) checksum.getValue());
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write the Huffman code.", e);
+    }
+    return bytes.toByteArray();
+  }
+  
+  // EFFECT: Saves this HuffmanCode to the file at the given path, which is created or replaced.
+  void save(Path file) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... file ...   -- Path
+     */
+    Files.write(file, this.toByteArray());
+  }
+}
+
+class ExamplesHuffmanCode {
+  ArrayList<String> letters = new ArrayList<String>(Arrays.asList("a", "b", "c", "d", "e", "f"));
+  ArrayList<Integer> numbers = new ArrayList<Integer>(Arrays.asList(12, 45, 5, 13, 9, 16));
+  
+  //tests that the constructor works as expected
+  void testHuffmanCodeConstructor(Tester t) {
+    ArrayList<String> letters = new ArrayList<String>(this.letters);
+    ArrayList<Integer> numbers = new ArrayList<Integer>(this.numbers);
+    HuffmanCode code = new HuffmanCode(letters, numbers);
+    letters.set(0, "z");
+    numbers.clear();
+    t.checkExpect(new ArrayList<String>(code.letters), this.letters);
+    t.checkExpect(new ArrayList<Integer>(code.numbers), this.numbers);
+    t.checkExpect(code.decode(code.encodeBits("abc")), "abc");
+    t.checkConstructorException(new IllegalArgumentException("Lists don't meet input criteria."),
+        "HuffmanCode", new ArrayList<String>(Arrays.asList("a")),
+        new ArrayList<Integer>(Arrays.asList(1)));
+    ArrayList<String> deepLetters = new ArrayList<String>();
+    ArrayList<Integer> deepNumbers = new ArrayList<Integer>();
+    for (int i = 0; i < 70; i += 1) {
+      deepLetters.add(Character.toString((char) ('0' + i)));
+      deepNumbers.add(-i);
+    }
+    t.checkConstructorException(
+        new IllegalArgumentException("Codewords longer than 64 bits are not supported."),
+        "HuffmanCode", deepLetters, deepNumbers);
+  }
+  
+  //tests that the codeLength method works as expected
+  boolean testCodeLength(Tester t) {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    return t.checkExpect(code.codeLength("b"), 1)
+        && t.checkExpect(code.codeLength("c"), 4)
+        && t.checkExpect(code.codeLength("g"), 0);
+  }
+  
+  //tests that the encode and encodeBits methods work as expected
+  void testEncode(Tester t) {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    Huffman huff = new Huffman(this.letters, this.numbers);
+    t.checkExpect(code.encode("fedcba"), huff.encode("fedcba"));
+    t.checkExpect(code.encodeBits("abcdef").toBooleans(), huff.encode("abcdef"));
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode g but that is not part of the language."), code, "encode", "abg");
+  }
+  
+  //tests that the decode methods work as expected
+  void testDecode(Tester t) {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    Huffman huff = new Huffman(this.letters, this.numbers);
+    t.checkExpect(code.decode(huff.encode("badcafe")), "badcafe");
+    t.checkExpect(code.decode(huff.encodeBits("feed")), "feed");
+    BitBuffer partial = new BitBuffer(0);
+    partial.append(0L, 1);
+    t.checkExpect(code.decode(partial), huff.decode(partial));
+  }
+  
+  //tests that a single HuffmanCode can be shared by several threads at once
+  void testConcurrentUse(Tester t) throws InterruptedException {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    String[] results = new String[8];
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i += 1) {
+      threads[i] = new SharedCodeUser(code, results, i);
+      threads[i].start();
+    }
+    for (int i = 0; i < threads.length; i += 1) {
+      threads[i].join();
+    }
+    boolean all = true;
+    for (int i = 0; i < results.length; i += 1) {
+      all = all && "ok".equals(results[i]);
+    }
+    t.checkExpect(all, true);
+  }
+  
+  //tests that the encodeBatch and decodeBatch methods work as expected
+  void testBatch(Tester t) {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    String[] messages = new String[] {"face", "bead", "", "a"};
+    MessageBatch batch = code.encodeBatch(messages, new MessageBatch());
+    t.checkExpect(batch.count, 4);
+    t.checkExpect(batch.bits.slice(0, batch.offsets[1]).toBooleans(), code.encode("face"));
+    String[] decoded = new String[4];
+    code.decodeBatch(batch, decoded);
+    t.checkExpect(decoded, messages);
+    StringBuilder text = new StringBuilder();
+    int[] ends = new int[4];
+    code.decodeBatch(code.encodeBatch(Arrays.asList("dab", "fa"), batch), text, ends);
+    t.checkExpect(text.toString(), "dabfa");
+    t.checkExpect(ends, new int[] {3, 5, 0, 0});
+    MessageBatch local = code.encodeBatch(messages);
+    t.checkExpect(local == MessageBatch.LOCAL.get(), true);
+    t.checkExpect(local.count, 4);
+  }
+  
+  //tests that the readString and writeString methods work as expected
+  void testReadAndWriteString(Tester t) throws IOException {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    code.writeString(new DataOutputStream(bytes), "the\u4E2D");
+    code.writeString(new DataOutputStream(bytes), "");
+    byte[] written = bytes.toByteArray();
+    t.checkExpect(written.length, 16);
+    ByteBuffer in = ByteBuffer.wrap(written);
+    t.checkExpect(code.readString(in), "the\u4E2D");
+    t.checkExpect(code.readString(in), "");
+    t.checkException(new IllegalArgumentException("Malformed code file."),
+        code, "readString", ByteBuffer.wrap(new byte[] {0, 0, 0, 3, 0, 97}));
+  }
+  
+  //tests that the toByteArray method works as expected
+  void testToByteArray(Tester t) {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    ByteBuffer saved = ByteBuffer.wrap(code.toByteArray());
+    t.checkExpect(saved.getInt(0), HuffmanCode.MAGIC);
+    t.checkExpect(saved.getInt(4), HuffmanCode.VERSION);
+    t.checkExpect(saved.getInt(8), 6);
+    t.checkExpect(saved.getInt(12), 1);
+    t.checkExpect(saved.getChar(16), 'a');
+    t.checkExpect(saved.getInt(18), 12);
+    CRC32 checksum = new CRC32();
+    checksum.update(saved.array(), 0, saved.limit() - 4);
+    t.checkExpect(saved.getInt(saved.limit() - 4), (int) checksum.getValue());
+    int used = saved.getInt(8 + 4 + 6 * 10 + 4 + 6 * 15 + 8);
+    t.checkExpect(saved.limit(), 8 + 4 + 6 * 10 + 4 + 6 * 15 + 12 + used * 8 + 4);
+  }
+  
+  //tests that the constructor loading a saved HuffmanCode works as expected
+  void testLoadedConstructor(Tester t) {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    byte[] saved = code.toByteArray();
+    HuffmanCode loaded = new HuffmanCode(ByteBuffer.wrap(saved));
+    t.checkExpect(new ArrayList<String>(loaded.letters), this.letters);
+    t.checkExpect(new ArrayList<Integer>(loaded.numbers), this.numbers);
+    t.checkExpect(loaded.encode("fedcba"), code.encode("fedcba"));
+    t.checkExpect(loaded.decode(code.encodeBits("badcafe")), "badcafe");
+    t.checkExpect(loaded.toByteArray(), saved);
+    
+    ByteBuffer offset = ByteBuffer.allocate(saved.length + 3);
+    offset.position(3);
+    offset.put(saved);
+    offset.position(3);
+    t.checkExpect(new HuffmanCode(offset).codeLength("b"), 1);
+    
+    ArrayList<String> words = new ArrayList<String>(Arrays.asList("the", " ", "then", "a"));
+    ArrayList<Integer> counts = new ArrayList<Integer>(Arrays.asList(9, 12, 3, 4));
+    HuffmanCode multi = new HuffmanCode(words, counts);
+    HuffmanCode loadedMulti = new HuffmanCode(ByteBuffer.wrap(multi.toByteArray()));
+    t.checkExpect(loadedMulti.decode(loadedMulti.encodeBits("then the a")), "then the a");
+  }
+  
+  //tests that the constructor loading a saved HuffmanCode throws exceptions when expected
+  void testLoadedConstructorExceptions(Tester t) {
+    byte[] saved = new HuffmanCode(this.letters, this.numbers).toByteArray();
+    t.checkConstructorException(new IllegalArgumentException("Not a saved Huffman code."),
+        "HuffmanCode", ByteBuffer.wrap(new byte[11]));
+    byte[] versioned = saved.clone();
+    versioned[7] = 2;
+    t.checkConstructorException(
+        new IllegalArgumentException("Unsupported code file version 2."),
+        "HuffmanCode", ByteBuffer.wrap(versioned));
+    byte[] corrupt = saved.clone();
+    corrupt[40] ^= 1;
+    t.checkConstructorException(
+        new IllegalArgumentException("Code file checksum does not match."),
+        "HuffmanCode", ByteBuffer.wrap(corrupt));
+    ByteBuffer truncated = ByteBuffer.allocate(20);
+    truncated.putInt(HuffmanCode.MAGIC);
+    truncated.putInt(HuffmanCode.VERSION);
+    truncated.putInt(5);
+    truncated.putInt(1);
+    CRC32 checksum = new CRC32();
+    checksum.update(truncated.array(), 0, 16);
+    truncated.putInt((int) checksum.getValue());
+    truncated.flip();
+    t.checkConstructorException(new IllegalArgumentException("Malformed code file."),
+        "HuffmanCode", truncated);
+    // saved holds 6 letters from byte 8, then 6 slots from byte 72, the first of them "b" with
+    // its length at byte 82 and its codeword from byte 83, the second "a" with its char at byte
+    // 96, and 16 entries from byte 178, the first of them with its slot at bytes 178 to 181 and
+    // its length at byte 185
+    byte[] negative = saved.clone();
+    negative[8] = (byte) 0x80;
+    byte[] empty = saved.clone();
+    empty[82] = 0;
+    byte[] tooLong = saved.clone();
+    tooLong[82] = 65;
+    byte[] wide = saved.clone();
+    wide[83] = 0x40;
+    byte[] repeated = saved.clone();
+    repeated[96] = 'b';
+    byte[] slotPast = saved.clone();
+    slotPast[181] = 6;
+    byte[] standing = saved.clone();
+    standing[185] = 0;
+    byte[] linkPast = saved.clone();
+    linkPast[181] = 16;
+    linkPast[185] = (byte) 0x81;
+    byte[] linkBack = saved.clone();
+    linkBack[185] = (byte) 0x81;
+    byte[][] forged = {negative, empty, tooLong, wide, repeated, slotPast, standing, linkPast,
+        linkBack};
+    for (int i = 0; i < forged.length; i += 1) {
+      t.checkConstructorException(new IllegalArgumentException("Malformed code file."),
+          "HuffmanCode", this.resign(forged[i]));
+    }
+    t.checkExpect(new HuffmanCode(this.resign(saved.clone())).decode(
+        new HuffmanCode(this.letters, this.numbers).encodeBits("fade")), "fade");
+  }
+  
+  // This method writes the checksum of the given bytes of a saved HuffmanCode again, so that
+  // loading them gets past the checksum, and returns a buffer holding them.
+  ByteBuffer resign(byte[] forged) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... forged ...   -- byte[]
+     */
+    CRC32 checksum = new CRC32();
+    checksum.update(forged, 0, forged.length - 4);
+    ByteBuffer buffer = ByteBuffer.wrap(forged);
+    buffer.putInt(forged.length - 4, (int) checksum.getValue());
+    return buffer;
+  }
+  
+  //tests that the save method and the constructor loading a file work as expected
+  void testSaveAndLoad(Tester t) throws IOException {
+    HuffmanCode code = new HuffmanCode(this.letters, this.numbers);
+    Path file = Files.createTempFile("huffman", ".code");
+    code.save(file);
+    t.checkExpect(Files.readAllBytes(file), code.toByteArray());
+    HuffmanCode loaded = new HuffmanCode(file);
+    t.checkExpect(loaded.decode(code.encodeBits("deadbeef")), "deadbeef");
+    Files.delete(file);
+  }
+}
+
+// This represents a thread used by ExamplesHuffmanCode that encodes and decodes many strings with
+// a shared HuffmanCode and records whether every one of them came back unchanged.
+class SharedCodeUser extends Thread {
+  HuffmanCode code;
+  String[] results;
+  int index;
+  
+  // Constructor takes in the shared HuffmanCode, the array to record the result in and the index
+  // of this thread's result.
+  SharedCodeUser(HuffmanCode code, String[] results, int index) {
+    this.code = code;
+    this.results = results;
+    this.index = index;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.code ...      -- HuffmanCode
+   * ... this.results ...   -- String[]
+   * ... this.index ...     -- int
+   * METHODS:
+   * ... run() ...          -- void
+   */
+  
+  // EFFECT: Encodes and decodes a thousand strings and records "ok" if every one of them came
+  // back unchanged, or the first one that did not.
+  public void run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    String result = "ok";
+    for (int i = 0; i < 1000 && result.equals("ok"); i += 1) {
+      StringBuilder text = new StringBuilder();
+      for (int j = 0; j < 50; j += 1) {
+        text.append((char) ('a' + (i * 7 + j * this.index) % 6));
+      }
+      if (!this.code.decode(this.code.encodeBits(text.toString())).equals(text.toString())) {
+        result = text.toString();
+      }
+    }
+    this.results[this.index] = result;
+  }
+}
@@ -0,0 +1,323 @@
+import tester.*;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// This represents a compressor of whole files with a ByteHuffman code, which reads and writes
+// them through memory-mapped regions of a fixed size, so that files far larger than the heap are
+// compressed without ever being copied into a String or a byte array. A compressed file starts
+// with a header that holds the length of the original file as a long and the 256 byte
+// frequencies the code was built from as ints, followed by the packed bits, first bit in the most
+// significant position of each byte, with zeros padding the last byte.
+class HuffmanFile {
+  static final int HEADER = 8 + 256 * 4;
+  int window;
+  
+  // Constructor takes in the number of bytes of a file that are mapped at once.
+  HuffmanFile(int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("Mapped regions must hold at least one byte.");
+    }
+    this.window = window;
+  }
+  
+  // Constructor maps a gigabyte of a file at once.
+  HuffmanFile() {
+    this(1 << 30);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.window ...                                                  -- int
+   * METHODS:
+   * ... map(FileChannel channel, FileChannel.MapMode mode,
+   *         long start, long end) ...                                    -- MappedByteBuffer
+   * ... compress(Path in, Path out) ...                                  -- void
+   * ... decompress(Path in, Path out) ...                                -- void
+   */
+  
+  // This method maps the region of the given channel that starts at the given position, holding
+  // as many bytes as this HuffmanFile maps at once, but none at or past the given end.
+  MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long start, long end)
+      throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... channel ...                                                -- FileChannel
+     * ... mode ...                                                   -- FileChannel.MapMode
+     * ... start ...                                                  -- long
+     * ... end ...                                                    -- long
+     * METHODS ON PARAMETERS:
+     * ... channel.map(FileChannel.MapMode mode, long position, long size) ...   -- MappedByteBuffer
+     */
+    return channel.map(mode, start, Math.min(this.window, end - start));
+  }
+  
+  // EFFECT: Compresses the file at the first given path into the file at the second one, which
+  // is created or replaced. The input is read twice, once to count its bytes and build the code
+  // and once to encode them, and the codewords are packed straight into the mapped output.
+  void compress(Path in, Path out) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... in ...    -- Path
+     * ... out ...   -- Path
+     */
+    FileChannel input = FileChannel.open(in, StandardOpenOption.READ);
+    FileChannel output = FileChannel.open(out, StandardOpenOption.READ, StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      long length = input.size();
+      FrequencyCounter counter = new FrequencyCounter();
+      for (long pos = 0; pos < length; pos += this.window) {
+        counter.count(this.map(input, FileChannel.MapMode.READ_ONLY, pos, length));
+      }
+      ByteHuffman code = counter.toByteHuffman();
+      long bits = 0;
+      for (int b = 0; b < 256; b += 1) {
+        if (code.lengths[b] > 56) {
+          throw new IllegalArgumentException("Codewords longer than 56 bits cannot be mapped.");
+        }
+        bits += counter.small[b] * code.lengths[b];
+      }
+      long size = HEADER + (bits + 7) / 8;
+      
+      MappedByteBuffer header = output.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+      header.putLong(length);
+      for (int b = 0; b < 256; b += 1) {
+        header.putInt(code.counts[b]);
+      }
+      
+      long[] codes = code.codes;
+      int[] lengths = code.lengths;
+      long acc = 0;
+      int accBits = 0;
+      long outPos = HEADER;
+      MappedByteBuffer target = this.map(output, FileChannel.MapMode.READ_WRITE, outPos, size);
+      for (long pos = 0; pos < length; pos += this.window) {
+        MappedByteBuffer source = this.map(input, FileChannel.MapMode.READ_ONLY, pos, length);
+        int limit = source.limit();
+        for (int i = 0; i < limit; i += 1) {
+          int b = source.get(i) & 0xFF;
+          acc = (acc << lengths[b]) | codes[b];
+          accBits += lengths[b];
+          while (accBits >= 8) {
+            accBits -= 8;
+            if (!target.hasRemaining()) {
+              target = this.map(output, FileChannel.MapMode.READ_WRITE, outPos, size);
+            }
+            target.put((byte) (acc >>> accBits));
+            outPos += 1;
+          }
+        }
+      }
+      if (accBits > 0) {
+        if (!target.hasRemaining()) {
+          target = this.map(output, FileChannel.MapMode.READ_WRITE, outPos, size);
+        }
+        target.put((byte) (acc << (8 - accBits)));
+      }
+    } finally {
+      input.close();
+      output.close();
+    }
+  }
+  
+  // EFFECT: Decompresses the file at the first given path, written by the compress method, into
+  // the file at the second one, which is created or replaced. Bytes are decoded through the
+  // lookup tables of the code straight into the mapped output. Since every byte takes at least
+  // one bit, a header claiming more bytes than there are bits is rejected before the output is
+  // mapped, rather than growing the output to the claimed length.
+  void decompress(Path in, Path out) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... in ...    -- Path
+     * ... out ...   -- Path
+     */
+    FileChannel input = FileChannel.open(in, StandardOpenOption.READ);
+    FileChannel output = FileChannel.open(out, StandardOpenOption.READ, StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      long size = input.size();
+      if (size < HEADER) {
+        throw new IOException("Compressed file is missing its header.");
+      }
+      MappedByteBuffer header = input.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+      long length = header.getLong();
+      int[] counts = new int[256];
+      for (int b = 0; b < 256; b += 1) {
+        counts[b] = header.getInt();
+      }
+      if (length < 0 || length > (size - HEADER) * 8) {
+        throw new IOException("Compressed file has a malformed header.");
+      }
+      ByteHuffman code;
+      try {
+        code = new ByteHuffman(counts);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Compressed file has a malformed header.");
+      }
+      
+      DecodeTable table = code.decoder;
+      long[] entries = table.entries;
+      byte[] values = code.values;
+      int rootBits = table.rootBits;
+      long window = 0;
+      int windowBits = 0;
+      long inPos = HEADER;
+      MappedByteBuffer source = this.map(input, FileChannel.MapMode.READ_ONLY, inPos, size);
+      long outPos = 0;
+      MappedByteBuffer target = null;
+      while (outPos < length) {
+        while (windowBits <= 56 && inPos < size) {
+          if (!source.hasRemaining()) {
+            source = this.map(input, FileChannel.MapMode.READ_ONLY, inPos, size);
+          }
+          window |= (long) (source.get() & 0xFF) << (56 - windowBits);
+          windowBits += 8;
+          inPos += 1;
+        }
+        int consumed = 0;
+        int width = rootBits;
+        long entry = entries[(int) (window >>> (64 - width))];
+        while ((entry & 0x80L) != 0) {
+          consumed += width;
+          width = (int) (entry & 0x7FL);
+          entry = entries[(int) (entry >>> 32) + (int) ((window << consumed) >>> (64 - width))];
+        }
+        int used = consumed + (int) (entry & 0x7FL);
+        if (used > windowBits) {
+          throw new IOException("Compressed file ends in the middle of a codeword.");
+        }
+        if (target == null || !target.hasRemaining()) {
+          target = this.map(output, FileChannel.MapMode.READ_WRITE, outPos, length);
+        }
+        target.put(values[(int) (entry >>> 32)]);
+        outPos += 1;
+        int second = (int) ((entry >>> 16) & 0xFFFFL);
+        int total = (int) ((entry >>> 8) & 0x7FL);
+        if (second != 0 && total <= windowBits && outPos < length) {
+          if (!target.hasRemaining()) {
+            target = this.map(output, FileChannel.MapMode.READ_WRITE, outPos, length);
+          }
+          target.put(values[second - 1]);
+          outPos += 1;
+          used = total;
+        }
+        window <<= used;
+        windowBits -= used;
+      }
+    } finally {
+      input.close();
+      output.close();
+    }
+  }
+}
+
+class ExamplesHuffmanFile {
+  
+  //tests that the constructor throws exceptions when expected
+  boolean testHuffmanFileExceptions(Tester t) {
+    return t.checkConstructorException(
+        new IllegalArgumentException("Mapped regions must hold at least one byte."),
+        "HuffmanFile", 0);
+  }
+  
+  //tests that the map method works as expected
+  void testMap(Tester t) throws IOException {
+    Path file = Files.createTempFile("huffman", ".bin");
+    Files.write(file, new byte[] {1, 2, 3, 4, 5});
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    HuffmanFile files = new HuffmanFile(2);
+    MappedByteBuffer region = files.map(channel, FileChannel.MapMode.READ_ONLY, 3, 5);
+    t.checkExpect(region.limit(), 2);
+    t.checkExpect(region.get(0), (byte) 4);
+    t.checkExpect(files.map(channel, FileChannel.MapMode.READ_ONLY, 4, 5).limit(), 1);
+    channel.close();
+    Files.delete(file);
+  }
+  
+  //tests that the compress method works as expected
+  void testCompress(Tester t) throws IOException {
+    Path in = Files.createTempFile("huffman", ".bin");
+    Path out = Files.createTempFile("huffman", ".huf");
+    byte[] data = new byte[] {(byte) 200, 65, (byte) 200, 0, (byte) 200};
+    Files.write(in, data);
+    new HuffmanFile(2).compress(in, out);
+    byte[] compressed = Files.readAllBytes(out);
+    t.checkExpect(compressed.length, HuffmanFile.HEADER + 1);
+    t.checkExpect(compressed[7], (byte) 5);
+    t.checkExpect(compressed[8 + 200 * 4 + 3], (byte) 3);
+    ByteHuffman code = new ByteHuffman(data);
+    BitBuffer bits = code.encode(data);
+    t.checkExpect(compressed[HuffmanFile.HEADER], (byte) (bits.words[0] >>> 56));
+    
+    Files.write(in, new byte[0]);
+    new HuffmanFile().compress(in, out);
+    t.checkExpect(Files.size(out), (long) HuffmanFile.HEADER);
+    Files.delete(in);
+    Files.delete(out);
+  }
+  
+  //tests that the decompress method works as expected
+  void testDecompress(Tester t) throws IOException {
+    Path in = Files.createTempFile("huffman", ".bin");
+    Path packed = Files.createTempFile("huffman", ".huf");
+    Path out = Files.createTempFile("huffman", ".out");
+    byte[] data = new byte[100000];
+    for (int i = 0; i < data.length; i += 1) {
+      if (i % 5 == 0) {
+        data[i] = (byte) (i * 31);
+      } else {
+        data[i] = (byte) (i % 3);
+      }
+    }
+    Files.write(in, data);
+    HuffmanFile small = new HuffmanFile(1000);
+    small.compress(in, packed);
+    t.checkExpect(Files.size(packed) < data.length, true);
+    small.decompress(packed, out);
+    t.checkExpect(Files.readAllBytes(out), data);
+    new HuffmanFile(7).decompress(packed, out);
+    t.checkExpect(Files.readAllBytes(out), data);
+    
+    Files.write(in, new byte[] {9, 9, 9, 9, 9, 9, 9, 9, 9, 9});
+    new HuffmanFile().compress(in, packed);
+    new HuffmanFile().decompress(packed, out);
+    t.checkExpect(Files.readAllBytes(out), new byte[] {9, 9, 9, 9, 9, 9, 9, 9, 9, 9});
+    
+    Files.write(in, new byte[0]);
+    new HuffmanFile().compress(in, packed);
+    new HuffmanFile().decompress(packed, out);
+    t.checkExpect(Files.size(out), 0L);
+    
+    Files.write(packed, new byte[10]);
+    t.checkException(new IOException("Compressed file is missing its header."),
+        new HuffmanFile(), "decompress", packed, out);
+    byte[] truncated = new byte[HuffmanFile.HEADER + 1];
+    truncated[7] = 8;
+    truncated[8 + 3] = 1;
+    truncated[8 + 7] = 1;
+    truncated[8 + 11] = 2;
+    truncated[HuffmanFile.HEADER] = -1;
+    Files.write(packed, truncated);
+    t.checkException(new IOException("Compressed file ends in the middle of a codeword."),
+        new HuffmanFile(), "decompress", packed, out);
+    byte[] claimed = new byte[HuffmanFile.HEADER + 5];
+    claimed[2] = 1;
+    claimed[8 + 3] = 1;
+    claimed[8 + 7] = 1;
+    Files.write(packed, claimed);
+    t.checkException(new IOException("Compressed file has a malformed header."),
+        new HuffmanFile(), "decompress", packed, out);
+    t.checkExpect(Files.size(out), 0L);
+    truncated[8] = -1;
+    Files.write(packed, truncated);
+    t.checkException(new IOException("Compressed file has a malformed header."),
+        new HuffmanFile(), "decompress", packed, out);
+    Files.delete(in);
+    Files.delete(packed);
+    Files.delete(out);
+  }
+}
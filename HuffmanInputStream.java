@@ -0,0 +1,308 @@
+import tester.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// This represents an InputStream that reads a stream written by a HuffmanOutputStream from another
+// InputStream and decompresses it with the same ByteHuffman code. Compressed bytes are read
+// through a buffer of a fixed size and held in a 64-bit window, so that the lookup tables of the
+// code resolve several bits at a time. The last two compressed bytes are held back until the end
+// of the stream is reached, because the very last one says how many bits of the one before it
+// are padding.
+class HuffmanInputStream extends InputStream {
+  InputStream in;
+  ByteHuffman code;
+  byte[] buffer;
+  int buffered;
+  int next;
+  long window;
+  int windowBits;
+  int held;
+  int heldCount;
+  boolean ended;
+  int queued;
+  boolean closed;
+  
+  // Constructor takes in the InputStream to read compressed bytes from, the code they were
+  // compressed with and the size of the buffer that compressed bytes are read into.
+  HuffmanInputStream(InputStream in, ByteHuffman code, int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("The buffer must hold at least one byte.");
+    }
+    for (int b = 0; b < 256; b += 1) {
+      if (code.lengths[b] > 56) {
+        throw new IllegalArgumentException("Codewords longer than 56 bits cannot be streamed.");
+      }
+    }
+    this.in = in;
+    this.code = code;
+    this.buffer = new byte[bufferSize];
+    this.buffered = 0;
+    this.next = 0;
+    this.window = 0;
+    this.windowBits = 0;
+    this.held = 0;
+    this.heldCount = 0;
+    this.ended = false;
+    this.queued = -1;
+    this.closed = false;
+  }
+  
+  // Constructor uses a buffer of 8192 bytes.
+  HuffmanInputStream(InputStream in, ByteHuffman code) {
+    this(in, code, 8192);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.in ...                                     -- InputStream
+   * ... this.code ...                                   -- ByteHuffman
+   * ... this.buffer ...                                 -- byte[]
+   * ... this.buffered ...                               -- int
+   * ... this.next ...                                   -- int
+   * ... this.window ...                                 -- long
+   * ... this.windowBits ...                             -- int
+   * ... this.held ...                                   -- int
+   * ... this.heldCount ...                              -- int
+   * ... this.ended ...                                  -- boolean
+   * ... this.queued ...                                 -- int
+   * ... this.closed ...                                 -- boolean
+   * METHODS:
+   * ... refill() ...                                    -- void
+   * ... decodeNext() ...                                -- int
+   * ... read() ...                                      -- int
+   * ... read(byte[] bytes, int off, int len) ...        -- int
+   * ... close() ...                                     -- void
+   * METHODS ON FIELDS:
+   * ... this.in.read(byte[] bytes, int off, int len) ...   -- int
+   */
+  
+  // EFFECT: Moves compressed bytes into the window until it holds more than 56 bits or the end
+  // of the stream is reached, in which case the padding of the last byte is left out.
+  void refill() throws IOException {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    while (this.windowBits <= 56 && !this.ended) {
+      if (this.next == this.buffered) {
+        this.buffered = this.in.read(this.buffer, 0, this.buffer.length);
+        this.next = 0;
+        if (this.buffered < 0) {
+          this.buffered = 0;
+          this.ended = true;
+          if (this.heldCount == 0) {
+            throw new IOException("Compressed stream is missing its trailing byte.");
+          }
+          int padding = this.held & 0xFF;
+          if (padding > 7 || (this.heldCount == 1 && padding != 0)) {
+            throw new IOException("Compressed stream has a malformed trailing byte.");
+          }
+          if (this.heldCount == 2) {
+            long last = (this.held >>> 8) & 0xFF;
+            this.window |= (last >>> padding) << (64 - this.windowBits - (8 - padding));
+            this.windowBits += 8 - padding;
+          }
+          return;
+        }
+        continue;
+      }
+      int b = this.buffer[this.next] & 0xFF;
+      this.next += 1;
+      if (this.heldCount == 2) {
+        this.window |= (long) ((this.held >>> 8) & 0xFF) << (56 - this.windowBits);
+        this.windowBits += 8;
+      } else {
+        this.heldCount += 1;
+      }
+      this.held = ((this.held << 8) | b) & 0xFFFF;
+    }
+  }
+  
+  // This method decodes the next byte out of the window, refilling it first, and returns it as
+  // an int from 0 to 255, or -1 at the end of the stream.
+  int decodeNext() throws IOException {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.queued >= 0) {
+      int b = this.queued;
+      this.queued = -1;
+      return b;
+    }
+    this.refill();
+    if (this.windowBits == 0) {
+      return -1;
+    }
+    DecodeTable table = this.code.decoder;
+    int consumed = 0;
+    int width = table.rootBits;
+    long entry = table.entries[(int) (this.window >>> (64 - width))];
+    while ((entry & 0x80L) != 0) {
+      consumed += width;
+      width = (int) (entry & 0x7FL);
+      int index = (int) ((this.window << consumed) >>> (64 - width));
+      entry = table.entries[(int) (entry >>> 32) + index];
+    }
+    int length = consumed + (int) (entry & 0x7FL);
+    if (length > this.windowBits) {
+      throw new IOException("Compressed stream ends in the middle of a codeword.");
+    }
+    int second = (int) ((entry >>> 16) & 0xFFFFL);
+    int total = (int) ((entry >>> 8) & 0x7FL);
+    if (second != 0 && total <= this.windowBits) {
+      this.queued = this.code.values[second - 1] & 0xFF;
+      length = total;
+    }
+    this.window <<= length;
+    this.windowBits -= length;
+    return this.code.values[(int) (entry >>> 32)] & 0xFF;
+  }
+  
+  // This method returns the next decompressed byte as an int from 0 to 255, or -1 at the end of
+  // the stream.
+  public int read() throws IOException {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.closed) {
+      throw new IOException("Stream closed.");
+    }
+    return this.decodeNext();
+  }
+  
+  // EFFECT: Decompresses up to the given number of bytes into the given array, starting at the
+  // given offset, and returns how many were decompressed, or -1 at the end of the stream.
+  public int read(byte[] bytes, int off, int len) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... bytes ...   -- byte[]
+     * ... off ...     -- int
+     * ... len ...     -- int
+     */
+    if (this.closed) {
+      throw new IOException("Stream closed.");
+    }
+    if (off < 0 || len < 0 || off + len > bytes.length) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    int count = 0;
+    while (count < len) {
+      int b = this.decodeNext();
+      if (b < 0) {
+        break;
+      }
+      bytes[off + count] = (byte) b;
+      count += 1;
+    }
+    if (count == 0) {
+      return -1;
+    }
+    return count;
+  }
+  
+  // EFFECT: Closes this stream and the underlying InputStream.
+  public void close() throws IOException {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    this.closed = true;
+    this.in.close();
+  }
+}
+
+class ExamplesHuffmanInputStream {
+  
+  //tests that the constructor throws exceptions when expected
+  boolean testHuffmanInputStreamExceptions(Tester t) {
+    ByteHuffman code = new ByteHuffman(new byte[] {1, 2});
+    return t.checkConstructorException(
+        new IllegalArgumentException("The buffer must hold at least one byte."),
+        "HuffmanInputStream", new ByteArrayInputStream(new byte[0]), code, 0);
+  }
+  
+  //tests that the refill method works as expected
+  void testRefill(Tester t) throws IOException {
+    ByteHuffman code = new ByteHuffman(new byte[] {0, 1});
+    byte[] compressed = new byte[] {(byte) 0xF0, (byte) 0xA0, 5};
+    HuffmanInputStream in = new HuffmanInputStream(new ByteArrayInputStream(compressed), code, 2);
+    in.refill();
+    t.checkExpect(in.ended, true);
+    t.checkExpect(in.windowBits, 11);
+    t.checkExpect(in.window, 0xF0AL << 52);
+    
+    HuffmanInputStream missing = new HuffmanInputStream(
+        new ByteArrayInputStream(new byte[0]), code);
+    t.checkException(new IOException("Compressed stream is missing its trailing byte."),
+        missing, "refill");
+    HuffmanInputStream malformed = new HuffmanInputStream(
+        new ByteArrayInputStream(new byte[] {3, 9}), code);
+    t.checkException(new IOException("Compressed stream has a malformed trailing byte."),
+        malformed, "refill");
+  }
+  
+  //tests that the decodeNext method works as expected
+  void testDecodeNext(Tester t) throws IOException {
+    int[] counts = new int[256];
+    counts['a'] = 4;
+    counts['b'] = 2;
+    counts['c'] = 2;
+    ByteHuffman code = new ByteHuffman(counts);
+    byte[] compressed = new byte[] {(byte) 0x5A, (byte) 0xC0, 6};
+    HuffmanInputStream in = new HuffmanInputStream(new ByteArrayInputStream(compressed), code);
+    t.checkExpect(in.decodeNext(), (int) 'a');
+    t.checkExpect(in.decodeNext(), (int) 'b');
+    t.checkExpect(in.decodeNext(), (int) 'c');
+    t.checkExpect(in.decodeNext(), (int) 'a');
+    t.checkExpect(in.decodeNext(), (int) 'b');
+    t.checkExpect(in.decodeNext(), (int) 'c');
+    t.checkExpect(in.decodeNext(), -1);
+    
+    HuffmanInputStream cut = new HuffmanInputStream(
+        new ByteArrayInputStream(new byte[] {(byte) 0x80, 7}), code);
+    t.checkException(new IOException("Compressed stream ends in the middle of a codeword."),
+        cut, "decodeNext");
+  }
+  
+  //tests that the read methods work as expected
+  void testRead(Tester t) throws IOException {
+    byte[] data = new byte[300000];
+    for (int i = 0; i < data.length; i += 1) {
+      data[i] = (byte) ((i * 31) % 97 + (i % 13) * (i % 5));
+    }
+    ByteHuffman code = new ByteHuffman(data);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    HuffmanOutputStream out = new HuffmanOutputStream(compressed, code, 100);
+    out.write(data, 0, 1000);
+    for (int i = 1000; i < 1010; i += 1) {
+      out.write(data[i]);
+    }
+    out.write(data, 1010, data.length - 1010);
+    out.close();
+    t.checkExpect(compressed.size() < data.length, true);
+    
+    HuffmanInputStream in = new HuffmanInputStream(
+        new ByteArrayInputStream(compressed.toByteArray()), code, 37);
+    byte[] result = new byte[data.length];
+    t.checkExpect(in.read(), data[0] & 0xFF);
+    result[0] = data[0];
+    int total = 1;
+    while (total < result.length) {
+      int n = in.read(result, total, Math.min(4096, result.length - total));
+      if (n < 0) {
+        break;
+      }
+      total += n;
+    }
+    t.checkExpect(total, data.length);
+    t.checkExpect(result, data);
+    t.checkExpect(in.read(), -1);
+    t.checkExpect(in.read(result, 0, 10), -1);
+    t.checkExpect(in.read(result, 0, 0), 0);
+    in.close();
+    t.checkException(new IOException("Stream closed."), in, "read");
+  }
+}
@@ -0,0 +1,576 @@
+import tester.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// This represents the counters a Huffman Tree records its work in when it is built with them:
+// how much it encoded and decoded, how long building, encoding and decoding took, and how often
+// they failed. Every counter is a LongAdder, striped across the threads that update it, so
+// threads sharing a tree do not contend on one counter. A tree built without HuffmanMetrics
+// records nothing and never reads the clock. The counters can be read through JMX once they are
+// registered with the platform MBeanServer.
+class HuffmanMetrics implements HuffmanMetricsMBean {
+  LongAdder builds;
+  LongAdder encodes;
+  LongAdder decodes;
+  LongAdder encodedChars;
+  LongAdder encodedBits;
+  LongAdder decodedBits;
+  LongAdder decodedChars;
+  LongAdder unknownSymbols;
+  LongAdder truncatedDecodes;
+  LatencyHistogram buildNanos;
+  LatencyHistogram encodeNanos;
+  LatencyHistogram decodeNanos;
+  volatile double entropy;
+  volatile double expectedBits;
+  
+  // Constructor makes metrics with every counter at zero.
+  HuffmanMetrics() {
+    this.builds = new LongAdder();
+    this.encodes = new LongAdder();
+    this.decodes = new LongAdder();
+    this.encodedChars = new LongAdder();
+    this.encodedBits = new LongAdder();
+    this.decodedBits = new LongAdder();
+    this.decodedChars = new LongAdder();
+    this.unknownSymbols = new LongAdder();
+    this.truncatedDecodes = new LongAdder();
+    this.buildNanos = new LatencyHistogram();
+    this.encodeNanos = new LatencyHistogram();
+    this.decodeNanos = new LatencyHistogram();
+    this.entropy = 0;
+    this.expectedBits = 0;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.builds ...                                              -- LongAdder
+   * ... this.encodes ...                                             -- LongAdder
+   * ... this.decodes ...                                             -- LongAdder
+   * ... this.encodedChars ...                                        -- LongAdder
+   * ... this.encodedBits ...                                         -- LongAdder
+   * ... this.decodedBits ...                                         -- LongAdder
+   * ... this.decodedChars ...                                        -- LongAdder
+   * ... this.unknownSymbols ...                                      -- LongAdder
+   * ... this.truncatedDecodes ...                                    -- LongAdder
+   * ... this.buildNanos ...                                          -- LatencyHistogram
+   * ... this.encodeNanos ...                                         -- LatencyHistogram
+   * ... this.decodeNanos ...                                         -- LatencyHistogram
+   * ... this.entropy ...                                             -- double
+   * ... this.expectedBits ...                                        -- double
+   * METHODS:
+   * ... recordBuild(ArrayList<String> letters, ArrayList<Integer> numbers,
+   *                 CodeTable table, long nanos) ...                 -- void
+   * ... recordEncode(int chars, int bits, long nanos) ...            -- void
+   * ... recordDecode(int bits, int chars, boolean truncated,
+   *                  long nanos) ...                                 -- void
+   * ... register(String name) ...                                    -- ObjectName
+   * ... the getters of HuffmanMetricsMBean ...                       -- long or double
+   * ... reset() ...                                                  -- void
+   * METHODS ON FIELDS:
+   * ... this.builds.increment() ...                                  -- void
+   * ... this.encodedBits.add(long x) ...                             -- void
+   * ... this.encodedBits.sum() ...                                   -- long
+   * ... this.buildNanos.record(long nanos) ...                       -- void
+   * ... this.buildNanos.percentile(double q) ...                     -- long
+   */
+  
+  // EFFECT: Records that a tree was built over the given letters and frequencies in the given
+  // number of nanoseconds, with the codewords of the given CodeTable. The entropy and the
+  // average codeword length of its frequencies replace those of the last tree built. A tree with
+  // no CodeTable, given as null, records an average codeword length of 0.
+  void recordBuild(ArrayList<String> letters, ArrayList<Integer> numbers, CodeTable table,
+      long nanos) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... letters ...   -- ArrayList<String>
+     * ... numbers ...   -- ArrayList<Integer>
+     * ... table ...     -- CodeTable
+     * ... nanos ...     -- long
+     */
+    long total = 0;
+    for (int i = 0; i < numbers.size(); i += 1) {
+      total += numbers.get(i);
+    }
+    double entropy = 0;
+    double expected = 0;
+    for (int i = 0; i < numbers.size() && total > 0; i += 1) {
+      double p = (double) numbers.get(i) / total;
+      if (p > 0) {
+        entropy -= p * Math.log(p) / Math.log(2);
+        if (table != null) {
+          expected += p * table.lengths[table.index.get(letters.get(i))];
+        }
+      }
+    }
+    this.entropy = entropy;
+    this.expectedBits = expected;
+    this.builds.increment();
+    this.buildNanos.record(nanos);
+  }
+  
+  // EFFECT: Records that the given number of chars were encoded into the given number of bits in
+  // the given number of nanoseconds.
+  void recordEncode(int chars, int bits, long nanos) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... chars ...   -- int
+     * ... bits ...    -- int
+     * ... nanos ...   -- long
+     */
+    this.encodes.increment();
+    this.encodedChars.add(chars);
+    this.encodedBits.add(bits);
+    this.encodeNanos.record(nanos);
+  }
+  
+  // EFFECT: Records that the given number of bits were decoded into the given number of chars in
+  // the given number of nanoseconds, and whether they ended in the middle of a codeword.
+  void recordDecode(int bits, int chars, boolean truncated, long nanos) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... bits ...        -- int
+     * ... chars ...       -- int
+     * ... truncated ...   -- boolean
+     * ... nanos ...       -- long
+     */
+    this.decodes.increment();
+    this.decodedBits.add(bits);
+    this.decodedChars.add(chars);
+    if (truncated) {
+      this.truncatedDecodes.increment();
+    }
+    this.decodeNanos.record(nanos);
+  }
+  
+  // EFFECT: Registers these metrics with the platform MBeanServer under the given name, and
+  // returns the ObjectName they were registered as.
+  ObjectName register(String name) throws JMException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... name ...   -- String
+     */
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = new ObjectName("HuffmanTrees:type=HuffmanMetrics,name="
+        + ObjectName.quote(name));
+    server.registerMBean(new StandardMBean(this, HuffmanMetricsMBean.class), objectName);
+    return objectName;
+  }
+  
+  // This method returns how many Huffman Trees were built.
+  public long getBuilds() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.builds.sum();
+  }
+  
+  // This method returns how many strings were encoded.
+  public long getEncodes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.encodes.sum();
+  }
+  
+  // This method returns how many BitBuffers were decoded.
+  public long getDecodes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.decodes.sum();
+  }
+  
+  // This method returns how many chars were encoded.
+  public long getEncodedChars() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.encodedChars.sum();
+  }
+  
+  // This method returns how many bits encoding produced.
+  public long getEncodedBits() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.encodedBits.sum();
+  }
+  
+  // This method returns how many bits were decoded.
+  public long getDecodedBits() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.decodedBits.sum();
+  }
+  
+  // This method returns how many chars decoding produced.
+  public long getDecodedChars() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.decodedChars.sum();
+  }
+  
+  // This method returns how many encodes were rejected for a symbol outside of the language.
+  public long getUnknownSymbols() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.unknownSymbols.sum();
+  }
+  
+  // This method returns how many decodes ended in the middle of a codeword.
+  public long getTruncatedDecodes() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.truncatedDecodes.sum();
+  }
+  
+  // This method returns how many bits encoding produced per char, on average, or 0 if nothing
+  // was encoded. For codes of single-character symbols, that is bits per symbol.
+  public double getBitsPerSymbol() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    long chars = this.encodedChars.sum();
+    if (chars == 0) {
+      return 0;
+    }
+    return (double) this.encodedBits.sum() / chars;
+  }
+  
+  // This method returns the entropy of the frequencies of the last tree built, in bits per
+  // symbol, which no code can beat on text with those frequencies.
+  public double getEntropy() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.entropy;
+  }
+  
+  // This method returns the average codeword length of the last tree built, weighted by the
+  // frequencies it was built from.
+  public double getExpectedBitsPerSymbol() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.expectedBits;
+  }
+  
+  // This method returns the median time taken to build a tree, in nanoseconds.
+  public long getBuildNanosP50() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.buildNanos.percentile(0.5);
+  }
+  
+  // This method returns the 99th percentile of the time taken to build a tree, in nanoseconds.
+  public long getBuildNanosP99() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.buildNanos.percentile(0.99);
+  }
+  
+  // This method returns the median time taken to encode a string, in nanoseconds.
+  public long getEncodeNanosP50() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.encodeNanos.percentile(0.5);
+  }
+  
+  // This method returns the 99th percentile of the time taken to encode a string, in nanoseconds.
+  public long getEncodeNanosP99() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.encodeNanos.percentile(0.99);
+  }
+  
+  // This method returns the median time taken to decode a BitBuffer, in nanoseconds.
+  public long getDecodeNanosP50() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.decodeNanos.percentile(0.5);
+  }
+  
+  // This method returns the 99th percentile of the time taken to decode a BitBuffer, in
+  // nanoseconds.
+  public long getDecodeNanosP99() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return this.decodeNanos.percentile(0.99);
+  }
+  
+  // EFFECT: Sets every counter back to zero. Updates made while resetting may be lost.
+  public void reset() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    this.builds.reset();
+    this.encodes.reset();
+    this.decodes.reset();
+    this.encodedChars.reset();
+    this.encodedBits.reset();
+    this.decodedBits.reset();
+    this.decodedChars.reset();
+    this.unknownSymbols.reset();
+    this.truncatedDecodes.reset();
+    this.buildNanos.reset();
+    this.encodeNanos.reset();
+    this.decodeNanos.reset();
+    this.entropy = 0;
+    this.expectedBits = 0;
+  }
+}
+
+// This represents a histogram of latencies in nanoseconds, with one bucket per power of two, so
+// that recording a latency is a single striped increment. Bucket 0 counts latencies of 0, and
+// bucket b counts latencies from 2^(b-1) up to but not including 2^b.
+class LatencyHistogram {
+  LongAdder[] buckets;
+  
+  // Constructor makes a histogram with every bucket empty.
+  LatencyHistogram() {
+    this.buckets = new LongAdder[64];
+    for (int b = 0; b < 64; b += 1) {
+      this.buckets[b] = new LongAdder();
+    }
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.buckets ...              -- LongAdder[]
+   * METHODS:
+   * ... record(long nanos) ...        -- void
+   * ... count() ...                   -- long
+   * ... percentile(double q) ...      -- long
+   * ... reset() ...                   -- void
+   */
+  
+  // EFFECT: Counts the given latency in its bucket. Negative latencies count as 0.
+  void record(long nanos) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... nanos ...   -- long
+     */
+    this.buckets[64 - Long.numberOfLeadingZeros(Math.max(nanos, 0))].increment();
+  }
+  
+  // This method returns how many latencies were recorded.
+  long count() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    long count = 0;
+    for (int b = 0; b < 64; b += 1) {
+      count += this.buckets[b].sum();
+    }
+    return count;
+  }
+  
+  // This method returns the largest latency in the bucket that holds the given fraction of the
+  // recorded latencies, or 0 if none were recorded.
+  long percentile(double q) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... q ...   -- double
+     */
+    long[] counts = new long[64];
+    long total = 0;
+    for (int b = 0; b < 64; b += 1) {
+      counts[b] = this.buckets[b].sum();
+      total += counts[b];
+    }
+    long rank = (long) Math.ceil(q * total);
+    long seen = 0;
+    for (int b = 0; b < 64; b += 1) {
+      seen += counts[b];
+      if (seen >= rank && seen > 0) {
+        if (b == 63) {
+          return Long.MAX_VALUE;
+        }
+        return (1L << b) - 1;
+      }
+    }
+    return 0;
+  }
+  
+  // EFFECT: Empties every bucket.
+  void reset() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    for (int b = 0; b < 64; b += 1) {
+      this.buckets[b].reset();
+    }
+  }
+}
+
+class ExamplesHuffmanMetrics {
+  ArrayList<String> letters = new ArrayList<String>(Arrays.asList("a", "b", "c", "d"));
+  ArrayList<Integer> numbers = new ArrayList<Integer>(Arrays.asList(4, 2, 1, 1));
+  
+  //tests that the recordBuild method works as expected
+  void testRecordBuild(Tester t) {
+    HuffmanMetrics metrics = new HuffmanMetrics();
+    Huffman huff = new Huffman(this.letters, this.numbers);
+    metrics.recordBuild(this.letters, this.numbers, huff.table, 100);
+    t.checkExpect(metrics.getBuilds(), 1L);
+    t.checkInexact(metrics.getEntropy(), 1.75, 0.001);
+    t.checkInexact(metrics.getExpectedBitsPerSymbol(), 1.75, 0.001);
+    t.checkExpect(metrics.getBuildNanosP50(), 127L);
+  }
+  
+  //tests that the recordEncode and recordDecode methods work as expected
+  void testRecordEncodeAndDecode(Tester t) {
+    HuffmanMetrics metrics = new HuffmanMetrics();
+    t.checkInexact(metrics.getBitsPerSymbol(), 0.0, 0.001);
+    metrics.recordEncode(4, 7, 10);
+    metrics.recordEncode(4, 9, 20);
+    t.checkExpect(metrics.getEncodes(), 2L);
+    t.checkExpect(metrics.getEncodedChars(), 8L);
+    t.checkExpect(metrics.getEncodedBits(), 16L);
+    t.checkInexact(metrics.getBitsPerSymbol(), 2.0, 0.001);
+    t.checkExpect(metrics.getEncodeNanosP50(), 15L);
+    t.checkExpect(metrics.getEncodeNanosP99(), 31L);
+    metrics.recordDecode(16, 8, false, 3);
+    metrics.recordDecode(5, 3, true, 3);
+    t.checkExpect(metrics.getDecodes(), 2L);
+    t.checkExpect(metrics.getDecodedBits(), 21L);
+    t.checkExpect(metrics.getDecodedChars(), 11L);
+    t.checkExpect(metrics.getTruncatedDecodes(), 1L);
+    t.checkExpect(metrics.getDecodeNanosP99(), 3L);
+  }
+  
+  //tests that the reset method works as expected
+  void testReset(Tester t) {
+    HuffmanMetrics metrics = new HuffmanMetrics();
+    Huffman huff = new Huffman(this.letters, this.numbers, metrics);
+    huff.encodeBits("abcd");
+    metrics.reset();
+    t.checkExpect(metrics.getBuilds(), 0L);
+    t.checkExpect(metrics.getEncodedBits(), 0L);
+    t.checkExpect(metrics.buildNanos.count(), 0L);
+    t.checkInexact(metrics.getEntropy(), 0.0, 0.001);
+  }
+  
+  //tests that a Huffman Tree built with metrics records its work in them
+  void testInstrumentedHuffman(Tester t) {
+    HuffmanMetrics metrics = new HuffmanMetrics();
+    Huffman huff = new Huffman(this.letters, this.numbers, metrics);
+    t.checkExpect(huff.metrics, metrics);
+    t.checkExpect(metrics.getBuilds(), 1L);
+    t.checkExpect(huff.decode(huff.encode("abacad")), "abacad");
+    t.checkExpect(metrics.getEncodes(), 1L);
+    t.checkExpect(metrics.getEncodedChars(), 6L);
+    t.checkExpect(metrics.getEncodedBits(), 11L);
+    t.checkExpect(metrics.getDecodedBits(), 11L);
+    t.checkExpect(metrics.getDecodedChars(), 6L);
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode e but that is not part of the language."), huff, "encodeBits", "abe");
+    t.checkExpect(metrics.getUnknownSymbols(), 1L);
+    BitBuffer partial = new BitBuffer(0);
+    partial.append(1L, 1);
+    t.checkExpect(huff.decode(partial), "?");
+    t.checkExpect(metrics.getTruncatedDecodes(), 1L);
+    t.checkExpect(metrics.encodeNanos.count(), 1L);
+    t.checkExpect(metrics.decodeNanos.count(), 2L);
+    
+    HuffmanMetrics marked = new HuffmanMetrics();
+    Huffman questions = new Huffman(new ArrayList<String>(Arrays.asList("a", "?")),
+        new ArrayList<Integer>(Arrays.asList(1, 1)), marked);
+    t.checkExpect(questions.decode(questions.encodeBits("a?")), "a?");
+    t.checkExpect(marked.getTruncatedDecodes(), 0L);
+    t.checkExpect(new Huffman(this.letters, this.numbers).metrics, null);
+  }
+  
+  //tests that a Huffman Tree built with metrics records batches, blocks and streams in them
+  void testInstrumentedBatchesAndBlocks(Tester t) {
+    HuffmanMetrics metrics = new HuffmanMetrics();
+    Huffman huff = new Huffman(this.letters, this.numbers, metrics);
+    MessageBatch batch = huff.encodeBatch(new String[] {"ab", "cad"}, new MessageBatch());
+    t.checkExpect(metrics.getEncodes(), 1L);
+    t.checkExpect(metrics.getEncodedChars(), 5L);
+    t.checkExpect(metrics.getEncodedBits(), 10L);
+    batch.offsets[2] -= 1;
+    huff.decodeBatch(batch, new StringBuilder(), new int[2]);
+    t.checkExpect(metrics.getDecodes(), 1L);
+    t.checkExpect(metrics.getDecodedBits(), 9L);
+    t.checkExpect(metrics.getDecodedChars(), 5L);
+    t.checkExpect(metrics.getTruncatedDecodes(), 1L);
+    
+    BlockEncoding blocks = huff.encodeParallel("abacad", 2, ForkJoinPool.commonPool());
+    t.checkExpect(huff.decodeParallel(blocks, ForkJoinPool.commonPool()), "abacad");
+    t.checkExpect(huff.decodeRange(blocks, 1, 4), "bac");
+    InterleavedEncoding streams = huff.encodeInterleaved("abacad");
+    t.checkExpect(huff.decodeInterleaved(streams), "abacad");
+    t.checkExpect(metrics.getEncodes(), 3L);
+    t.checkExpect(metrics.getEncodedChars(), 17L);
+    t.checkExpect(metrics.getEncodedBits(), 32L);
+    t.checkExpect(metrics.getDecodes(), 4L);
+    t.checkExpect(metrics.getDecodedChars(), 20L);
+    t.checkExpect(metrics.encodeNanos.count(), 3L);
+    t.checkExpect(metrics.decodeNanos.count(), 4L);
+    
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode e but that is not part of the language."),
+        huff, "encodeInterleaved", "abe");
+    t.checkExpect(metrics.getUnknownSymbols(), 1L);
+    streams.offsets[4] -= 1;
+    streams.bits.truncate(streams.offsets[4]);
+    t.checkException(new IllegalArgumentException(
+        "Stream 3 does not end where the jump table says it does."),
+        huff, "decodeInterleaved", streams);
+    t.checkExpect(metrics.getTruncatedDecodes(), 2L);
+  }
+  
+  //tests that the register method works as expected
+  void testRegister(Tester t) throws JMException {
+    HuffmanMetrics metrics = new HuffmanMetrics();
+    metrics.recordEncode(3, 5, 1);
+    ObjectName name = metrics.register("examples");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    t.checkExpect(server.getAttribute(name, "EncodedBits"), 5L);
+    t.checkExpect(server.getAttribute(name, "Encodes"), 1L);
+    server.invoke(name, "reset", new Object[0], new String[0]);
+    t.checkExpect(metrics.getEncodes(), 0L);
+    server.unregisterMBean(name);
+    t.checkExpect(server.isRegistered(name), false);
+  }
+  
+  //tests that the LatencyHistogram methods work as expected
+  void testLatencyHistogram(Tester t) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    t.checkExpect(histogram.percentile(0.5), 0L);
+    histogram.record(0);
+    histogram.record(-5);
+    histogram.record(1);
+    histogram.record(1000);
+    histogram.record(Long.MAX_VALUE);
+    t.checkExpect(histogram.count(), 5L);
+    t.checkExpect(histogram.buckets[0].sum(), 2L);
+    t.checkExpect(histogram.buckets[1].sum(), 1L);
+    t.checkExpect(histogram.buckets[10].sum(), 1L);
+    t.checkExpect(histogram.percentile(0.4), 0L);
+    t.checkExpect(histogram.percentile(0.6), 1L);
+    t.checkExpect(histogram.percentile(0.8), 1023L);
+    t.checkExpect(histogram.percentile(1.0), Long.MAX_VALUE);
+    histogram.reset();
+    t.checkExpect(histogram.count(), 0L);
+  }
+}
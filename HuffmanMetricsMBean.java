@@ -0,0 +1,62 @@
+// This represents the management interface of HuffmanMetrics, through which its counters are
+// read over JMX. Every getter is an attribute of the registered MBean, and reset is an operation.
+public interface HuffmanMetricsMBean {
+  // This method returns how many Huffman Trees were built.
+  long getBuilds();
+  
+  // This method returns how many strings were encoded.
+  long getEncodes();
+  
+  // This method returns how many BitBuffers were decoded.
+  long getDecodes();
+  
+  // This method returns how many chars were encoded.
+  long getEncodedChars();
+  
+  // This method returns how many bits encoding produced.
+  long getEncodedBits();
+  
+  // This method returns how many bits were decoded.
+  long getDecodedBits();
+  
+  // This method returns how many chars decoding produced.
+  long getDecodedChars();
+  
+  // This method returns how many encodes were rejected for a symbol outside of the language.
+  long getUnknownSymbols();
+  
+  // This method returns how many decodes ended in the middle of a codeword.
+  long getTruncatedDecodes();
+  
+  // This method returns how many bits encoding produced per char, on average.
+  double getBitsPerSymbol();
+  
+  // This method returns the entropy of the frequencies of the last tree built, in bits per symbol.
+  double getEntropy();
+  
+  // This method returns the average codeword length of the last tree built, weighted by the
+  // frequencies it was built from.
+  double getExpectedBitsPerSymbol();
+  
+  // This method returns the median time taken to build a tree, in nanoseconds.
+  long getBuildNanosP50();
+  
+  // This method returns the 99th percentile of the time taken to build a tree, in nanoseconds.
+  long getBuildNanosP99();
+  
+  // This method returns the median time taken to encode a string, in nanoseconds.
+  long getEncodeNanosP50();
+  
+  // This method returns the 99th percentile of the time taken to encode a string, in nanoseconds.
+  long getEncodeNanosP99();
+  
+  // This method returns the median time taken to decode a BitBuffer, in nanoseconds.
+  long getDecodeNanosP50();
+  
+  // This method returns the 99th percentile of the time taken to decode a BitBuffer, in
+  // nanoseconds.
+  long getDecodeNanosP99();
+  
+  // EFFECT: Sets every counter back to zero.
+  void reset();
+}
@@ -0,0 +1,235 @@
+import tester.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// This represents an OutputStream that compresses every byte written to it with a ByteHuffman
+// code and writes the packed bits to another OutputStream, through a buffer of a fixed size. The
+// compressed stream is the packed bits, first bit in the most significant position of each byte,
+// followed by one trailing byte that holds the number of unused bits at the end of the last byte.
+class HuffmanOutputStream extends OutputStream {
+  OutputStream out;
+  ByteHuffman code;
+  byte[] buffer;
+  int buffered;
+  long acc;
+  int accBits;
+  boolean closed;
+  
+  // Constructor takes in the OutputStream to write compressed bytes to, the code to compress with
+  // and the size of the buffer that compressed bytes are collected in.
+  HuffmanOutputStream(OutputStream out, ByteHuffman code, int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("The buffer must hold at least one byte.");
+    }
+    for (int b = 0; b < 256; b += 1) {
+      if (code.lengths[b] > 56) {
+        throw new IllegalArgumentException("Codewords longer than 56 bits cannot be streamed.");
+      }
+    }
+    this.out = out;
+    this.code = code;
+    this.buffer = new byte[bufferSize];
+    this.buffered = 0;
+    this.acc = 0;
+    this.accBits = 0;
+    this.closed = false;
+  }
+  
+  // Constructor uses a buffer of 8192 bytes.
+  HuffmanOutputStream(OutputStream out, ByteHuffman code) {
+    this(out, code, 8192);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.out ...                                    -- OutputStream
+   * ... this.code ...                                   -- ByteHuffman
+   * ... this.buffer ...                                 -- byte[]
+   * ... this.buffered ...                               -- int
+   * ... this.acc ...                                    -- long
+   * ... this.accBits ...                                -- int
+   * ... this.closed ...                                 -- boolean
+   * METHODS:
+   * ... write(int b) ...                                -- void
+   * ... write(byte[] bytes, int off, int len) ...       -- void
+   * ... put(int b) ...                                  -- void
+   * ... flushBuffer() ...                               -- void
+   * ... flush() ...                                     -- void
+   * ... close() ...                                     -- void
+   * ... put8(int b) ...                                 -- void
+   * METHODS ON FIELDS:
+   * ... this.out.write(byte[] bytes, int off, int len) ...   -- void
+   */
+  
+  // EFFECT: Compresses the given byte, the low eight bits of the given int.
+  public void write(int b) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... b ...   -- int
+     */
+    if (this.closed) {
+      throw new IOException("Stream closed.");
+    }
+    this.put(b & 0xFF);
+  }
+  
+  // EFFECT: Compresses the given number of bytes of the given array, starting at the given offset.
+  public void write(byte[] bytes, int off, int len) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... bytes ...   -- byte[]
+     * ... off ...     -- int
+     * ... len ...     -- int
+     */
+    if (this.closed) {
+      throw new IOException("Stream closed.");
+    }
+    if (off < 0 || len < 0 || off + len > bytes.length) {
+      throw new IndexOutOfBoundsException();
+    }
+    for (int i = off; i < off + len; i += 1) {
+      this.put(bytes[i] & 0xFF);
+    }
+  }
+  
+  // EFFECT: Adds the codeword of the given byte value to the bits waiting to be written, moving
+  // every whole byte of them into the buffer.
+  void put(int b) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... b ...   -- int
+     */
+    int length = this.code.lengths[b];
+    if (length == 0) {
+      throw new IllegalArgumentException(
+          "Tried to encode byte " + b + " but that is not part of the language.");
+    }
+    this.acc = (this.acc << length) | this.code.codes[b];
+    this.accBits += length;
+    while (this.accBits >= 8) {
+      this.accBits -= 8;
+      this.buffer[this.buffered] = (byte) (this.acc >>> this.accBits);
+      this.buffered += 1;
+      if (this.buffered == this.buffer.length) {
+        this.flushBuffer();
+      }
+    }
+  }
+  
+  // EFFECT: Writes every byte in the buffer to the underlying OutputStream and empties it.
+  void flushBuffer() throws IOException {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    this.out.write(this.buffer, 0, this.buffered);
+    this.buffered = 0;
+  }
+  
+  // EFFECT: Writes every whole compressed byte to the underlying OutputStream and flushes it. Bits
+  // that do not yet make up a whole byte wait for more input or for the stream to be closed.
+  public void flush() throws IOException {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (!this.closed) {
+      this.flushBuffer();
+      this.out.flush();
+    }
+  }
+  
+  // EFFECT: Writes the last bits, padded with zeros to a whole byte, and the trailing byte with
+  // the number of padding bits, then closes the underlying OutputStream.
+  public void close() throws IOException {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    if (this.closed) {
+      return;
+    }
+    int padding = 0;
+    if (this.accBits > 0) {
+      padding = 8 - this.accBits;
+      this.put8((int) (this.acc << padding) & 0xFF);
+    }
+    this.put8(padding);
+    this.flushBuffer();
+    this.closed = true;
+    this.out.close();
+  }
+  
+  // EFFECT: Adds the given byte to the buffer as it is, after the bits already written.
+  void put8(int b) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... b ...   -- int
+     */
+    this.buffer[this.buffered] = (byte) b;
+    this.buffered += 1;
+    if (this.buffered == this.buffer.length) {
+      this.flushBuffer();
+    }
+  }
+}
+
+class ExamplesHuffmanOutputStream {
+  
+  //tests that the constructor throws exceptions when expected
+  boolean testHuffmanOutputStreamExceptions(Tester t) {
+    ByteHuffman code = new ByteHuffman(new byte[] {1, 2});
+    return t.checkConstructorException(
+        new IllegalArgumentException("The buffer must hold at least one byte."),
+        "HuffmanOutputStream", new ByteArrayOutputStream(), code, 0);
+  }
+  
+  //tests that the write and put methods work as expected
+  void testWrite(Tester t) throws IOException {
+    int[] counts = new int[256];
+    counts['a'] = 4;
+    counts['b'] = 2;
+    counts['c'] = 2;
+    ByteHuffman code = new ByteHuffman(counts);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    HuffmanOutputStream out = new HuffmanOutputStream(bytes, code, 1);
+    out.write('a');
+    out.write('b');
+    t.checkExpect(out.accBits, 3);
+    t.checkExpect(bytes.size(), 0);
+    out.write("cab".getBytes(), 0, 3);
+    t.checkExpect(out.accBits, 0);
+    t.checkExpect(bytes.toByteArray(), new byte[] {(byte) 0x5A});
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode byte 100 but that is not part of the language."), out, "put", 100);
+  }
+  
+  //tests that the flush and flushBuffer methods work as expected
+  void testFlush(Tester t) throws IOException {
+    ByteHuffman code = new ByteHuffman(new byte[] {0, 1});
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    HuffmanOutputStream out = new HuffmanOutputStream(bytes, code);
+    out.write(new byte[] {1, 1, 1, 1, 0, 0, 0, 0, 1}, 0, 9);
+    t.checkExpect(bytes.size(), 0);
+    t.checkExpect(out.buffered, 1);
+    out.flush();
+    t.checkExpect(bytes.toByteArray(), new byte[] {(byte) 0xF0});
+    t.checkExpect(out.buffered, 0);
+    t.checkExpect(out.accBits, 1);
+  }
+  
+  //tests that the close and put8 methods work as expected
+  void testClose(Tester t) throws IOException {
+    ByteHuffman code = new ByteHuffman(new byte[] {0, 1});
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    HuffmanOutputStream out = new HuffmanOutputStream(bytes, code);
+    out.write(new byte[] {1, 0, 1}, 0, 3);
+    out.close();
+    t.checkExpect(bytes.toByteArray(), new byte[] {(byte) 0xA0, 5});
+    out.close();
+    t.checkExpect(bytes.size(), 2);
+    t.checkException(new IOException("Stream closed."), out, "write", 1);
+    
+    ByteArrayOutputStream empty = new ByteArrayOutputStream();
+    new HuffmanOutputStream(empty, code).close();
+    t.checkExpect(empty.toByteArray(), new byte[] {0});
+  }
+}
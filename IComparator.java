@@ -0,0 +1,7 @@
+// This represents a comparator object, used to compare two generic types;
+// compare the second one with respect to the first one.  
+interface IComparator<T> {
+  // This method compares the two given generic types, comparing the second one relative to the 
+  // first one. 
+  int compare(T one, T two);
+}
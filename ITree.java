@@ -0,0 +1,8 @@
+// This interface represents an ITree, which is one of:
+// - Node
+// - Leaf
+// An ITree repesents either an encoded value available in the Huffman Tree (leaf) or a collection 
+// of such encoded values(subtree). 
+interface ITree {
+  
+}
@@ -0,0 +1,214 @@
+import tester.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// This represents a string encoded as four streams, each holding a quarter of its symbols in
+// order: stream k holds the symbols from k * quarter() up to (k + 1) * quarter(), the last one
+// holding whatever is left over. The streams are joined into one BitBuffer, and the bit offset
+// at which every stream starts is recorded as a jump table, so that a decoder can keep a cursor
+// into every stream and decode the four of them in one loop. Since the symbol a cursor decodes
+// never depends on what the other cursors decode, the four lookups of every step can overlap
+// instead of each waiting for the one before it to find where its codeword ends.
+class InterleavedEncoding {
+  static final int STREAMS = 4;
+  int length;
+  int[] offsets;
+  BitBuffer bits;
+  
+  // Constructor takes in the number of symbols in the whole string, the bit offset at which
+  // every stream starts followed by the total number of bits, and the joined streams.
+  InterleavedEncoding(int length, int[] offsets, BitBuffer bits) {
+    if (offsets.length != STREAMS + 1) {
+      throw new IllegalArgumentException("Expected the offsets of " + STREAMS + " streams.");
+    }
+    this.length = length;
+    this.offsets = offsets;
+    this.bits = bits;
+  }
+  
+  // Constructor takes in bytes written by toByteArray and reads the InterleavedEncoding back out
+  // of them. Since every codeword is at least one bit long, a frame claiming more symbols than it
+  // has bits, or bits but no symbols, is rejected before anything is sized from its length.
+  InterleavedEncoding(byte[] framed) {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(framed));
+    try {
+      this.length = in.readInt();
+      if (this.length < 0) {
+        throw new IllegalArgumentException("Malformed interleaved encoding.");
+      }
+      this.offsets = new int[STREAMS + 1];
+      for (int k = 1; k <= STREAMS; k += 1) {
+        this.offsets[k] = in.readInt();
+        if (this.offsets[k] < this.offsets[k - 1]) {
+          throw new IllegalArgumentException("Malformed interleaved encoding.");
+        }
+      }
+      int total = this.offsets[STREAMS];
+      if (this.length > total || (this.length == 0 && total > 0)
+          || in.available() != (int) (((long) total + 7) >>> 3)) {
+        throw new IllegalArgumentException("Malformed interleaved encoding.");
+      }
+      this.bits = new BitBuffer(total);
+      for (int i = 0; i < total >>> 3; i += 1) {
+        this.bits.append(in.readUnsignedByte(), 8);
+      }
+      int rest = total & 7;
+      if (rest > 0) {
+        this.bits.append(in.readUnsignedByte() >>> (8 - rest), rest);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Malformed interleaved encoding.");
+    }
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.length ...                               -- int
+   * ... this.offsets ...                              -- int[]
+   * ... this.bits ...                                 -- BitBuffer
+   * METHODS:
+   * ... quarter() ...                                 -- int
+   * ... count(int k) ...                              -- int
+   * ... stream(int k) ...                             -- BitBuffer
+   * ... toByteArray() ...                             -- byte[]
+   * METHODS ON FIELDS:
+   * ... this.bits.slice(int start, int end) ...       -- BitBuffer
+   * ... this.bits.toByteArray() ...                   -- byte[]
+   */
+  
+  // This method returns the number of symbols in every stream but the last, which holds at most
+  // that many.
+  int quarter() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return (int) (((long) this.length + STREAMS - 1) / STREAMS);
+  }
+  
+  // This method returns the number of symbols in the stream at the given index. Only the last
+  // streams can hold fewer symbols than the first, so the counts never grow from one stream to
+  // the next.
+  int count(int k) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... k ...   -- int
+     */
+    long start = Math.min((long) k * this.quarter(), this.length);
+    long end = Math.min((long) (k + 1) * this.quarter(), this.length);
+    return (int) (end - start);
+  }
+  
+  // This method returns the encoded bits of the stream at the given index, which decode to the
+  // symbols of that stream alone.
+  BitBuffer stream(int k) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... k ...   -- int
+     */
+    if (k < 0 || k >= STREAMS) {
+      throw new IndexOutOfBoundsException(
+          "Stream " + k + " is outside of " + STREAMS + " streams.");
+    }
+    return this.bits.slice(this.offsets[k], this.offsets[k + 1]);
+  }
+  
+  // This method writes this InterleavedEncoding as a frame of ints followed by the encoded bits:
+  // the number of symbols, then the jump table of the bit offsets at which the second, third and
+  // fourth streams start followed by the total number of bits, then the bits packed 8 to a byte.
+  byte[] toByteArray() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(this.length);
+      for (int k = 1; k <= STREAMS; k += 1) {
+        out.writeInt(this.offsets[k]);
+      }
+      out.write(this.bits.toByteArray());
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write the interleaved encoding.", e);
+    }
+    return bytes.toByteArray();
+  }
+}
+
+class ExamplesInterleavedEncoding {
+  Huffman huff = new Huffman(new ArrayList<String>(Arrays.asList("a", "b", "c", "d")),
+      new ArrayList<Integer>(Arrays.asList(5, 3, 1, 1)));
+  
+  //tests that the constructor throws exceptions when expected
+  boolean testInterleavedEncodingExceptions(Tester t) {
+    return t.checkConstructorException(
+        new IllegalArgumentException("Expected the offsets of 4 streams."),
+        "InterleavedEncoding", 2, new int[] {0, 1, 2}, new BitBuffer(0));
+  }
+  
+  //tests that the quarter and count methods work as expected
+  void testQuarterAndCount(Tester t) {
+    InterleavedEncoding five = new InterleavedEncoding(5, new int[5], new BitBuffer(0));
+    t.checkExpect(five.quarter(), 2);
+    t.checkExpect(five.count(0), 2);
+    t.checkExpect(five.count(1), 2);
+    t.checkExpect(five.count(2), 1);
+    t.checkExpect(five.count(3), 0);
+    InterleavedEncoding eight = new InterleavedEncoding(8, new int[5], new BitBuffer(0));
+    t.checkExpect(eight.count(3), 2);
+    InterleavedEncoding empty = new InterleavedEncoding(0, new int[5], new BitBuffer(0));
+    t.checkExpect(empty.quarter(), 0);
+    t.checkExpect(empty.count(0), 0);
+  }
+  
+  //tests that the stream method works as expected
+  void testStream(Tester t) {
+    InterleavedEncoding streams = this.huff.encodeInterleaved("abacabadab");
+    t.checkExpect(this.huff.decode(streams.stream(0)), "aba");
+    t.checkExpect(this.huff.decode(streams.stream(2)), "ada");
+    t.checkExpect(this.huff.decode(streams.stream(3)), "b");
+    t.checkException(new IndexOutOfBoundsException("Stream 4 is outside of 4 streams."),
+        streams, "stream", 4);
+  }
+  
+  //tests that the toByteArray method and the framed constructor work as expected
+  void testToByteArray(Tester t) {
+    InterleavedEncoding streams = this.huff.encodeInterleaved("abcd");
+    byte[] framed = streams.toByteArray();
+    t.checkExpect(framed, new byte[] {0, 0, 0, 4, 0, 0, 0, 1, 0, 0, 0, 3, 0, 0, 0, 6,
+        0, 0, 0, 9, (byte) 0x72, (byte) 0x80});
+    InterleavedEncoding read = new InterleavedEncoding(framed);
+    t.checkExpect(read.length, 4);
+    t.checkExpect(read.offsets, streams.offsets);
+    t.checkExpect(read.bits.toBooleans(), streams.bits.toBooleans());
+    t.checkExpect(this.huff.decodeInterleaved(read), "abcd");
+    
+    byte[] shortBits = Arrays.copyOf(framed, framed.length - 1);
+    byte[] backwards = framed.clone();
+    backwards[11] = 0;
+    t.checkConstructorException(new IllegalArgumentException("Malformed interleaved encoding."),
+        "InterleavedEncoding", shortBits);
+    t.checkConstructorException(new IllegalArgumentException("Malformed interleaved encoding."),
+        "InterleavedEncoding", backwards);
+    t.checkConstructorException(new IllegalArgumentException("Malformed interleaved encoding."),
+        "InterleavedEncoding", new byte[] {0, 0, 0, 1});
+    byte[] tooLong = new byte[] {0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xF0,
+        0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    byte[] noSymbols = framed.clone();
+    noSymbols[3] = 0;
+    byte[] moreSymbols = framed.clone();
+    moreSymbols[3] = 10;
+    t.checkConstructorException(new IllegalArgumentException("Malformed interleaved encoding."),
+        "InterleavedEncoding", tooLong);
+    t.checkConstructorException(new IllegalArgumentException("Malformed interleaved encoding."),
+        "InterleavedEncoding", noSymbols);
+    t.checkConstructorException(new IllegalArgumentException("Malformed interleaved encoding."),
+        "InterleavedEncoding", moreSymbols);
+    t.checkExpect(new InterleavedEncoding(new byte[20]).length, 0);
+  }
+}
@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+
+// This method represents a Leaf in an ATree, that holds an encoded character and its respective
+// frequency. 
+class Leaf extends ATree {
+  String val;
+  
+  // Constructor
+  Leaf(String val, int freq) {
+    super(freq);
+    this.val = val;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.freq ...                                                      -- int
+   * ... this.val ...                                                       -- String
+   * METHODS:
+   * ... isSmallerFreq(ATree other) ...                                     -- boolean
+   * ... find(String c) ...                                                 -- boolean
+   * ... updateConverted(ArrayList<Boolean> converted, String letter) ...   -- void
+   * ... decodeThisTree(ArrayList<Boolean> input, Forest f) ...             -- String
+   * ... fillCodes(CodeTable table, long code, int length) ...              -- void
+   * ... step(boolean direction) ...                                        -- ATree
+   * ... emit(StringBuilder output) ...                                     -- boolean
+   * ... height() ...                                                       -- int
+   * ... fillDecodeTable(DecodeTable table, int offset, int width, 
+   *                     int depth, int index) ...                          -- void
+   * ... flatten(FlatTree tree) ...                                         -- int
+   * METHODS ON FIELDS:
+   * ... this.val.equals(String str) ...                                    -- boolean
+   */ 
+  
+  // This method checks whether the given string is the same as this Leaf's encoded symbol. If 
+  // yes, then the given string has been found in this Huffman Tree!
+  public boolean find(String c) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... c ...   -- String
+     */
+    return this.val.equals(c);
+  }
+  
+  // EFFECT: This simply marks the end of traversal during the process of encoding one letter.
+  public void updateConverted(ArrayList<Boolean> converted, String letter) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... converted ...   -- ArrayList<Boolean>
+     * ... letter ...      -- String
+     */
+    return;
+  }
+  
+  // This method adds the value of this Leaf's encoded symbol to the string output of decoding in
+  // the decoding process and simply resets the process to start again at the top of the Huffman
+  // Tree with the remaining arraylist of booleans(instructions). 
+  public String decodeThisTree(ArrayList<Boolean> input, Forest f) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...                                      -- ArrayList<Boolean>
+     * ... f ...                                          -- Forest
+     * METHODS ON PARAMETERS:
+     * ... f.decodingTree(ArrayList<Boolean> input) ...   -- String
+     */
+    return this.val + f.decodingTree(input);
+  }
+  
+  // EFFECT: Records this Leaf's encoded symbol in the given table with the given codeword. 
+  public void fillCodes(CodeTable table, long code, int length) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...                                             -- CodeTable
+     * ... code ...                                              -- long
+     * ... length ...                                            -- int
+     * METHODS ON PARAMETERS:
+     * ... table.add(String symbol, long code, int length) ...   -- void
+     */
+    table.add(this.val, code, length);
+  }
+  
+  // This method throws an exception, because there is nothing below a Leaf to step into. 
+  public ATree step(boolean direction) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... direction ...   -- boolean
+     */
+    throw new IllegalStateException("Cannot step past the Leaf " + this.val + ".");
+  }
+  
+  // EFFECT: Appends this Leaf's encoded symbol to the given output. 
+  public boolean emit(StringBuilder output) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... output ...                     -- StringBuilder
+     * METHODS ON PARAMETERS:
+     * ... output.append(String str) ...  -- StringBuilder
+     */
+    output.append(this.val);
+    return true;
+  }
+  
+  // This method returns 0, since a Leaf is itself the end of every path through it. 
+  public int height() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return 0;
+  }
+  
+  // EFFECT: Records this Leaf's encoded symbol in every entry of the given DecodeTable whose index
+  // starts with the given depth bits of the given index. 
+  public void fillDecodeTable(DecodeTable table, int offset, int width, int depth, int index) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...                                                             -- DecodeTable
+     * ... offset ...                                                            -- int
+     * ... width ...                                                             -- int
+     * ... depth ...                                                             -- int
+     * ... index ...                                                             -- int
+     * METHODS ON PARAMETERS:
+     * ... table.put(int offset, int width, int depth, int index, String sym) ...   -- void
+     */
+    table.put(offset, width, depth, index, this.val);
+  }
+  
+  // This method returns -1 minus the slot of this Leaf's encoded symbol in the CodeTable of the
+  // given FlatTree, which is how the FlatTree refers to a Leaf.
+  public int flatten(FlatTree tree) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... tree ...                                    -- FlatTree
+     * METHODS ON FIELDS OF PARAMETERS:
+     * ... tree.codes.index.get(String symbol) ...     -- Integer
+     */
+    return -1 - tree.codes.index.get(this.val);
+  }
+}
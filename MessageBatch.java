@@ -0,0 +1,282 @@
+import tester.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// This represents many short messages encoded one after another into a single BitBuffer, with
+// the bit offset every message starts at, so that encoding or decoding a batch of messages does
+// not allocate a buffer per message. Message i is held by the bits from offsets[i] up to but not
+// including offsets[i + 1]. A MessageBatch is meant to be reused: encoding into it again drops
+// the messages it held but keeps its arrays, so once they are large enough, encoding allocates
+// nothing. Each thread can reuse its own MessageBatch through LOCAL.
+class MessageBatch {
+  static final LocalBatch LOCAL = new LocalBatch();
+  BitBuffer bits;
+  int[] offsets;
+  int count;
+  
+  // Constructor makes an empty MessageBatch with room for the given number of bits and messages,
+  // growing as needed.
+  MessageBatch(int bitCapacity, int messageCapacity) {
+    this.bits = new BitBuffer(bitCapacity);
+    this.offsets = new int[Math.max(1, messageCapacity) + 1];
+    this.count = 0;
+  }
+  
+  // Constructor makes an empty MessageBatch with room for 64 messages of 64 bits.
+  MessageBatch() {
+    this(4096, 64);
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.bits ...                                                     -- BitBuffer
+   * ... this.offsets ...                                                  -- int[]
+   * ... this.count ...                                                    -- int
+   * METHODS:
+   * ... clear() ...                                                       -- void
+   * ... add(CodeTable table, String message) ...                          -- void
+   * ... encode(CodeTable table, String[] messages) ...                    -- void
+   * ... encode(CodeTable table, List<String> messages) ...                -- void
+   * ... decode(DecodeTable table, StringBuilder text, int[] ends) ...     -- boolean
+   * ... decode(DecodeTable table, String[] messages) ...                  -- void
+   * METHODS ON FIELDS:
+   * ... this.bits.truncate(int size) ...                                  -- void
+   * ... table.appendTo(BitBuffer converted, String input,
+   *                    int start, int end) ...                            -- void
+   * ... table.decodeInto(BitBuffer input, int start, int end,
+   *                      StringBuilder output) ...                        -- int
+   */
+  
+  // EFFECT: Drops every message of this MessageBatch, keeping its arrays.
+  void clear() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    this.bits.truncate(0);
+    this.count = 0;
+  }
+  
+  // EFFECT: Encodes the given message with the given CodeTable after the messages of this
+  // MessageBatch. If the message cannot be encoded, the batch is left as it was before.
+  void add(CodeTable table, String message) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...     -- CodeTable
+     * ... message ...   -- String
+     */
+    try {
+      table.appendTo(this.bits, message, 0, message.length());
+    } catch (IllegalArgumentException e) {
+      this.bits.truncate(this.offsets[this.count]);
+      throw e;
+    }
+    if (this.count + 2 > this.offsets.length) {
+      this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+    }
+    this.count += 1;
+    this.offsets[this.count] = this.bits.size;
+  }
+  
+  // EFFECT: Replaces the messages of this MessageBatch with the given messages, encoded with the
+  // given CodeTable.
+  void encode(CodeTable table, String[] messages) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...      -- CodeTable
+     * ... messages ...   -- String[]
+     */
+    this.clear();
+    for (int i = 0; i < messages.length; i += 1) {
+      this.add(table, messages[i]);
+    }
+  }
+  
+  // EFFECT: Replaces the messages of this MessageBatch with the given messages, encoded with the
+  // given CodeTable.
+  void encode(CodeTable table, List<String> messages) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...      -- CodeTable
+     * ... messages ...   -- List<String>
+     */
+    this.clear();
+    for (int i = 0; i < messages.size(); i += 1) {
+      this.add(table, messages.get(i));
+    }
+  }
+  
+  // EFFECT: Decodes every message of this MessageBatch with the given DecodeTable, appending them
+  // one after another to the given StringBuilder and recording the index of the StringBuilder
+  // that every message ends at in the given array, so that reusing both allocates nothing.
+  // Returns whether any message stops short of a complete codeword.
+  boolean decode(DecodeTable table, StringBuilder text, int[] ends) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...   -- DecodeTable
+     * ... text ...    -- StringBuilder
+     * ... ends ...    -- int[]
+     */
+    if (ends.length < this.count) {
+      throw new IllegalArgumentException("The array of ends must hold every message.");
+    }
+    boolean truncated = false;
+    for (int i = 0; i < this.count; i += 1) {
+      int whole = table.decodeInto(this.bits, this.offsets[i], this.offsets[i + 1], text);
+      truncated = truncated || whole < this.offsets[i + 1];
+      ends[i] = text.length();
+    }
+    return truncated;
+  }
+  
+  // EFFECT: Decodes every message of this MessageBatch with the given DecodeTable into its own
+  // string, stored in the given array at the index of the message.
+  void decode(DecodeTable table, String[] messages) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...      -- DecodeTable
+     * ... messages ...   -- String[]
+     */
+    if (messages.length < this.count) {
+      throw new IllegalArgumentException("The array of messages must hold every message.");
+    }
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < this.count; i += 1) {
+      text.setLength(0);
+      table.decodeInto(this.bits, this.offsets[i], this.offsets[i + 1], text);
+      messages[i] = text.toString();
+    }
+  }
+}
+
+// This represents the MessageBatch of every thread, made the first time that thread asks for it.
+class LocalBatch extends ThreadLocal<MessageBatch> {
+  
+  /* TEMPLATE
+   * METHODS:
+   * ... initialValue() ...   -- MessageBatch
+   */
+  
+  // This method returns a new, empty MessageBatch, for a thread that has none yet.
+  protected MessageBatch initialValue() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return new MessageBatch();
+  }
+}
+
+class ExamplesMessageBatch {
+  ArrayList<String> letters = new ArrayList<String>(Arrays.asList("a", "b", "c", "d", "e", "f"));
+  ArrayList<Integer> numbers = new ArrayList<Integer>(Arrays.asList(12, 45, 5, 13, 9, 16));
+  Huffman huff = new Huffman(this.letters, this.numbers);
+  
+  //tests that the constructors work as expected
+  void testMessageBatchConstructor(Tester t) {
+    MessageBatch batch = new MessageBatch(100, 0);
+    t.checkExpect(batch.offsets.length, 2);
+    t.checkExpect(batch.bits.words.length, 2);
+    t.checkExpect(batch.count, 0);
+    t.checkExpect(new MessageBatch().offsets.length, 65);
+  }
+  
+  //tests that the add and clear methods work as expected
+  void testAddAndClear(Tester t) {
+    MessageBatch batch = new MessageBatch(8, 1);
+    batch.add(this.huff.table, "cafe");
+    batch.add(this.huff.table, "");
+    batch.add(this.huff.table, "bad");
+    t.checkExpect(batch.count, 3);
+    t.checkExpect(batch.offsets[1], 14);
+    t.checkExpect(batch.offsets[2], 14);
+    t.checkExpect(batch.offsets[3], 21);
+    t.checkExpect(batch.bits.slice(14, 21).toBooleans(), this.huff.encode("bad"));
+    t.checkException(new IllegalArgumentException(
+        "Tried to encode g but that is not part of the language."),
+        batch, "add", this.huff.table, "ddg");
+    t.checkExpect(batch.count, 3);
+    t.checkExpect(batch.bits.size, 21);
+    batch.add(this.huff.table, "b");
+    t.checkExpect(batch.bits.slice(21, 22).toBooleans(), this.huff.encode("b"));
+    long[] words = batch.bits.words;
+    batch.clear();
+    t.checkExpect(batch.count, 0);
+    t.checkExpect(batch.bits.size, 0);
+    t.checkExpect(batch.bits.words == words, true);
+  }
+  
+  //tests that the encode methods work as expected
+  void testEncodeBatch(Tester t) {
+    MessageBatch batch = new MessageBatch();
+    batch.add(this.huff.table, "abc");
+    batch.encode(this.huff.table, new String[] {"fed", "cab"});
+    t.checkExpect(batch.count, 2);
+    t.checkExpect(batch.bits.slice(0, batch.offsets[1]).toBooleans(), this.huff.encode("fed"));
+    batch.encode(this.huff.table, Arrays.asList("a", "b", "c"));
+    t.checkExpect(batch.count, 3);
+    t.checkExpect(batch.bits.toBooleans(), this.huff.encode("abc"));
+  }
+  
+  //tests that the decode methods work as expected
+  void testDecodeBatch(Tester t) {
+    MessageBatch batch = new MessageBatch();
+    batch.encode(this.huff.table, new String[] {"fed", "", "cabbed"});
+    StringBuilder text = new StringBuilder();
+    int[] ends = new int[3];
+    t.checkExpect(batch.decode(this.huff.decoder, text, ends), false);
+    t.checkExpect(text.toString(), "fedcabbed");
+    t.checkExpect(ends, new int[] {3, 3, 9});
+    String[] messages = new String[4];
+    batch.decode(this.huff.decoder, messages);
+    t.checkExpect(messages, new String[] {"fed", "", "cabbed", null});
+    t.checkException(new IllegalArgumentException("The array of ends must hold every message."),
+        batch, "decode", this.huff.decoder, text, new int[2]);
+    t.checkException(
+        new IllegalArgumentException("The array of messages must hold every message."),
+        batch, "decode", this.huff.decoder, new String[2]);
+    
+    batch.offsets[1] -= 1;
+    batch.decode(this.huff.decoder, messages);
+    t.checkExpect(messages[0], "fe?");
+    t.checkExpect(batch.decode(this.huff.decoder, new StringBuilder(), ends), true);
+  }
+  
+  //tests that every thread gets its own MessageBatch from LOCAL
+  void testLocalBatch(Tester t) throws InterruptedException {
+    MessageBatch mine = MessageBatch.LOCAL.get();
+    t.checkExpect(MessageBatch.LOCAL.get() == mine, true);
+    MessageBatch[] theirs = new MessageBatch[1];
+    Thread other = new LocalBatchUser(theirs);
+    other.start();
+    other.join();
+    t.checkExpect(theirs[0] == null, false);
+    t.checkExpect(theirs[0] == mine, false);
+    t.checkExpect(new LocalBatch().initialValue().count, 0);
+  }
+}
+
+// This represents a thread used by ExamplesMessageBatch that records the MessageBatch it gets
+// from MessageBatch.LOCAL.
+class LocalBatchUser extends Thread {
+  MessageBatch[] result;
+  
+  // Constructor takes in the array to record the MessageBatch in.
+  LocalBatchUser(MessageBatch[] result) {
+    this.result = result;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.result ...   -- MessageBatch[]
+   * METHODS:
+   * ... run() ...         -- void
+   */
+  
+  // EFFECT: Records the MessageBatch of this thread.
+  public void run() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    this.result[0] = MessageBatch.LOCAL.get();
+  }
+}
@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+
+// This represents a Node in an ATree, that is a combination of two ITrees. 
+class Node extends ATree {
+  ATree left;
+  ATree right;
+  
+  // Constructor
+  Node(int total, ATree left, ATree right) {
+    super(total);
+    this.left = left;
+    this.right = right;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.freq ...                                                                 -- int
+   * ... this.left ...                                                                 -- ATree
+   * ... this.right ...                                                                -- ATree
+   * METHODS:
+   * ... isSmallerFreq(ATree other) ...                                                -- boolean
+   * ... find(String c) ...                                                            -- boolean
+   * ... updateConverted(ArrayList<Boolean> converted, String letter) ...              -- void
+   * ... decodeThisTree(ArrayList<Boolean> input, Forest f) ...                        -- String
+   * ... fillCodes(CodeTable table, long code, int length) ...                         -- void
+   * ... step(boolean direction) ...                                                   -- ATree
+   * ... emit(StringBuilder output) ...                                                -- boolean
+   * ... height() ...                                                                  -- int
+   * ... fillDecodeTable(DecodeTable table, int offset, int width, 
+   *                     int depth, int index) ...                                     -- void
+   * ... flatten(FlatTree tree) ...                                                    -- int
+   * METHODS ON FIELDS:
+   * ... this.left.find(String c) ...                                                  -- boolean
+   * ... this.right.find(String c) ...                                                 -- boolean
+   * ... this.left.updateConverted(ArrayList<Boolean> converted, String letter) ...    -- void
+   * ... this.right.updateConverted(ArrayList<Boolean> converted, String letter) ...   -- void
+   * ... this.right.decodeThisTree(ArrayList<Boolean> input, Forest f) ...             -- String
+   * ... this.left.decodeThisTree(ArrayList<Boolean> input, Forest f) ...              -- String
+   * ... this.left.fillCodes(CodeTable table, long code, int length) ...               -- void
+   * ... this.right.fillCodes(CodeTable table, long code, int length) ...              -- void
+   */ 
+  
+  // This method checks whether or not the given string is present in this Node or not. More
+  // specifically, it checks whether or not the given string is present in the two ITrees that
+  // constitute the Node. 
+  public boolean find(String c) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... c ...   -- String
+     */
+    return this.left.find(c) || this.right.find(c);
+    
+  }
+  
+  // EFFECT: Uses this Node to modify the given arraylist of booleans in the process of encoding 
+  // and forming a resultant arraylist of booleans that consists the encoded values. 
+  public void updateConverted(ArrayList<Boolean> converted, String letter) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... converted ...                 -- ArrayList<Boolean>
+     * ... letter ...                    -- String
+     * METHODS ON PARAMETERS:
+     * ... converted.add(Object o) ...   -- boolean
+     */
+    if (this.left.find(letter)) {
+      converted.add(false);
+      this.left.updateConverted(converted, letter);
+    } else {
+      converted.add(true);
+      this.right.updateConverted(converted, letter);
+    }
+  } 
+  
+  // This method uses the user-inputted arraylist of booleans to traverse through this Node, 
+  // in order to reach the characters at the leaves of the Huffman Tree, during the process of
+  // decoding. 
+  public String decodeThisTree(ArrayList<Boolean> input, Forest f) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...                     -- ArrayList<Boolean>
+     * ... f ...                         -- Forest
+     * METHODS ON PARAMETERS:
+     * ... input.size() ...              -- int
+     * ... input.remove(int index) ...   -- Object o
+     */
+    if (input.size() == 0) {
+      return "?";
+    }
+    boolean direction = input.remove(0);
+    if (direction) {
+      return this.right.decodeThisTree(input, f);
+    } else {
+      return this.left.decodeThisTree(input, f);
+    }
+  }
+  
+  // EFFECT: Records the codewords of both ITrees of this Node into the given table, extending the
+  // given code with a false (0) bit for the left ITree and a true (1) bit for the right ITree. 
+  public void fillCodes(CodeTable table, long code, int length) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...                                                 -- CodeTable
+     * ... code ...                                                  -- long
+     * ... length ...                                                -- int
+     * METHODS ON PARAMETERS:
+     * ... table.add(String symbol, long code, int length) ...       -- void
+     */
+    if (length == 64) {
+      throw new IllegalArgumentException("Codewords longer than 64 bits are not supported.");
+    }
+    this.left.fillCodes(table, code << 1, length + 1);
+    this.right.fillCodes(table, (code << 1) | 1L, length + 1);
+  }
+  
+  // This method returns the right ITree of this Node when given true, and the left one otherwise.
+  public ATree step(boolean direction) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... direction ...   -- boolean
+     */
+    if (direction) {
+      return this.right;
+    } else {
+      return this.left;
+    }
+  }
+  
+  // EFFECT: A Node has no encoded symbol of its own, so nothing is appended to the given output.
+  public boolean emit(StringBuilder output) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... output ...   -- StringBuilder
+     */
+    return false;
+  }
+  
+  // This method returns the length of the longest path from this Node down to one of its Leaves.
+  public int height() {
+    /* TEMPLATE
+     * Template: Same as class template.
+     */
+    return 1 + Math.max(this.left.height(), this.right.height());
+  }
+  
+  // EFFECT: Records both ITrees of this Node in the given DecodeTable, one bit deeper into the 
+  // index. If this Node is reached after all of the table's bits, it instead gets a second-level
+  // table of its own that the entry at its index links to. 
+  public void fillDecodeTable(DecodeTable table, int offset, int width, int depth, int index) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... table ...                                                             -- DecodeTable
+     * ... offset ...                                                            -- int
+     * ... width ...                                                             -- int
+     * ... depth ...                                                             -- int
+     * ... index ...                                                             -- int
+     * METHODS ON PARAMETERS:
+     * ... table.link(int entry, int width) ...                                  -- int
+     */
+    if (depth == width) {
+      int subWidth = Math.min(this.height(), table.subBits);
+      int sub = table.link(offset + index, subWidth);
+      this.left.fillDecodeTable(table, sub, subWidth, 1, 0);
+      this.right.fillDecodeTable(table, sub, subWidth, 1, 1);
+    } else {
+      this.left.fillDecodeTable(table, offset, width, depth + 1, index << 1);
+      this.right.fillDecodeTable(table, offset, width, depth + 1, (index << 1) | 1);
+    }
+  }
+  
+  // EFFECT: Adds this Node to the given FlatTree, followed by both of its ITrees, and records
+  // how the FlatTree refers to them as this Node's children. Returns the number of this Node.
+  public int flatten(FlatTree tree) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... tree ...                -- FlatTree
+     * METHODS ON PARAMETERS:
+     * ... tree.newNode() ...      -- int
+     * FIELDS OF PARAMETERS:
+     * ... tree.children ...       -- int[]
+     */
+    int self = tree.newNode();
+    int left = this.left.flatten(tree);
+    int right = this.right.flatten(tree);
+    tree.children[2 * self] = left;
+    tree.children[2 * self + 1] = right;
+    return self;
+  }
+}
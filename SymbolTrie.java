@@ -0,0 +1,192 @@
+import tester.*;
+import java.util.Arrays;
+
+// This represents a trie over the symbols of a code, used to split a string into the longest
+// symbols that match it one after another, so that symbols of several characters, such as words
+// or n-grams, can be encoded. Nodes are numbered from 0, the root, and every edge from a node to
+// a child along a character is kept in an open-addressed hash table keyed by the node and the
+// character, so walking the trie does not allocate.
+class SymbolTrie {
+  long[] keys;
+  int[] children;
+  int edges;
+  int[] slots;
+  int nodes;
+  
+  // Constructor makes a trie holding no symbols.
+  SymbolTrie() {
+    this.keys = new long[16];
+    this.children = new int[16];
+    this.edges = 0;
+    this.slots = new int[8];
+    Arrays.fill(this.slots, -1);
+    this.nodes = 1;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.keys ...                                        -- long[]
+   * ... this.children ...                                    -- int[]
+   * ... this.edges ...                                       -- int
+   * ... this.slots ...                                       -- int[]
+   * ... this.nodes ...                                       -- int
+   * METHODS:
+   * ... find(long[] keys, long key) ...                      -- int
+   * ... child(int node, char c) ...                          -- int
+   * ... add(String symbol, int slot) ...                     -- void
+   * ... longestMatch(String input, int start, int end) ...   -- long
+   */
+  
+  // This method returns the index of the given array of keys, whose length is a power of two,
+  // that holds the given key, or the empty index where it belongs. Keys are stored plus one, so
+  // that empty entries hold 0.
+  int find(long[] keys, long key) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... keys ...   -- long[]
+     * ... key ...    -- long
+     */
+    int mask = keys.length - 1;
+    int i = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    while (keys[i] != 0 && keys[i] != key + 1) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+  
+  // This method returns the child of the given node along the given character, or -1 if it has
+  // none.
+  int child(int node, char c) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... node ...   -- int
+     * ... c ...      -- char
+     */
+    int i = this.find(this.keys, ((long) node << 16) | c);
+    if (this.keys[i] == 0) {
+      return -1;
+    }
+    return this.children[i];
+  }
+  
+  // EFFECT: Adds the given symbol to this trie, matching the given slot. A symbol that is already
+  // in this trie keeps the slot it was added with first, and the empty symbol is never matched.
+  void add(String symbol, int slot) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... symbol ...   -- String
+     * ... slot ...     -- int
+     */
+    int node = 0;
+    for (int k = 0; k < symbol.length(); k += 1) {
+      long key = ((long) node << 16) | symbol.charAt(k);
+      int i = this.find(this.keys, key);
+      if (this.keys[i] == 0) {
+        if (2 * (this.edges + 1) > this.keys.length) {
+          long[] oldKeys = this.keys;
+          int[] oldChildren = this.children;
+          this.keys = new long[oldKeys.length * 2];
+          this.children = new int[oldKeys.length * 2];
+          for (int j = 0; j < oldKeys.length; j += 1) {
+            if (oldKeys[j] != 0) {
+              int moved = this.find(this.keys, oldKeys[j] - 1);
+              this.keys[moved] = oldKeys[j];
+              this.children[moved] = oldChildren[j];
+            }
+          }
+          i = this.find(this.keys, key);
+        }
+        if (this.nodes == this.slots.length) {
+          this.slots = Arrays.copyOf(this.slots, this.nodes * 2);
+          Arrays.fill(this.slots, this.nodes, this.nodes * 2, -1);
+        }
+        this.keys[i] = key + 1;
+        this.children[i] = this.nodes;
+        this.edges += 1;
+        this.nodes += 1;
+      }
+      node = this.children[i];
+    }
+    if (node != 0 && this.slots[node] < 0) {
+      this.slots[node] = slot;
+    }
+  }
+  
+  // This method finds the longest symbol in this trie that the given input continues with from
+  // the given start index, without reading past the given end index, and returns its slot in the
+  // high 32 bits and its length in the low 32 bits, or -1 if no symbol matches there.
+  long longestMatch(String input, int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... input ...   -- String
+     * ... start ...   -- int
+     * ... end ...     -- int
+     */
+    long best = -1;
+    int node = 0;
+    for (int i = start; i < end; i += 1) {
+      node = this.child(node, input.charAt(i));
+      if (node < 0) {
+        break;
+      }
+      if (this.slots[node] >= 0) {
+        best = ((long) this.slots[node] << 32) | (i + 1 - start);
+      }
+    }
+    return best;
+  }
+}
+
+class ExamplesSymbolTrie {
+  
+  //tests that the find and child methods work as expected
+  void testChild(Tester t) {
+    SymbolTrie trie = new SymbolTrie();
+    trie.add("ab", 0);
+    t.checkExpect(trie.child(0, 'a'), 1);
+    t.checkExpect(trie.child(1, 'b'), 2);
+    t.checkExpect(trie.child(0, 'b'), -1);
+    t.checkExpect(trie.child(2, 'a'), -1);
+    long[] keys = new long[4];
+    int i = trie.find(keys, 5L);
+    t.checkExpect(keys[i], 0L);
+    keys[i] = 6L;
+    t.checkExpect(trie.find(keys, 5L), i);
+  }
+  
+  //tests that the add method works as expected
+  void testAdd(Tester t) {
+    SymbolTrie trie = new SymbolTrie();
+    trie.add("the", 0);
+    trie.add("then", 1);
+    trie.add("t", 2);
+    trie.add("the", 3);
+    trie.add("", 4);
+    t.checkExpect(trie.nodes, 5);
+    t.checkExpect(trie.edges, 4);
+    t.checkExpect(trie.slots[0], -1);
+    t.checkExpect(trie.slots[1], 2);
+    t.checkExpect(trie.slots[2], -1);
+    t.checkExpect(trie.slots[3], 0);
+    t.checkExpect(trie.slots[4], 1);
+    for (int k = 0; k < 1000; k += 1) {
+      trie.add("w" + k, 10 + k);
+    }
+    t.checkExpect(trie.longestMatch("w999", 0, 4), (1009L << 32) | 4);
+    t.checkExpect(trie.longestMatch("then", 0, 4), (1L << 32) | 4);
+  }
+  
+  //tests that the longestMatch method works as expected
+  boolean testLongestMatch(Tester t) {
+    SymbolTrie trie = new SymbolTrie();
+    trie.add("a", 0);
+    trie.add("abc", 1);
+    trie.add("b", 2);
+    return t.checkExpect(trie.longestMatch("abcb", 0, 4), (1L << 32) | 3)
+        && t.checkExpect(trie.longestMatch("abd", 0, 3), 1L)
+        && t.checkExpect(trie.longestMatch("abd", 1, 3), (2L << 32) | 1)
+        && t.checkExpect(trie.longestMatch("abd", 2, 3), -1L)
+        && t.checkExpect(trie.longestMatch("ab", 2, 2), -1L)
+        && t.checkExpect(trie.longestMatch("abcb", 0, 2), 1L);
+  }
+}
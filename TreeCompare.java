@@ -0,0 +1,21 @@
+// This comparator object is used to compare two ATree objects. 
+class TreeCompare implements IComparator<ATree> {
+  
+  /* TEMPLATE
+   * METHODS:
+   * ... compare(ATree one, ATree two) ...   -- int
+   */
+  
+  // This method compares the two provided ATrees in terms of their values of frequency. 
+  public int compare(ATree one, ATree two) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... one ...        -- ATree
+     * ... two ...        -- ATree
+     * FIELDS ON PARAMETERS:
+     * ... one.freq ...   -- int
+     * ... two.freq ...   -- int
+     */
+    return one.freq - two.freq;
+  }
+}
@@ -0,0 +1,308 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// A Utility Class. 
+class Utils {
+  
+  /* TEMPLATE
+   * METHODS:
+   * ... sort(ArrayList<ATree> array, IComparator<ATree> comp) ...   -- ArrayList<ATree>
+   * ... swap(ArrayList<ATree> array, int one, int two) ...          -- ArrayList<ATree>
+   * ... indexOfMin(ArrayList<ATree> array, 
+   *                int start, 
+   *                IComparator<ATree> comp) ...                     -- int
+   * ... isSorted(ArrayList<ATree> array, IComparator<ATree> comp) ...   -- boolean
+   * ... heapBefore(ATree[] trees, int one, int two) ...             -- boolean
+   * ... heapPush(int[] heap, int size, ATree[] trees, int item) ...   -- int
+   * ... heapPop(int[] heap, int size, ATree[] trees) ...            -- int
+   * ... countBytes(byte[] data) ...                                 -- int[]
+   * ... countBytes(byte[] data, int start, int end) ...             -- int[]
+   * ... lengthLimited(int[] weights, int maxLength) ...             -- int[]
+   * ... expandPackage(int[][] items, int level, int k, int[] lengths) ...   -- void
+   * ... mapFile(Path file) ...                                      -- MappedByteBuffer
+   */
+  
+  // EFFECT: This method implements the selectionSort algorithm on the given arrayList, 
+  // using the given comparator. 
+  ArrayList<ATree> sort(ArrayList<ATree> array, IComparator<ATree> comp) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... array ...          -- ArrayList<ATree>
+     * ... comp ...           -- IComparator<ATree> comp
+     * METHODS ON PARAMETERS:
+     * ... array.size() ...   -- int
+     */
+    for (int i = 0; i < array.size(); i += 1) {
+      int indexOfMin = new Utils().indexOfMin(array, i, comp);
+      array = new Utils().swap(array, i, indexOfMin);
+    }
+    return array;
+  }
+  
+  // EFFECT: This method implements a swap between two elements located at the two given indices, 
+  // within the given arraylist. 
+  ArrayList<ATree> swap(ArrayList<ATree> array, int one, int two) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... array ...                  -- ArrayList<ATree>
+     * ... one ...                    -- int
+     * ... two ...                    -- int
+     * METHODS ON PARAMETERS:
+     * ... array.get(int index) ...                 -- ATree
+     * ... array.set(int index, ATree object) ...   -- ATree
+     */
+    ATree temp = array.get(one);
+    array.set(one, array.get(two));
+    array.set(two,  temp);
+    return array;
+  }
+  
+  // EFFECT: This method finds the minimum value into the given arraylist, in accordance with the 
+  // given comparator. 
+  int indexOfMin(ArrayList<ATree> array, int start, IComparator<ATree> comp) {
+    /* TEMPLATE
+     * ... array ...                        -- ArrayList<ATree>
+     * ... start ...                        -- int
+     * ... comp ...                         -- IComparator<ATree>
+     * METHODS ON PARAMETERS:
+     * ... array.get(int index) ...         -- ATree
+     * ... array.size() ...                 -- int
+     * ... comp.compare(T one, T two) ...   -- boolean
+     */
+    ATree min = array.get(start);
+    int minVal = start;
+    for (int i = start + 1; i < array.size(); i += 1) {
+      if (comp.compare(min, array.get(i)) > 0) {
+        min = array.get(i);
+        minVal = i;
+      }
+    }
+    return minVal;
+  }
+  
+  // This method checks whether the given arraylist is already in ascending order, in accordance
+  // with the given comparator. 
+  boolean isSorted(ArrayList<ATree> array, IComparator<ATree> comp) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... array ...                        -- ArrayList<ATree>
+     * ... comp ...                         -- IComparator<ATree>
+     * METHODS ON PARAMETERS:
+     * ... array.get(int index) ...         -- ATree
+     * ... array.size() ...                 -- int
+     * ... comp.compare(T one, T two) ...   -- int
+     */
+    for (int i = 1; i < array.size(); i += 1) {
+      if (comp.compare(array.get(i - 1), array.get(i)) > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+  
+  // This method checks whether the ATree at the first given index of the given array comes out of
+  // a heap before the one at the second: the one with the smaller frequency, or if both are the 
+  // same, the one at the smaller index. 
+  boolean heapBefore(ATree[] trees, int one, int two) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... trees ...   -- ATree[]
+     * ... one ...     -- int
+     * ... two ...     -- int
+     */
+    int byFreq = Integer.compare(trees[one].freq, trees[two].freq);
+    return byFreq < 0 || (byFreq == 0 && one < two);
+  }
+  
+  // EFFECT: Adds the given index into the given binary heap of indices into the given array of
+  // ATrees, which holds the given number of indices, and returns the new number of indices. 
+  int heapPush(int[] heap, int size, ATree[] trees, int item) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... heap ...    -- int[]
+     * ... size ...    -- int
+     * ... trees ...   -- ATree[]
+     * ... item ...    -- int
+     */
+    int pos = size;
+    while (pos > 0 && this.heapBefore(trees, item, heap[(pos - 1) / 2])) {
+      heap[pos] = heap[(pos - 1) / 2];
+      pos = (pos - 1) / 2;
+    }
+    heap[pos] = item;
+    return size + 1;
+  }
+  
+  // EFFECT: Removes the first index out of the given binary heap of indices into the given array
+  // of ATrees, which holds the given number of indices, and returns the new number of indices. 
+  int heapPop(int[] heap, int size, ATree[] trees) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... heap ...    -- int[]
+     * ... size ...    -- int
+     * ... trees ...   -- ATree[]
+     */
+    int last = heap[size - 1];
+    int newSize = size - 1;
+    int pos = 0;
+    while (2 * pos + 1 < newSize) {
+      int child = 2 * pos + 1;
+      if (child + 1 < newSize && this.heapBefore(trees, heap[child + 1], heap[child])) {
+        child += 1;
+      }
+      if (!this.heapBefore(trees, heap[child], last)) {
+        break;
+      }
+      heap[pos] = heap[child];
+      pos = child;
+    }
+    if (newSize > 0) {
+      heap[pos] = last;
+    }
+    return newSize;
+  }
+  
+  // This method counts how often every byte value occurs in the given data, returning the counts
+  // indexed by the unsigned value of each byte. 
+  int[] countBytes(byte[] data) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... data ...   -- byte[]
+     */
+    return this.countBytes(data, 0, data.length);
+  }
+  
+  // This method counts how often every byte value occurs in the given data from the given start 
+  // up to but not including the given end. Every fourth byte is counted into the same one of four
+  // sub-histograms, which are added together at the end, so that a run of equal bytes does not
+  // make every increment wait for the one before it to store the same count. 
+  int[] countBytes(byte[] data, int start, int end) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... data ...    -- byte[]
+     * ... start ...   -- int
+     * ... end ...     -- int
+     */
+    int[] stripes = new int[4 * 256];
+    int i = start;
+    while (i + 4 <= end) {
+      stripes[data[i] & 0xFF] += 1;
+      stripes[256 + (data[i + 1] & 0xFF)] += 1;
+      stripes[512 + (data[i + 2] & 0xFF)] += 1;
+      stripes[768 + (data[i + 3] & 0xFF)] += 1;
+      i += 4;
+    }
+    while (i < end) {
+      stripes[data[i] & 0xFF] += 1;
+      i += 1;
+    }
+    int[] counts = new int[256];
+    for (int b = 0; b < 256; b += 1) {
+      counts[b] = stripes[b] + stripes[256 + b] + stripes[512 + b] + stripes[768 + b];
+    }
+    return counts;
+  }
+  
+  // This method returns the code lengths of the best prefix code for the given weights in which
+  // no codeword is longer than the given number of bits, found with the package-merge algorithm.
+  // The weights are sorted, and then maxLength lists are built, from the deepest level up: each 
+  // list holds every weight merged in order with the packages made by pairing neighbours in the 
+  // list below. Taking the first 2n - 2 items of the last list and adding one to the length of 
+  // every weight that is part of an item gives the code lengths. 
+  int[] lengthLimited(int[] weights, int maxLength) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... weights ...     -- int[]
+     * ... maxLength ...   -- int
+     */
+    int n = weights.length;
+    if (n < 2 || maxLength < 1 || maxLength > 63 || (maxLength < 31 && n > 1 << maxLength)) {
+      throw new IllegalArgumentException(
+          "No prefix code of " + n + " symbols fits in " + maxLength + " bits.");
+    }
+    Integer[] boxed = new Integer[n];
+    for (int i = 0; i < n; i += 1) {
+      boxed[i] = i;
+    }
+    Arrays.sort(boxed, new WeightCompare(weights));
+    int[] order = new int[n];
+    for (int i = 0; i < n; i += 1) {
+      order[i] = boxed[i];
+    }
+    
+    // Each item of a list is a weight, holding its index, or a package, holding -1 minus the 
+    // index of the first of the two items of the list below that it pairs up. 
+    long[][] sums = new long[maxLength][];
+    int[][] items = new int[maxLength][];
+    for (int level = 0; level < maxLength; level += 1) {
+      int packages = 0;
+      if (level > 0) {
+        packages = sums[level - 1].length / 2;
+      }
+      sums[level] = new long[n + packages];
+      items[level] = new int[n + packages];
+      int leaf = 0;
+      int pack = 0;
+      for (int k = 0; k < n + packages; k += 1) {
+        long packSum = Long.MAX_VALUE;
+        if (pack < packages) {
+          packSum = sums[level - 1][2 * pack] + sums[level - 1][2 * pack + 1];
+        }
+        if (leaf < n && weights[order[leaf]] <= packSum) {
+          sums[level][k] = weights[order[leaf]];
+          items[level][k] = order[leaf];
+          leaf += 1;
+        } else {
+          sums[level][k] = packSum;
+          items[level][k] = -1 - 2 * pack;
+          pack += 1;
+        }
+      }
+    }
+    
+    int[] lengths = new int[n];
+    for (int k = 0; k < 2 * n - 2; k += 1) {
+      this.expandPackage(items, maxLength - 1, k, lengths);
+    }
+    return lengths;
+  }
+  
+  // EFFECT: Adds one to the code length of every weight that is part of the item at the given 
+  // index of the list at the given level, built by lengthLimited. 
+  void expandPackage(int[][] items, int level, int k, int[] lengths) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... items ...     -- int[][]
+     * ... level ...     -- int
+     * ... k ...         -- int
+     * ... lengths ...   -- int[]
+     */
+    int item = items[level][k];
+    if (item >= 0) {
+      lengths[item] += 1;
+    } else {
+      this.expandPackage(items, level - 1, -1 - item, lengths);
+      this.expandPackage(items, level - 1, -item, lengths);
+    }
+  }
+  
+  // This method maps the whole of the file at the given path into memory to be read, closing the
+  // file again afterwards, since the mapping stays valid without it.
+  MappedByteBuffer mapFile(Path file) throws IOException {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... file ...   -- Path
+     */
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      channel.close();
+    }
+  }
+}
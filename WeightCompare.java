@@ -0,0 +1,29 @@
+import java.util.Comparator;
+
+// This comparator orders indices into an array of weights by the weights they point at, used to
+// sort symbols by frequency without losing track of which symbol is which. 
+class WeightCompare implements Comparator<Integer> {
+  int[] weights;
+  
+  // Constructor
+  WeightCompare(int[] weights) {
+    this.weights = weights;
+  }
+  
+  /* TEMPLATE
+   * FIELDS:
+   * ... this.weights ...                            -- int[]
+   * METHODS:
+   * ... compare(Integer one, Integer two) ...       -- int
+   */
+  
+  // This method compares the two given indices by the weights they point at. 
+  public int compare(Integer one, Integer two) {
+    /* TEMPLATE
+     * PARAMETERS:
+     * ... one ...   -- Integer
+     * ... two ...   -- Integer
+     */
+    return Integer.compare(this.weights[one], this.weights[two]);
+  }
+}